@@ -0,0 +1,12 @@
+package com.prime.rushhour.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class RushHourReactiveApplication {
+
+  public static void main(String[] args) {
+    SpringApplication.run(RushHourReactiveApplication.class, args);
+  }
+}
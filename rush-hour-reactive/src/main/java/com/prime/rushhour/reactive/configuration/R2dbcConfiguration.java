@@ -0,0 +1,49 @@
+package com.prime.rushhour.reactive.configuration;
+
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.r2dbc.config.AbstractR2dbcConfiguration;
+import org.springframework.data.r2dbc.connectionfactory.R2dbcTransactionManager;
+import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+@Configuration
+@EnableR2dbcRepositories(basePackages = "com.prime.rushhour.reactive.repository")
+public class R2dbcConfiguration extends AbstractR2dbcConfiguration {
+
+  @Value("${app.r2dbc.url}")
+  private String url;
+
+  @Value("${app.r2dbc.username}")
+  private String username;
+
+  @Value("${app.r2dbc.password}")
+  private String password;
+
+  @Override
+  @Bean
+  public ConnectionFactory connectionFactory() {
+    return ConnectionFactories.get(
+        ConnectionFactoryOptions.parse(url)
+            .mutate()
+            .option(ConnectionFactoryOptions.USER, username)
+            .option(ConnectionFactoryOptions.PASSWORD, password)
+            .build());
+  }
+
+  @Bean
+  public ReactiveTransactionManager transactionManager(ConnectionFactory connectionFactory) {
+    return new R2dbcTransactionManager(connectionFactory);
+  }
+
+  @Bean
+  public TransactionalOperator transactionalOperator(
+      ReactiveTransactionManager transactionManager) {
+    return TransactionalOperator.create(transactionManager);
+  }
+}
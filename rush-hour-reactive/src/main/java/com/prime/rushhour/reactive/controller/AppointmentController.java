@@ -0,0 +1,94 @@
+package com.prime.rushhour.reactive.controller;
+
+import com.prime.rushhour.reactive.dto.ActivityDtoWithoutAppointments;
+import com.prime.rushhour.reactive.dto.ActivityIdDto;
+import com.prime.rushhour.reactive.dto.AppointmentRequestDto;
+import com.prime.rushhour.reactive.dto.AppointmentResponseDto;
+import com.prime.rushhour.reactive.mapper.Mapper;
+import com.prime.rushhour.reactive.security.CustomUserDetails;
+import com.prime.rushhour.reactive.service.AppointmentService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+@RestController
+@Validated
+@RequestMapping("/api/v1")
+public class AppointmentController {
+
+  private final Mapper mapper;
+  private final AppointmentService appointmentService;
+
+  @GetMapping("/appointment")
+  public Mono<AppointmentResponseDto> getAppointmentById(@RequestParam("id") @Min(1) int id) {
+    return appointmentService.findWithActivitiesById(id).map(mapper::appointmentToAppointmentDto);
+  }
+
+  @GetMapping(value = "/appointments", produces = MediaType.APPLICATION_JSON_VALUE)
+  public Flux<AppointmentResponseDto> getAllAppointments(
+      @RequestParam(defaultValue = "0") @Min(0) int pageNo,
+      @RequestParam(defaultValue = "10") @Min(1) @Max(100) int pageSize,
+      @RequestParam(defaultValue = "id") String sortBy) {
+    return appointmentService
+        .findAll(pageNo, pageSize, sortBy)
+        .map(mapper::appointmentToAppointmentDto);
+  }
+
+  /** Streams every appointment as newline delimited JSON, written as the client reads it. */
+  @GetMapping(value = "/appointments", produces = MediaType.APPLICATION_STREAM_JSON_VALUE)
+  public Flux<AppointmentResponseDto> streamAllAppointments() {
+    return appointmentService.streamAll().map(mapper::appointmentToAppointmentDto);
+  }
+
+  @PostMapping("/appointment")
+  public Mono<ResponseEntity<AppointmentResponseDto>> createAppointment(
+      @Valid @RequestBody AppointmentRequestDto appointmentRequestDto,
+      @AuthenticationPrincipal CustomUserDetails user) {
+    return appointmentService
+        .create(
+            appointmentRequestDto.getStartDate(),
+            appointmentRequestDto.getActivities().stream()
+                .map(ActivityIdDto::getId)
+                .collect(Collectors.toList()),
+            user)
+        .map(
+            appointment ->
+                ResponseEntity.status(HttpStatus.CREATED)
+                    .body(mapper.appointmentToAppointmentDto(appointment)));
+  }
+
+  @PutMapping("/appointment")
+  public Mono<AppointmentResponseDto> updateAppointmentById(
+      @Valid @RequestBody AppointmentResponseDto appointmentResponseDto,
+      @AuthenticationPrincipal CustomUserDetails user) {
+    return appointmentService
+        .update(
+            appointmentResponseDto.getId(),
+            appointmentResponseDto.getStartDate(),
+            appointmentResponseDto.getActivities().stream()
+                .map(ActivityDtoWithoutAppointments::getId)
+                .collect(Collectors.toList()),
+            user)
+        .map(mapper::appointmentToAppointmentDto);
+  }
+
+  @DeleteMapping("/appointment")
+  public Mono<ResponseEntity<Void>> deleteAppointmentById(
+      @RequestParam("id") @Min(1) int id, @AuthenticationPrincipal CustomUserDetails user) {
+    return appointmentService
+        .delete(id, user)
+        .thenReturn(ResponseEntity.status(HttpStatus.NO_CONTENT).build());
+  }
+}
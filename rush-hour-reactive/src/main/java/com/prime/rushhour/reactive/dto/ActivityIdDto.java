@@ -0,0 +1,14 @@
+package com.prime.rushhour.reactive.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.validation.constraints.Min;
+
+@Getter
+@Setter
+public class ActivityIdDto {
+
+    @Min(value = 1, message = "Id must be greater than zero")
+    private int id;
+}
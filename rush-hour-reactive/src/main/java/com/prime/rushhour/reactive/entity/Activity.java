@@ -0,0 +1,31 @@
+package com.prime.rushhour.reactive.entity;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+@Getter
+@Setter
+@Table("activity")
+public class Activity {
+
+  @Id
+  private int id;
+
+  private String name;
+
+  /** Nanoseconds, the way Hibernate stores {@link Duration} columns. */
+  private long duration;
+
+  private BigDecimal price;
+
+  private int capacity;
+
+  public Duration getDurationValue() {
+    return Duration.ofNanos(duration);
+  }
+}
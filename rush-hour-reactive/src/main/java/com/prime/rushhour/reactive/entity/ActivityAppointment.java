@@ -0,0 +1,28 @@
+package com.prime.rushhour.reactive.entity;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@Table("activity_appointment")
+public class ActivityAppointment {
+
+  @Id
+  private int id;
+
+  private int activityId;
+
+  private int appointmentId;
+
+  private LocalDateTime startDate;
+
+  private LocalDateTime endDate;
+
+  private BigDecimal price;
+}
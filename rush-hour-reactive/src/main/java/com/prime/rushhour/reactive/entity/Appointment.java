@@ -0,0 +1,23 @@
+package com.prime.rushhour.reactive.entity;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@Table("appointment")
+public class Appointment {
+
+  @Id
+  private int id;
+
+  private LocalDateTime startDate;
+
+  private LocalDateTime endDate;
+
+  private int userId;
+}
@@ -0,0 +1,23 @@
+package com.prime.rushhour.reactive.entity;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+@Getter
+@Setter
+@Table("user")
+public class UserAccount {
+
+  @Id
+  private int id;
+
+  private String email;
+
+  private String password;
+
+  private String roleName;
+
+  private int tokenVersion;
+}
@@ -0,0 +1,7 @@
+package com.prime.rushhour.reactive.exception;
+
+public class ActivityNotFoundException extends RuntimeException {
+  public ActivityNotFoundException(String message) {
+    super(message);
+  }
+}
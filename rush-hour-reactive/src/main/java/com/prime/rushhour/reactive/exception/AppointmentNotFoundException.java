@@ -0,0 +1,7 @@
+package com.prime.rushhour.reactive.exception;
+
+public class AppointmentNotFoundException extends RuntimeException {
+  public AppointmentNotFoundException(String message) {
+    super(message);
+  }
+}
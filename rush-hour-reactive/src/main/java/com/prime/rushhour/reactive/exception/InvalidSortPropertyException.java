@@ -0,0 +1,7 @@
+package com.prime.rushhour.reactive.exception;
+
+public class InvalidSortPropertyException extends RuntimeException {
+  public InvalidSortPropertyException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,7 @@
+package com.prime.rushhour.reactive.exception;
+
+public class OverlappingAppointmentsException extends RuntimeException {
+  public OverlappingAppointmentsException(String message) {
+    super(message);
+  }
+}
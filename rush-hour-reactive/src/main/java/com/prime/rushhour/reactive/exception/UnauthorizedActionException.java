@@ -0,0 +1,7 @@
+package com.prime.rushhour.reactive.exception;
+
+public class UnauthorizedActionException extends RuntimeException {
+  public UnauthorizedActionException(String message) {
+    super(message);
+  }
+}
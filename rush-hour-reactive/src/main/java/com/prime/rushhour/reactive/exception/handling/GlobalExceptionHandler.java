@@ -0,0 +1,50 @@
+package com.prime.rushhour.reactive.exception.handling;
+
+import com.prime.rushhour.reactive.exception.*;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import javax.validation.ConstraintViolationException;
+import java.time.format.DateTimeParseException;
+
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+  @ResponseStatus(HttpStatus.BAD_REQUEST)
+  @ExceptionHandler(ConstraintViolationException.class)
+  public void constraintViolationException() {}
+
+  @ResponseStatus(HttpStatus.BAD_REQUEST)
+  @ExceptionHandler(InvalidSortPropertyException.class)
+  public void paginationPropertyNotValidException() {}
+
+  @ResponseStatus(HttpStatus.BAD_REQUEST)
+  @ExceptionHandler(InvalidDateRangeException.class)
+  public void invalidDateRangeException() {}
+
+  @ResponseStatus(HttpStatus.BAD_REQUEST)
+  @ExceptionHandler(DateTimeParseException.class)
+  public void durationParseException() {}
+
+  @ResponseStatus(HttpStatus.NOT_FOUND)
+  @ExceptionHandler(ActivityNotFoundException.class)
+  public void activityNotFoundException() {}
+
+  @ResponseStatus(HttpStatus.NOT_FOUND)
+  @ExceptionHandler(AppointmentNotFoundException.class)
+  public void appointmentNotFoundException() {}
+
+  @ResponseStatus(HttpStatus.UNAUTHORIZED)
+  @ExceptionHandler(UnauthorizedActionException.class)
+  public void accountMismatchException() {}
+
+  @ResponseStatus(HttpStatus.BAD_REQUEST)
+  @ExceptionHandler(OverlappingAppointmentsException.class)
+  public void overlappingAppointmentsException() {}
+
+  @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+  @ExceptionHandler(BookingUnavailableException.class)
+  public void bookingUnavailableException() {}
+}
@@ -0,0 +1,39 @@
+package com.prime.rushhour.reactive.mapper;
+
+import com.prime.rushhour.reactive.dto.ActivityDtoWithoutAppointments;
+import com.prime.rushhour.reactive.dto.AppointmentResponseDto;
+import com.prime.rushhour.reactive.entity.Activity;
+import com.prime.rushhour.reactive.service.AppointmentDetails;
+import org.springframework.stereotype.Component;
+
+import java.util.stream.Collectors;
+
+@Component
+public class Mapper {
+
+  public AppointmentResponseDto appointmentToAppointmentDto(AppointmentDetails details) {
+    AppointmentResponseDto appointmentResponseDto = new AppointmentResponseDto();
+    appointmentResponseDto.setId(details.getAppointment().getId());
+    appointmentResponseDto.setStartDate(details.getAppointment().getStartDate());
+    appointmentResponseDto.setEndDate(details.getAppointment().getEndDate());
+    appointmentResponseDto.setUserId(details.getAppointment().getUserId());
+    appointmentResponseDto.setActivities(
+        details.getActivities().stream()
+            .map(this::activityToActivityDtoWithoutAppointments)
+            .collect(Collectors.toList()));
+
+    return appointmentResponseDto;
+  }
+
+  public ActivityDtoWithoutAppointments activityToActivityDtoWithoutAppointments(
+      Activity activity) {
+    ActivityDtoWithoutAppointments activityDto = new ActivityDtoWithoutAppointments();
+    activityDto.setId(activity.getId());
+    activityDto.setName(activity.getName());
+    activityDto.setDuration(activity.getDurationValue().toString());
+    activityDto.setPrice(activity.getPrice());
+    activityDto.setCapacity(activity.getCapacity());
+
+    return activityDto;
+  }
+}
@@ -0,0 +1,35 @@
+package com.prime.rushhour.reactive.repository;
+
+import com.prime.rushhour.reactive.entity.ActivityAppointment;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+public interface ActivityAppointmentRepository
+    extends ReactiveCrudRepository<ActivityAppointment, Integer> {
+
+  @Query(
+      "select * from activity_appointment "
+          + " where appointment_id in (:appointmentIds) "
+          + " order by appointment_id, start_date")
+  Flux<ActivityAppointment> findByAppointmentIds(Collection<Integer> appointmentIds);
+
+  @Query(
+      "select * from activity_appointment "
+          + " where activity_id in (:activityIds) and appointment_id <> :excludedId "
+          + " and end_date > :startDate and start_date < :endDate")
+  Flux<ActivityAppointment> findOverlapping(
+      Collection<Integer> activityIds,
+      int excludedId,
+      LocalDateTime startDate,
+      LocalDateTime endDate);
+
+  @Modifying
+  @Query("delete from activity_appointment where appointment_id = :appointmentId")
+  Mono<Integer> deleteByAppointmentId(int appointmentId);
+}
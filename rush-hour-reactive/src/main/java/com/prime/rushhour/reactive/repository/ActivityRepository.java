@@ -0,0 +1,6 @@
+package com.prime.rushhour.reactive.repository;
+
+import com.prime.rushhour.reactive.entity.Activity;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+
+public interface ActivityRepository extends ReactiveCrudRepository<Activity, Integer> {}
@@ -0,0 +1,61 @@
+package com.prime.rushhour.reactive.repository;
+
+import com.prime.rushhour.reactive.schedule.HourlyUsage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class ActivityUsageRepository {
+
+  private final DatabaseClient databaseClient;
+
+  /** Adds the usage to the servlet application's hourly rollups, creating missing hours. */
+  public Mono<Void> addAll(Collection<HourlyUsage> usage) {
+    if (usage.isEmpty()) {
+      return Mono.empty();
+    }
+
+    StringBuilder sql =
+        new StringBuilder(
+            "INSERT INTO activity_hourly_usage "
+                + "(activity_id, hour_start, bookings, booked_seconds, revenue) VALUES ");
+    for (int i = 0; i < usage.size(); i++) {
+      sql.append(i == 0 ? "" : ", ")
+          .append("(:activity")
+          .append(i)
+          .append(", :hour")
+          .append(i)
+          .append(", :bookings")
+          .append(i)
+          .append(", :seconds")
+          .append(i)
+          .append(", :revenue")
+          .append(i)
+          .append(")");
+    }
+    sql.append(
+        " ON DUPLICATE KEY UPDATE bookings = bookings + VALUES(bookings), "
+            + "booked_seconds = booked_seconds + VALUES(booked_seconds), "
+            + "revenue = revenue + VALUES(revenue)");
+
+    List<HourlyUsage> rows = List.copyOf(usage);
+    DatabaseClient.GenericExecuteSpec statement = databaseClient.execute(sql.toString());
+    for (int i = 0; i < rows.size(); i++) {
+      statement =
+          statement
+              .bind("activity" + i, rows.get(i).getActivityId())
+              .bind("hour" + i, rows.get(i).getHourStart())
+              .bind("bookings" + i, rows.get(i).getBookings())
+              .bind("seconds" + i, rows.get(i).getBookedSeconds())
+              .bind("revenue" + i, rows.get(i).getRevenue());
+    }
+
+    return statement.then();
+  }
+}
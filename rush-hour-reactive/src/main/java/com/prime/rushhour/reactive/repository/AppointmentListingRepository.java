@@ -0,0 +1,67 @@
+package com.prime.rushhour.reactive.repository;
+
+import com.prime.rushhour.reactive.entity.Appointment;
+import com.prime.rushhour.reactive.exception.InvalidSortPropertyException;
+import com.prime.rushhour.reactive.repository.projection.AppointmentActivityRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Repository
+@RequiredArgsConstructor
+public class AppointmentListingRepository {
+
+  private static final Map<String, String> SORT_COLUMNS =
+      Map.of("id", "id", "startDate", "start_date", "endDate", "end_date", "userId", "user_id");
+
+  private final DatabaseClient databaseClient;
+
+  public Flux<Appointment> findPage(String sortBy, int pageNo, int pageSize) {
+    String sortColumn = SORT_COLUMNS.get(sortBy);
+    if (sortColumn == null) {
+      throw new InvalidSortPropertyException("Cannot sort appointments by " + sortBy);
+    }
+
+    return databaseClient
+        .execute(
+            "select * from appointment order by " + sortColumn + ", id limit :limit offset :offset")
+        .bind("limit", pageSize)
+        .bind("offset", (long) pageNo * pageSize)
+        .as(Appointment.class)
+        .fetch()
+        .all();
+  }
+
+  /**
+   * Streams every appointment with its activities, one row per segment in appointment order. Rows
+   * are only read as fast as the subscriber requests them.
+   */
+  public Flux<AppointmentActivityRow> streamAll() {
+    return databaseClient
+        .execute(
+            "select app.id, app.start_date, app.end_date, app.user_id, act.id as activity_id, "
+                + " act.name, act.duration, act.price, act.capacity "
+                + " from appointment as app "
+                + " left join activity_appointment as act_app on act_app.appointment_id = app.id "
+                + " left join activity as act on act.id = act_app.activity_id "
+                + " order by app.id, act_app.start_date")
+        .map(
+            (row, metadata) ->
+                new AppointmentActivityRow(
+                    row.get("id", Integer.class),
+                    row.get("start_date", LocalDateTime.class),
+                    row.get("end_date", LocalDateTime.class),
+                    row.get("user_id", Integer.class),
+                    row.get("activity_id", Integer.class),
+                    row.get("name", String.class),
+                    row.get("duration", Long.class),
+                    row.get("price", BigDecimal.class),
+                    row.get("capacity", Integer.class)))
+        .all();
+  }
+}
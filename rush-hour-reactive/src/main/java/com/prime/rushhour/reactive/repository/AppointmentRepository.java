@@ -0,0 +1,24 @@
+package com.prime.rushhour.reactive.repository;
+
+import com.prime.rushhour.reactive.entity.Appointment;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+public interface AppointmentRepository extends ReactiveCrudRepository<Appointment, Integer> {
+
+  @Query(
+      "select * from appointment "
+          + " where user_id = :userId and id <> :excludedId "
+          + " and end_date > :startDate and start_date < :endDate "
+          + " limit 1")
+  Mono<Appointment> findFirstOverlappingForUser(
+      int userId, int excludedId, LocalDateTime startDate, LocalDateTime endDate);
+
+  @Modifying
+  @Query("update appointment set start_date = :startDate, end_date = :endDate where id = :id")
+  Mono<Integer> reschedule(int id, LocalDateTime startDate, LocalDateTime endDate);
+}
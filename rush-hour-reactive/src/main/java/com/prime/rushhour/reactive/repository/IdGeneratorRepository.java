@@ -0,0 +1,46 @@
+package com.prime.rushhour.reactive.repository;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Hands out ids from the {@code id_generator} table shared with the servlet application's
+ * pooled-lo generators, so both stacks can insert into the same tables without colliding.
+ */
+@Repository
+@RequiredArgsConstructor
+public class IdGeneratorRepository {
+
+  private final ConnectionFactory connectionFactory;
+
+  /** Reserves {@code count} consecutive ids and returns the first one. */
+  public Mono<Integer> allocate(String name, int count) {
+    // LAST_INSERT_ID is per connection and the update auto-commits, so the block is claimed on
+    // a connection of its own rather than inside the booking transaction.
+    return Mono.usingWhen(
+        connectionFactory.create(),
+        connection -> allocate(connection, name, count),
+        Connection::close);
+  }
+
+  private Mono<Integer> allocate(Connection connection, String name, int count) {
+    return Flux.from(
+            connection
+                .createStatement(
+                    "UPDATE id_generator SET next_val = LAST_INSERT_ID(next_val + ?) "
+                        + "WHERE name = ?")
+                .bind(0, count)
+                .bind(1, name)
+                .execute())
+        .flatMap(result -> result.getRowsUpdated())
+        .then(
+            Flux.from(connection.createStatement("SELECT LAST_INSERT_ID()").execute())
+                .flatMap(result -> result.map((row, metadata) -> (Number) row.get(0)))
+                .next())
+        .map(nextValue -> nextValue.intValue() - count);
+  }
+}
@@ -0,0 +1,61 @@
+package com.prime.rushhour.reactive.repository;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class SlotReservationRepository {
+
+  private final DatabaseClient databaseClient;
+
+  public Mono<Void> deleteByAppointmentId(int appointmentId) {
+    return databaseClient
+        .execute("DELETE FROM activity_slot_reservation WHERE appointment_id = :appointmentId")
+        .bind("appointmentId", appointmentId)
+        .then();
+  }
+
+  public Mono<Void> insertAll(int appointmentId, List<Reservation> reservations) {
+    if (reservations.isEmpty()) {
+      return Mono.empty();
+    }
+
+    StringBuilder sql =
+        new StringBuilder(
+            "INSERT INTO activity_slot_reservation (activity_id, appointment_id, slot_start) "
+                + "VALUES ");
+    for (int i = 0; i < reservations.size(); i++) {
+      sql.append(i == 0 ? "" : ", ")
+          .append("(:activity")
+          .append(i)
+          .append(", :appointment, :slot")
+          .append(i)
+          .append(")");
+    }
+
+    DatabaseClient.GenericExecuteSpec statement =
+        databaseClient.execute(sql.toString()).bind("appointment", appointmentId);
+    for (int i = 0; i < reservations.size(); i++) {
+      statement =
+          statement
+              .bind("activity" + i, reservations.get(i).getActivityId())
+              .bind("slot" + i, reservations.get(i).getSlotStart());
+    }
+
+    return statement.then();
+  }
+
+  @Getter
+  @RequiredArgsConstructor
+  public static class Reservation {
+    private final int activityId;
+    private final LocalDateTime slotStart;
+  }
+}
@@ -0,0 +1,15 @@
+package com.prime.rushhour.reactive.repository;
+
+import com.prime.rushhour.reactive.entity.UserAccount;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Mono;
+
+public interface UserAccountRepository extends ReactiveCrudRepository<UserAccount, Integer> {
+
+  @Query(
+      "select u.id, u.email, u.password, u.token_version, r.name as role_name "
+          + " from user as u join role as r on r.id = u.role_id "
+          + " where u.email = :email")
+  Mono<UserAccount> findByEmail(String email);
+}
@@ -0,0 +1,22 @@
+package com.prime.rushhour.reactive.repository.projection;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Getter
+@RequiredArgsConstructor
+public class AppointmentActivityRow {
+
+  private final int appointmentId;
+  private final LocalDateTime startDate;
+  private final LocalDateTime endDate;
+  private final int userId;
+  private final Integer activityId;
+  private final String activityName;
+  private final Long activityDuration;
+  private final BigDecimal activityPrice;
+  private final Integer activityCapacity;
+}
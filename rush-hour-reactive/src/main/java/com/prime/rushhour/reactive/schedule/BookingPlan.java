@@ -0,0 +1,146 @@
+package com.prime.rushhour.reactive.schedule;
+
+import com.prime.rushhour.reactive.entity.Activity;
+import com.prime.rushhour.reactive.entity.ActivityAppointment;
+import com.prime.rushhour.reactive.repository.SlotReservationRepository.Reservation;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/** The segments of one booking, with its activities run back to back in request order. */
+@Getter
+public class BookingPlan {
+
+  private final int userId;
+  private final LocalDateTime startDate;
+  private final LocalDateTime endDate;
+  private final List<Activity> activities;
+  private final List<ActivityAppointment> segments = new ArrayList<>();
+
+  public BookingPlan(int userId, LocalDateTime startDate, List<Activity> activities) {
+    this.userId = userId;
+    this.startDate = startDate;
+    this.activities = activities;
+
+    LocalDateTime segmentStart = startDate;
+    for (Activity activity : activities) {
+      ActivityAppointment segment = new ActivityAppointment();
+      segment.setActivityId(activity.getId());
+      segment.setStartDate(segmentStart);
+      segment.setEndDate(segmentStart.plus(activity.getDurationValue()));
+      segment.setPrice(activity.getPrice());
+      segments.add(segment);
+      segmentStart = segment.getEndDate();
+    }
+    this.endDate = segmentStart;
+  }
+
+  public Set<Integer> getActivityIds() {
+    return activities.stream().map(Activity::getId).collect(Collectors.toCollection(TreeSet::new));
+  }
+
+  /**
+   * Checks every segment against the already booked segments of its activity, allowing as many
+   * concurrent bookings as the activity's capacity.
+   */
+  public boolean exceedsCapacity(Collection<ActivityAppointment> bookedSegments) {
+    Map<Integer, List<ActivityAppointment>> bookedByActivity =
+        bookedSegments.stream().collect(Collectors.groupingBy(ActivityAppointment::getActivityId));
+
+    for (int i = 0; i < segments.size(); i++) {
+      ActivityAppointment segment = segments.get(i);
+      List<ActivityAppointment> booked =
+          bookedByActivity.getOrDefault(segment.getActivityId(), List.of());
+      if (maxConcurrent(booked, segment.getStartDate(), segment.getEndDate())
+          >= activities.get(i).getCapacity()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Whether every single-booking segment starts and ends on the slot grid. Segments meeting inside
+   * a slot would both claim it, so the unique claim could not tell them from overlapping ones.
+   */
+  public boolean isOnGrid(int slotMinutes) {
+    for (int i = 0; i < segments.size(); i++) {
+      if (activities.get(i).getCapacity() > 1) {
+        continue;
+      }
+      ActivityAppointment segment = segments.get(i);
+      if (!slotStartOf(segment.getStartDate(), slotMinutes).equals(segment.getStartDate())
+          || !slotStartOf(segment.getEndDate(), slotMinutes).equals(segment.getEndDate())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public List<Reservation> reservations(int slotMinutes) {
+    List<Reservation> reservations = new ArrayList<>();
+    for (int i = 0; i < segments.size(); i++) {
+      // A unique slot claim can only guard activities that host one booking at a time.
+      if (activities.get(i).getCapacity() > 1) {
+        continue;
+      }
+      ActivityAppointment segment = segments.get(i);
+      // Every touched slot is claimed, so overlapping segments share one. The end is exclusive.
+      for (LocalDateTime slotStart = slotStartOf(segment.getStartDate(), slotMinutes);
+          slotStart.isBefore(segment.getEndDate());
+          slotStart = slotStart.plusMinutes(slotMinutes)) {
+        reservations.add(new Reservation(segment.getActivityId(), slotStart));
+      }
+    }
+    return reservations;
+  }
+
+  static int maxConcurrent(
+      List<ActivityAppointment> booked, LocalDateTime startDate, LocalDateTime endDate) {
+    List<Map.Entry<LocalDateTime, Integer>> events = new ArrayList<>();
+    for (ActivityAppointment segment : booked) {
+      if (segment.getStartDate().isBefore(endDate) && segment.getEndDate().isAfter(startDate)) {
+        events.add(Map.entry(max(segment.getStartDate(), startDate), 1));
+        events.add(Map.entry(min(segment.getEndDate(), endDate), -1));
+      }
+    }
+    // Ends sort before starts at the same instant, back to back bookings do not overlap.
+    events.sort(
+        Comparator.<Map.Entry<LocalDateTime, Integer>, LocalDateTime>comparing(Map.Entry::getKey)
+            .thenComparing(Map.Entry::getValue));
+
+    int concurrent = 0;
+    int maxConcurrent = 0;
+    for (Map.Entry<LocalDateTime, Integer> event : events) {
+      concurrent += event.getValue();
+      maxConcurrent = Math.max(maxConcurrent, concurrent);
+    }
+    return maxConcurrent;
+  }
+
+  private static LocalDateTime slotStartOf(LocalDateTime dateTime, int slotMinutes) {
+    LocalDateTime hour = dateTime.truncatedTo(ChronoUnit.HOURS);
+    long offset = ChronoUnit.NANOS.between(hour, dateTime);
+    long slotNanos = TimeUnit.MINUTES.toNanos(slotMinutes);
+
+    return hour.plusNanos(offset / slotNanos * slotNanos);
+  }
+
+  private static LocalDateTime max(LocalDateTime first, LocalDateTime second) {
+    return first.isAfter(second) ? first : second;
+  }
+
+  private static LocalDateTime min(LocalDateTime first, LocalDateTime second) {
+    return first.isBefore(second) ? first : second;
+  }
+}
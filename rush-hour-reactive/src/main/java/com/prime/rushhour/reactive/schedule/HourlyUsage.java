@@ -0,0 +1,99 @@
+package com.prime.rushhour.reactive.schedule;
+
+import com.prime.rushhour.reactive.entity.ActivityAppointment;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * One activity's share of a single clock hour, counted the way the servlet application counts it:
+ * a booking and its revenue go to the hour its segment starts in, while the booked seconds are
+ * split over every hour the segment covers.
+ */
+@Getter
+@EqualsAndHashCode
+@RequiredArgsConstructor
+public class HourlyUsage {
+
+  private final int activityId;
+  private final LocalDateTime hourStart;
+  private final int bookings;
+  private final long bookedSeconds;
+  private final BigDecimal revenue;
+
+  public static List<HourlyUsage> of(Collection<ActivityAppointment> segments) {
+    List<HourlyUsage> usage = new ArrayList<>();
+    for (ActivityAppointment segment : segments) {
+      LocalDateTime hourStart = segment.getStartDate().truncatedTo(ChronoUnit.HOURS);
+      boolean first = true;
+      while (hourStart.isBefore(segment.getEndDate())) {
+        LocalDateTime hourEnd = hourStart.plusHours(1);
+        long bookedSeconds =
+            Duration.between(
+                    segment.getStartDate().isAfter(hourStart) ? segment.getStartDate() : hourStart,
+                    segment.getEndDate().isBefore(hourEnd) ? segment.getEndDate() : hourEnd)
+                .getSeconds();
+        usage.add(
+            new HourlyUsage(
+                segment.getActivityId(),
+                hourStart,
+                first ? 1 : 0,
+                bookedSeconds,
+                first
+                    ? Objects.requireNonNullElse(segment.getPrice(), BigDecimal.ZERO)
+                    : BigDecimal.ZERO));
+        first = false;
+        hourStart = hourEnd;
+      }
+    }
+
+    return usage;
+  }
+
+  /** Sums usage per activity and hour, subtracting {@code removed} and dropping empty buckets. */
+  public static Collection<HourlyUsage> delta(
+      Collection<HourlyUsage> removed, Collection<HourlyUsage> added) {
+    Map<List<Object>, HourlyUsage> buckets = new LinkedHashMap<>();
+    for (HourlyUsage usage : removed) {
+      buckets.merge(usage.key(), usage.negate(), HourlyUsage::plus);
+    }
+    for (HourlyUsage usage : added) {
+      buckets.merge(usage.key(), usage, HourlyUsage::plus);
+    }
+    buckets.values().removeIf(HourlyUsage::isEmpty);
+
+    return buckets.values();
+  }
+
+  private List<Object> key() {
+    return List.of(activityId, hourStart);
+  }
+
+  private HourlyUsage negate() {
+    return new HourlyUsage(activityId, hourStart, -bookings, -bookedSeconds, revenue.negate());
+  }
+
+  private HourlyUsage plus(HourlyUsage other) {
+    return new HourlyUsage(
+        activityId,
+        hourStart,
+        bookings + other.bookings,
+        bookedSeconds + other.bookedSeconds,
+        revenue.add(other.revenue));
+  }
+
+  private boolean isEmpty() {
+    return bookings == 0 && bookedSeconds == 0 && revenue.signum() == 0;
+  }
+}
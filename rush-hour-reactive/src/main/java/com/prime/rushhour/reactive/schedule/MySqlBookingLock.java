@@ -0,0 +1,92 @@
+package com.prime.rushhour.reactive.schedule;
+
+import com.prime.rushhour.reactive.exception.BookingUnavailableException;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Cluster-wide booking lock built on the same MySQL named locks as the servlet application, so
+ * bookings made through either stack serialize against each other. The locks are held on a
+ * dedicated connection and released once the booking has completed.
+ */
+@Slf4j
+@Component
+public class MySqlBookingLock {
+
+  private final ConnectionFactory connectionFactory;
+
+  @Value("${app.booking.lock.timeout-ms}")
+  private long timeoutMs;
+
+  public MySqlBookingLock(ConnectionFactory connectionFactory) {
+    this.connectionFactory = connectionFactory;
+  }
+
+  public <T> Mono<T> withLocks(SortedSet<String> keys, Supplier<Mono<T>> booking) {
+    return Mono.usingWhen(
+        connectionFactory.create(),
+        connection -> acquire(connection, keys).then(Mono.defer(booking)),
+        this::release);
+  }
+
+  private Mono<Void> acquire(Connection connection, SortedSet<String> keys) {
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+
+    return Flux.fromIterable(keys)
+        .concatMap(key -> getLock(connection, key, Math.max(0, deadline - System.nanoTime())))
+        .filter(locked -> !locked)
+        .next()
+        .flatMap(
+            timedOut ->
+                Mono.<Void>error(
+                    new BookingUnavailableException(
+                        "Timed out waiting for a concurrent booking. Please try again.")));
+  }
+
+  private Mono<Boolean> getLock(Connection connection, String key, long timeoutNanos) {
+    return Flux.from(
+            connection
+                .createStatement("SELECT GET_LOCK(?, ?)")
+                .bind(0, key)
+                .bind(1, timeoutNanos / 1e9)
+                .execute())
+        .flatMap(result -> result.map((row, metadata) -> (Number) row.get(0)))
+        .next()
+        .map(result -> result.intValue() == 1)
+        .switchIfEmpty(
+            Mono.error(new BookingUnavailableException("Booking is temporarily unavailable.")));
+  }
+
+  private Mono<Void> release(Connection connection) {
+    return Flux.from(connection.createStatement("SELECT RELEASE_ALL_LOCKS()").execute())
+        .flatMap(result -> result.map((row, metadata) -> row.get(0)))
+        .then()
+        .onErrorResume(
+            exc -> {
+              // MySQL drops the locks with the session; the driver closes it on I/O errors.
+              log.error("Could not release booking locks", exc);
+              return Mono.empty();
+            })
+        .then(Mono.from(connection.close()));
+  }
+
+  public static SortedSet<String> keysOf(int userId, Collection<Integer> activityIds) {
+    SortedSet<String> keys = new TreeSet<>();
+    keys.add("rush_hour.user." + userId);
+    for (int activityId : activityIds) {
+      keys.add("rush_hour.activity." + activityId);
+    }
+    return keys;
+  }
+}
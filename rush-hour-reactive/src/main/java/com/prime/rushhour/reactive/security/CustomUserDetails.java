@@ -0,0 +1,79 @@
+package com.prime.rushhour.reactive.security;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.prime.rushhour.reactive.entity.UserAccount;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class CustomUserDetails implements UserDetails {
+
+  private static final String ROLE_ADMIN = "ROLE_ADMIN";
+
+  @Getter
+  private final int id;
+
+  private final String email;
+
+  @JsonIgnore
+  private final String password;
+
+  private final List<GrantedAuthority> authorities;
+
+  @Getter
+  private final int tokenVersion;
+
+  public static CustomUserDetails create(UserAccount user) {
+    return new CustomUserDetails(
+        user.getId(),
+        user.getEmail(),
+        user.getPassword(),
+        List.of(new SimpleGrantedAuthority(user.getRoleName())),
+        user.getTokenVersion());
+  }
+
+  public boolean isAdmin() {
+    return authorities.stream().anyMatch(authority -> ROLE_ADMIN.equals(authority.getAuthority()));
+  }
+
+  @Override
+  public Collection<? extends GrantedAuthority> getAuthorities() {
+    return authorities;
+  }
+
+  @Override
+  public String getPassword() {
+    return password;
+  }
+
+  @Override
+  public String getUsername() {
+    return email;
+  }
+
+  @Override
+  public boolean isAccountNonExpired() {
+    return true;
+  }
+
+  @Override
+  public boolean isAccountNonLocked() {
+    return true;
+  }
+
+  @Override
+  public boolean isCredentialsNonExpired() {
+    return true;
+  }
+
+  @Override
+  public boolean isEnabled() {
+    return true;
+  }
+}
@@ -0,0 +1,50 @@
+package com.prime.rushhour.reactive.security;
+
+import com.prime.rushhour.reactive.security.jwt.JwtUtils;
+import com.prime.rushhour.reactive.security.jwt.filter.JwtAuthenticationWebFilter;
+import com.prime.rushhour.reactive.security.service.CustomUserDetailsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+
+@RequiredArgsConstructor
+@EnableWebFluxSecurity
+public class SecurityConfig {
+
+  private final CustomUserDetailsService customUserDetailsService;
+  private final JwtUtils jwtUtils;
+  private static final String ADMIN = "ADMIN";
+  private static final String USER = "USER";
+
+  @Bean
+  public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+    return http.csrf()
+        .disable()
+        .httpBasic()
+        .disable()
+        .formLogin()
+        .disable()
+        .logout()
+        .disable()
+        .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+        .exceptionHandling()
+          .authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.UNAUTHORIZED))
+        .and()
+          .authorizeExchange()
+        .pathMatchers("/api/v1/appointment/**", "/api/v1/appointments")
+          .hasAnyRole(USER, ADMIN)
+        .anyExchange()
+          .authenticated()
+        .and()
+        .addFilterAt(
+            new JwtAuthenticationWebFilter(customUserDetailsService, jwtUtils),
+            SecurityWebFiltersOrder.AUTHENTICATION)
+        .build();
+  }
+}
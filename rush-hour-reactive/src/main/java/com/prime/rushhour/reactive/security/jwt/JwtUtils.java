@@ -0,0 +1,56 @@
+package com.prime.rushhour.reactive.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import com.prime.rushhour.reactive.security.CustomUserDetails;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+import java.util.function.Function;
+
+@Component
+public class JwtUtils {
+
+  /** The servlet application's claim for the user's token version when the token was issued. */
+  static final String TOKEN_VERSION_CLAIM = "ver";
+
+  @Value("${app.security.jwt-secret}")
+  private String secretKey;
+
+  public String getUsernameFromToken(String token) {
+    return getClaimFromToken(token, Claims::getSubject);
+  }
+
+  public Date getExpirationDateFromToken(String token) {
+    return getClaimFromToken(token, Claims::getExpiration);
+  }
+
+  public <T> T getClaimFromToken(String token, Function<Claims, T> claimsResolver) {
+    final Claims claims = getAllClaimsFromToken(token);
+    return claimsResolver.apply(claims);
+  }
+
+  private Claims getAllClaimsFromToken(String token) {
+    return Jwts.parser().setSigningKey(secretKey).parseClaimsJws(token).getBody();
+  }
+
+  private boolean isTokenExpired(String token) {
+    final Date expiration = getExpirationDateFromToken(token);
+    return expiration.before(new Date());
+  }
+
+  /**
+   * Tokens issued before the user's roles or password last changed carry an older version and are
+   * rejected, as the servlet application rejects them.
+   */
+  public boolean validateToken(String token, CustomUserDetails userDetails) {
+    final String username = getUsernameFromToken(token);
+    final Integer tokenVersion =
+        getClaimFromToken(token, claims -> claims.get(TOKEN_VERSION_CLAIM, Integer.class));
+    return (username.equals(userDetails.getUsername())
+        && tokenVersion != null
+        && tokenVersion == userDetails.getTokenVersion()
+        && !isTokenExpired(token));
+  }
+}
@@ -0,0 +1,64 @@
+package com.prime.rushhour.reactive.security.jwt.filter;
+
+import com.prime.rushhour.reactive.security.CustomUserDetails;
+import com.prime.rushhour.reactive.security.jwt.JwtUtils;
+import io.jsonwebtoken.JwtException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.web.server.authentication.AuthenticationWebFilter;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.authentication.ServerAuthenticationEntryPointFailureHandler;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of the servlet {@code JwtRequestFilter}: requests without a bearer
+ * token pass through unauthenticated, a valid token authenticates the request and an invalid or
+ * expired one is rejected with 401.
+ */
+public class JwtAuthenticationWebFilter extends AuthenticationWebFilter {
+
+  private static final String BEARER_PREFIX = "Bearer ";
+
+  public JwtAuthenticationWebFilter(
+      ReactiveUserDetailsService userDetailsService, JwtUtils jwtUtils) {
+    super(authenticationManager(userDetailsService, jwtUtils));
+
+    setServerAuthenticationConverter(
+        exchange -> {
+          String authorizationHeader =
+              exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+          if (authorizationHeader == null || !authorizationHeader.startsWith(BEARER_PREFIX)) {
+            return Mono.empty();
+          }
+          String jwt = authorizationHeader.substring(BEARER_PREFIX.length());
+          return Mono.just(new UsernamePasswordAuthenticationToken(jwt, jwt));
+        });
+    setSecurityContextRepository(NoOpServerSecurityContextRepository.getInstance());
+    setAuthenticationFailureHandler(
+        new ServerAuthenticationEntryPointFailureHandler(
+            new HttpStatusServerEntryPoint(HttpStatus.UNAUTHORIZED)));
+  }
+
+  private static ReactiveAuthenticationManager authenticationManager(
+      ReactiveUserDetailsService userDetailsService, JwtUtils jwtUtils) {
+    return authentication -> {
+      String jwt = (String) authentication.getCredentials();
+
+      return Mono.fromCallable(() -> jwtUtils.getUsernameFromToken(jwt))
+          .onErrorMap(JwtException.class, exc -> new BadCredentialsException(exc.getMessage()))
+          .flatMap(userDetailsService::findByUsername)
+          .cast(CustomUserDetails.class)
+          .filter(userDetails -> jwtUtils.validateToken(jwt, userDetails))
+          .switchIfEmpty(Mono.error(new BadCredentialsException("Invalid token")))
+          .map(
+              userDetails ->
+                  new UsernamePasswordAuthenticationToken(
+                      userDetails, null, userDetails.getAuthorities()));
+    };
+  }
+}
@@ -0,0 +1,26 @@
+package com.prime.rushhour.reactive.security.service;
+
+import com.prime.rushhour.reactive.repository.UserAccountRepository;
+import com.prime.rushhour.reactive.security.CustomUserDetails;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+@Service
+@RequiredArgsConstructor
+public class CustomUserDetailsService implements ReactiveUserDetailsService {
+
+  private final UserAccountRepository userAccountRepository;
+
+  @Override
+  public Mono<UserDetails> findByUsername(String email) {
+    return userAccountRepository
+        .findByEmail(email)
+        .switchIfEmpty(
+            Mono.error(new UsernameNotFoundException("User not found with email " + email)))
+        .map(CustomUserDetails::create);
+  }
+}
@@ -0,0 +1,16 @@
+package com.prime.rushhour.reactive.service;
+
+import com.prime.rushhour.reactive.entity.Activity;
+import com.prime.rushhour.reactive.entity.Appointment;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@RequiredArgsConstructor
+public class AppointmentDetails {
+
+  private final Appointment appointment;
+  private final List<Activity> activities;
+}
@@ -0,0 +1,340 @@
+package com.prime.rushhour.reactive.service;
+
+import com.prime.rushhour.reactive.entity.Activity;
+import com.prime.rushhour.reactive.entity.ActivityAppointment;
+import com.prime.rushhour.reactive.entity.Appointment;
+import com.prime.rushhour.reactive.exception.ActivityNotFoundException;
+import com.prime.rushhour.reactive.exception.AppointmentNotFoundException;
+import com.prime.rushhour.reactive.exception.InvalidDateRangeException;
+import com.prime.rushhour.reactive.exception.OverlappingAppointmentsException;
+import com.prime.rushhour.reactive.exception.UnauthorizedActionException;
+import com.prime.rushhour.reactive.repository.ActivityAppointmentRepository;
+import com.prime.rushhour.reactive.repository.ActivityRepository;
+import com.prime.rushhour.reactive.repository.ActivityUsageRepository;
+import com.prime.rushhour.reactive.repository.AppointmentListingRepository;
+import com.prime.rushhour.reactive.repository.AppointmentRepository;
+import com.prime.rushhour.reactive.repository.IdGeneratorRepository;
+import com.prime.rushhour.reactive.repository.SlotReservationRepository;
+import com.prime.rushhour.reactive.repository.projection.AppointmentActivityRow;
+import com.prime.rushhour.reactive.schedule.BookingPlan;
+import com.prime.rushhour.reactive.schedule.HourlyUsage;
+import com.prime.rushhour.reactive.schedule.MySqlBookingLock;
+import com.prime.rushhour.reactive.security.CustomUserDetails;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class AppointmentService {
+
+  private static final String OVERLAPPING_MESSAGE =
+      "There are overlapping appointments. Please choose another date.";
+
+  private final AppointmentRepository appointmentRepository;
+  private final ActivityAppointmentRepository activityAppointmentRepository;
+  private final ActivityRepository activityRepository;
+  private final AppointmentListingRepository appointmentListingRepository;
+  private final IdGeneratorRepository idGeneratorRepository;
+  private final SlotReservationRepository slotReservationRepository;
+  private final ActivityUsageRepository activityUsageRepository;
+  private final MySqlBookingLock bookingLock;
+  private final DatabaseClient databaseClient;
+  private final TransactionalOperator transactionalOperator;
+
+  @Value("${app.booking.reservation.slot-minutes}")
+  private int slotMinutes;
+
+  @Value("${app.listing.prefetch}")
+  private int prefetch;
+
+  public Flux<AppointmentDetails> findAll(int pageNo, int pageSize, String sortBy) {
+    return appointmentListingRepository
+        .findPage(sortBy, pageNo, pageSize)
+        .collectList()
+        .flatMapMany(this::withActivities);
+  }
+
+  /**
+   * Streams all appointments in id order. Rows are pulled from the database in batches of
+   * {@code app.listing.prefetch} as the client consumes them, so a slow client slows the query down
+   * instead of buffering the table in memory.
+   */
+  public Flux<AppointmentDetails> streamAll() {
+    return appointmentListingRepository
+        .streamAll()
+        .limitRate(prefetch)
+        .bufferUntilChanged(AppointmentActivityRow::getAppointmentId)
+        .map(this::toDetails);
+  }
+
+  public Mono<AppointmentDetails> findWithActivitiesById(int id) {
+    return appointmentRepository
+        .findById(id)
+        .switchIfEmpty(
+            Mono.error(new AppointmentNotFoundException("Appointment not found with id " + id)))
+        .flatMapMany(appointment -> withActivities(List.of(appointment)))
+        .next();
+  }
+
+  public Mono<AppointmentDetails> create(
+      LocalDateTime startDate, List<Integer> activityIds, CustomUserDetails user) {
+
+    return findActivities(activityIds)
+        .map(activities -> new BookingPlan(user.getId(), startDate, activities))
+        .flatMap(this::requireOnGrid)
+        .flatMap(
+            plan ->
+                bookingLock.withLocks(
+                    MySqlBookingLock.keysOf(plan.getUserId(), plan.getActivityIds()),
+                    () ->
+                        Mono.zip(
+                                idGeneratorRepository.allocate("appointment", 1),
+                                idGeneratorRepository.allocate(
+                                    "activity_appointment", plan.getSegments().size()))
+                            .flatMap(
+                                ids ->
+                                    checkForOverlappingAppointments(plan, 0)
+                                        .then(insert(plan, ids.getT1(), ids.getT2()))
+                                        .as(transactionalOperator::transactional))));
+  }
+
+  public Mono<AppointmentDetails> update(
+      int id, LocalDateTime startDate, List<Integer> activityIds, CustomUserDetails user) {
+
+    return findOwnAppointment(id, user, "update")
+        .zipWith(findActivities(activityIds))
+        .map(
+            appointmentAndActivities ->
+                new BookingPlan(
+                    appointmentAndActivities.getT1().getUserId(),
+                    startDate,
+                    appointmentAndActivities.getT2()))
+        .flatMap(this::requireOnGrid)
+        .flatMap(
+            plan ->
+                bookingLock.withLocks(
+                    MySqlBookingLock.keysOf(plan.getUserId(), plan.getActivityIds()),
+                    () ->
+                        idGeneratorRepository
+                            .allocate("activity_appointment", plan.getSegments().size())
+                            .flatMap(
+                                firstSegmentId ->
+                                    checkForOverlappingAppointments(plan, id)
+                                        .then(reschedule(id, plan, firstSegmentId))
+                                        .as(transactionalOperator::transactional))));
+  }
+
+  public Mono<Void> delete(int id, CustomUserDetails user) {
+    return findOwnAppointment(id, user, "delete")
+        .flatMap(
+            appointment ->
+                activityAppointmentRepository
+                    .findByAppointmentIds(List.of(id))
+                    .collectList()
+                    .flatMap(
+                        segments ->
+                            activityAppointmentRepository
+                                .deleteByAppointmentId(id)
+                                .then(appointmentRepository.deleteById(id))
+                                .then(recordUsage(segments, List.of())))
+                    .as(transactionalOperator::transactional));
+  }
+
+  private Mono<Appointment> findOwnAppointment(int id, CustomUserDetails user, String action) {
+    return appointmentRepository
+        .findById(id)
+        .switchIfEmpty(
+            Mono.error(new AppointmentNotFoundException("Appointment not found with id " + id)))
+        .filter(appointment -> appointment.getUserId() == user.getId() || user.isAdmin())
+        .switchIfEmpty(
+            Mono.error(
+                new UnauthorizedActionException(
+                    "You don't have permission to " + action + " appointment that isn't yours.")));
+  }
+
+  private Mono<List<Activity>> findActivities(List<Integer> activityIds) {
+    return activityRepository
+        .findAllById(Set.copyOf(activityIds))
+        .collectMap(Activity::getId)
+        .flatMap(
+            activities -> {
+              for (int activityId : activityIds) {
+                if (!activities.containsKey(activityId)) {
+                  return Mono.error(
+                      new ActivityNotFoundException("Activity not found with id " + activityId));
+                }
+              }
+              return Mono.just(
+                  activityIds.stream().map(activities::get).collect(Collectors.toList()));
+            });
+  }
+
+  private Mono<BookingPlan> requireOnGrid(BookingPlan plan) {
+    if (plan.isOnGrid(slotMinutes)) {
+      return Mono.just(plan);
+    }
+    return Mono.error(
+        new InvalidDateRangeException(
+            "Activities must start and end on a " + slotMinutes + " minute boundary"));
+  }
+
+  private Mono<Void> checkForOverlappingAppointments(BookingPlan plan, int excludedId) {
+    Mono<Boolean> userOverlaps =
+        appointmentRepository
+            .findFirstOverlappingForUser(
+                plan.getUserId(), excludedId, plan.getStartDate(), plan.getEndDate())
+            .hasElement();
+    Mono<Boolean> activitiesFull =
+        activityAppointmentRepository
+            .findOverlapping(
+                plan.getActivityIds(), excludedId, plan.getStartDate(), plan.getEndDate())
+            .collectList()
+            .map(plan::exceedsCapacity);
+
+    return userOverlaps
+        .flatMap(overlapping -> overlapping ? Mono.just(true) : activitiesFull)
+        .flatMap(
+            overlapping ->
+                overlapping
+                    ? Mono.error(new OverlappingAppointmentsException(OVERLAPPING_MESSAGE))
+                    : Mono.empty());
+  }
+
+  private Mono<AppointmentDetails> insert(BookingPlan plan, int appointmentId, int firstSegmentId) {
+    Appointment appointment = new Appointment();
+    appointment.setId(appointmentId);
+    appointment.setUserId(plan.getUserId());
+    appointment.setStartDate(plan.getStartDate());
+    appointment.setEndDate(plan.getEndDate());
+
+    return databaseClient
+        .insert()
+        .into(Appointment.class)
+        .using(appointment)
+        .then()
+        .then(insertSegments(plan, appointmentId, firstSegmentId))
+        .then(recordUsage(List.of(), plan.getSegments()))
+        .thenReturn(new AppointmentDetails(appointment, plan.getActivities()));
+  }
+
+  private Mono<AppointmentDetails> reschedule(int id, BookingPlan plan, int firstSegmentId) {
+    Appointment appointment = new Appointment();
+    appointment.setId(id);
+    appointment.setUserId(plan.getUserId());
+    appointment.setStartDate(plan.getStartDate());
+    appointment.setEndDate(plan.getEndDate());
+
+    return activityAppointmentRepository
+        .findByAppointmentIds(List.of(id))
+        .collectList()
+        .flatMap(
+            previousSegments ->
+                appointmentRepository
+                    .reschedule(id, plan.getStartDate(), plan.getEndDate())
+                    .then(activityAppointmentRepository.deleteByAppointmentId(id))
+                    .then(slotReservationRepository.deleteByAppointmentId(id))
+                    .then(insertSegments(plan, id, firstSegmentId))
+                    .then(recordUsage(previousSegments, plan.getSegments())))
+        .thenReturn(new AppointmentDetails(appointment, plan.getActivities()));
+  }
+
+  /** Adds the difference to the hourly rollups the servlet application reports from. */
+  private Mono<Void> recordUsage(
+      List<ActivityAppointment> previousSegments, List<ActivityAppointment> currentSegments) {
+    return activityUsageRepository.addAll(
+        HourlyUsage.delta(HourlyUsage.of(previousSegments), HourlyUsage.of(currentSegments)));
+  }
+
+  private Mono<Void> insertSegments(BookingPlan plan, int appointmentId, int firstSegmentId) {
+    List<ActivityAppointment> segments = plan.getSegments();
+    for (int i = 0; i < segments.size(); i++) {
+      segments.get(i).setId(firstSegmentId + i);
+      segments.get(i).setAppointmentId(appointmentId);
+    }
+
+    return Flux.fromIterable(segments)
+        .concatMap(
+            segment ->
+                databaseClient.insert().into(ActivityAppointment.class).using(segment).then())
+        .then(slotReservationRepository.insertAll(appointmentId, plan.reservations(slotMinutes)))
+        .onErrorMap(
+            DataIntegrityViolationException.class,
+            exc -> new OverlappingAppointmentsException(OVERLAPPING_MESSAGE));
+  }
+
+  private Flux<AppointmentDetails> withActivities(List<Appointment> appointments) {
+    if (appointments.isEmpty()) {
+      return Flux.empty();
+    }
+
+    return activityAppointmentRepository
+        .findByAppointmentIds(
+            appointments.stream().map(Appointment::getId).collect(Collectors.toList()))
+        .collectList()
+        .flatMapMany(
+            segments ->
+                activityRepository
+                    .findAllById(
+                        segments.stream()
+                            .map(ActivityAppointment::getActivityId)
+                            .collect(Collectors.toSet()))
+                    .collectMap(Activity::getId)
+                    .flatMapMany(
+                        activities -> {
+                          Map<Integer, List<Activity>> activitiesByAppointment =
+                              segments.stream()
+                                  .collect(
+                                      Collectors.groupingBy(
+                                          ActivityAppointment::getAppointmentId,
+                                          Collectors.mapping(
+                                              segment -> activities.get(segment.getActivityId()),
+                                              Collectors.toList())));
+                          return Flux.fromIterable(appointments)
+                              .map(
+                                  appointment ->
+                                      new AppointmentDetails(
+                                          appointment,
+                                          activitiesByAppointment.getOrDefault(
+                                              appointment.getId(), List.of())));
+                        }));
+  }
+
+  private AppointmentDetails toDetails(List<AppointmentActivityRow> rows) {
+    AppointmentActivityRow first = rows.get(0);
+
+    Appointment appointment = new Appointment();
+    appointment.setId(first.getAppointmentId());
+    appointment.setStartDate(first.getStartDate());
+    appointment.setEndDate(first.getEndDate());
+    appointment.setUserId(first.getUserId());
+
+    List<Activity> activities =
+        rows.stream()
+            .filter(row -> row.getActivityId() != null)
+            .map(
+                row -> {
+                  Activity activity = new Activity();
+                  activity.setId(row.getActivityId());
+                  activity.setName(row.getActivityName());
+                  activity.setDuration(row.getActivityDuration());
+                  activity.setPrice(row.getActivityPrice());
+                  activity.setCapacity(row.getActivityCapacity());
+                  return activity;
+                })
+            .collect(Collectors.toList());
+
+    return new AppointmentDetails(appointment, activities);
+  }
+}
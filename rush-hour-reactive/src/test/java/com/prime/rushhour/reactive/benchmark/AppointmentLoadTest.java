@@ -0,0 +1,125 @@
+package com.prime.rushhour.reactive.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives the same appointment listing and lookup requests against the servlet and the reactive
+ * application at increasing concurrency, printing throughput, p99 latency and failed requests
+ * for each. The servlet stack is expected to flatten out once requests queue for Tomcat threads
+ * and JDBC connections, the reactive stack once the R2DBC pool is saturated.
+ *
+ * <p>Run with {@code mvn test -Dtest=AppointmentLoadTest
+ * -Dloadtest.servlet-url=http://localhost:8080 -Dloadtest.reactive-url=http://localhost:8081
+ * -Dloadtest.token=...}, using a token issued by {@code POST /api/v1/auth} of the servlet
+ * application. Both applications must point at the same, seeded database.
+ */
+@EnabledIfSystemProperty(named = "loadtest.reactive-url", matches = ".+")
+public class AppointmentLoadTest {
+
+  private static final int[] CONCURRENCY_LEVELS = {16, 64, 256, 1024};
+  private static final int REQUESTS_PER_LEVEL = 20_000;
+  private static final String[] PATHS = {
+    "/api/v1/appointments?pageSize=10", "/api/v1/appointment?id=1"
+  };
+
+  private final String servletUrl = System.getProperty("loadtest.servlet-url");
+  private final String reactiveUrl = System.getProperty("loadtest.reactive-url");
+  private final String token = System.getProperty("loadtest.token", "");
+
+  private final HttpClient client =
+      HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+  @Test
+  void compareConcurrencyLimits() {
+    System.out.printf(
+        "%-10s %12s %14s %10s %8s%n", "stack", "concurrency", "requests/s", "p99 ms", "failed");
+
+    for (int concurrency : CONCURRENCY_LEVELS) {
+      if (servletUrl != null) {
+        print("servlet", concurrency, run(servletUrl, concurrency));
+      }
+      print("reactive", concurrency, run(reactiveUrl, concurrency));
+    }
+  }
+
+  private Result run(String baseUrl, int concurrency) {
+    // Warm up connections and JIT before measuring.
+    measure(baseUrl, concurrency, REQUESTS_PER_LEVEL / 10);
+
+    return measure(baseUrl, concurrency, REQUESTS_PER_LEVEL);
+  }
+
+  private Result measure(String baseUrl, int concurrency, int requests) {
+    Semaphore inFlight = new Semaphore(concurrency);
+    List<Long> latencies = Collections.synchronizedList(new ArrayList<>(requests));
+    AtomicInteger failed = new AtomicInteger();
+    List<CompletableFuture<?>> responses = new ArrayList<>(requests);
+
+    long startTime = System.nanoTime();
+    for (int i = 0; i < requests; i++) {
+      inFlight.acquireUninterruptibly();
+      HttpRequest request =
+          HttpRequest.newBuilder(URI.create(baseUrl + PATHS[i % PATHS.length]))
+              .header("Authorization", "Bearer " + token)
+              .header("Accept", "application/json")
+              .timeout(Duration.ofSeconds(30))
+              .build();
+      long sentTime = System.nanoTime();
+      responses.add(
+          client
+              .sendAsync(request, HttpResponse.BodyHandlers.discarding())
+              .whenComplete(
+                  (response, exc) -> {
+                    latencies.add(System.nanoTime() - sentTime);
+                    if (exc != null || response.statusCode() != 200) {
+                      failed.incrementAndGet();
+                    }
+                    inFlight.release();
+                  }));
+    }
+    CompletableFuture.allOf(responses.toArray(new CompletableFuture<?>[0]))
+        .exceptionally(exc -> null)
+        .join();
+    long elapsed = System.nanoTime() - startTime;
+
+    List<Long> sorted = new ArrayList<>(latencies);
+    Collections.sort(sorted);
+    assertTrue(failed.get() < requests, "Every request to " + baseUrl + " failed");
+
+    return new Result(
+        requests * 1e9 / elapsed, sorted.get((int) (sorted.size() * 0.99)) / 1e6, failed.get());
+  }
+
+  private void print(String stack, int concurrency, Result result) {
+    System.out.printf(
+        "%-10s %12d %14.0f %10.1f %8d%n",
+        stack, concurrency, result.throughput, result.p99Millis, result.failed);
+  }
+
+  private static class Result {
+    private final double throughput;
+    private final double p99Millis;
+    private final int failed;
+
+    Result(double throughput, double p99Millis, int failed) {
+      this.throughput = throughput;
+      this.p99Millis = p99Millis;
+      this.failed = failed;
+    }
+  }
+}
@@ -0,0 +1,122 @@
+package com.prime.rushhour.reactive.controller;
+
+import com.prime.rushhour.reactive.entity.Appointment;
+import com.prime.rushhour.reactive.entity.UserAccount;
+import com.prime.rushhour.reactive.mapper.Mapper;
+import com.prime.rushhour.reactive.security.CustomUserDetails;
+import com.prime.rushhour.reactive.security.SecurityConfig;
+import com.prime.rushhour.reactive.security.jwt.JwtUtils;
+import com.prime.rushhour.reactive.security.service.CustomUserDetailsService;
+import com.prime.rushhour.reactive.service.AppointmentDetails;
+import com.prime.rushhour.reactive.service.AppointmentService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(AppointmentController.class)
+@Import({SecurityConfig.class, JwtUtils.class, Mapper.class})
+class AppointmentControllerTest {
+
+  private static final String EMAIL = "user@rushhour.com";
+  private static final int TOKEN_VERSION = 3;
+
+  @Autowired private WebTestClient webTestClient;
+
+  @MockBean private AppointmentService appointmentService;
+
+  @MockBean private CustomUserDetailsService customUserDetailsService;
+
+  @Value("${app.security.jwt-secret}")
+  private String secretKey;
+
+  @BeforeEach
+  void setUp() {
+    UserAccount user = new UserAccount();
+    user.setId(1);
+    user.setEmail(EMAIL);
+    user.setPassword("password");
+    user.setRoleName("ROLE_USER");
+    user.setTokenVersion(TOKEN_VERSION);
+    when(customUserDetailsService.findByUsername(EMAIL))
+        .thenReturn(Mono.just(CustomUserDetails.create(user)));
+
+    Appointment appointment = new Appointment();
+    appointment.setId(7);
+    appointment.setUserId(1);
+    appointment.setStartDate(LocalDateTime.of(2020, 6, 1, 10, 0));
+    appointment.setEndDate(LocalDateTime.of(2020, 6, 1, 11, 0));
+    when(appointmentService.findAll(anyInt(), anyInt(), anyString()))
+        .thenReturn(Flux.just(new AppointmentDetails(appointment, List.of())));
+  }
+
+  @Test
+  void rejectsRequestsWithoutToken() {
+    webTestClient.get().uri("/api/v1/appointments").exchange().expectStatus().isUnauthorized();
+  }
+
+  @Test
+  void rejectsExpiredToken() {
+    webTestClient
+        .get()
+        .uri("/api/v1/appointments")
+        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token(-60_000, TOKEN_VERSION))
+        .exchange()
+        .expectStatus()
+        .isUnauthorized();
+  }
+
+  @Test
+  void rejectsTokenIssuedBeforeTheUserChanged() {
+    webTestClient
+        .get()
+        .uri("/api/v1/appointments")
+        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token(60_000, TOKEN_VERSION - 1))
+        .exchange()
+        .expectStatus()
+        .isUnauthorized();
+  }
+
+  @Test
+  void listsAppointmentsForValidToken() {
+    webTestClient
+        .get()
+        .uri("/api/v1/appointments")
+        .accept(MediaType.APPLICATION_JSON)
+        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token(60_000, TOKEN_VERSION))
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$[0].id")
+        .isEqualTo(7);
+  }
+
+  private String token(long expiresInMs, int tokenVersion) {
+    return Jwts.builder()
+        .claim("ver", tokenVersion)
+        .setSubject(EMAIL)
+        .setIssuedAt(new Date())
+        .setExpiration(new Date(System.currentTimeMillis() + expiresInMs))
+        .signWith(SignatureAlgorithm.HS512, secretKey)
+        .compact();
+  }
+}
@@ -0,0 +1,122 @@
+package com.prime.rushhour.reactive.schedule;
+
+import com.prime.rushhour.reactive.entity.Activity;
+import com.prime.rushhour.reactive.entity.ActivityAppointment;
+import com.prime.rushhour.reactive.repository.SlotReservationRepository.Reservation;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookingPlanTest {
+
+  private static final LocalDateTime START = LocalDateTime.of(2020, 6, 1, 10, 0);
+
+  @Test
+  void segmentsRunBackToBackInRequestOrder() {
+    BookingPlan plan = new BookingPlan(1, START, List.of(activity(2, 30, 1), activity(1, 45, 1)));
+
+    assertEquals(START.plusMinutes(75), plan.getEndDate());
+    assertEquals(2, plan.getSegments().get(0).getActivityId());
+    assertEquals(START.plusMinutes(30), plan.getSegments().get(1).getStartDate());
+    assertEquals(START.plusMinutes(75), plan.getSegments().get(1).getEndDate());
+  }
+
+  @Test
+  void exceedsCapacityOnlyWhenConcurrentBookingsFillTheActivity() {
+    BookingPlan plan = new BookingPlan(1, START, List.of(activity(1, 60, 2)));
+
+    assertFalse(
+        plan.exceedsCapacity(
+            List.of(
+                segment(1, START, START.plusMinutes(30)),
+                segment(1, START.plusMinutes(30), START.plusMinutes(60)))));
+    assertTrue(
+        plan.exceedsCapacity(
+            List.of(
+                segment(1, START, START.plusMinutes(60)),
+                segment(1, START.plusMinutes(15), START.plusMinutes(45)))));
+  }
+
+  @Test
+  void backToBackBookingsDoNotOverlap() {
+    BookingPlan plan = new BookingPlan(1, START, List.of(activity(1, 60, 1)));
+
+    assertFalse(
+        plan.exceedsCapacity(
+            List.of(
+                segment(1, START.minusMinutes(60), START),
+                segment(1, START.plusMinutes(60), START.plusMinutes(120)))));
+  }
+
+  @Test
+  void reservationsCoverOnlySingleCapacityActivities() {
+    BookingPlan plan =
+        new BookingPlan(1, START, List.of(activity(1, 30, 1), activity(2, 30, 3)));
+
+    List<?> reservations = plan.reservations(15);
+
+    assertEquals(2, reservations.size());
+  }
+
+  @Test
+  void backToBackBookingsClaimDisjointSlots() {
+    BookingPlan first = new BookingPlan(1, START, List.of(activity(1, 30, 1)));
+    BookingPlan second = new BookingPlan(2, START.plusMinutes(30), List.of(activity(1, 30, 1)));
+
+    assertEquals(List.of(START, START.plusMinutes(15)), slotStarts(first));
+    assertEquals(List.of(START.plusMinutes(30), START.plusMinutes(45)), slotStarts(second));
+  }
+
+  @Test
+  void unalignedOverlappingBookingsClaimASharedSlot() {
+    BookingPlan first = new BookingPlan(1, START, List.of(activity(1, 20, 1)));
+    BookingPlan second = new BookingPlan(2, START.plusMinutes(10), List.of(activity(1, 30, 1)));
+
+    List<LocalDateTime> shared = slotStarts(first);
+    shared.retainAll(slotStarts(second));
+
+    assertEquals(List.of(START, START.plusMinutes(15)), shared);
+  }
+
+  @Test
+  void bookingsOffTheSlotGridAreNotOnGrid() {
+    assertTrue(new BookingPlan(1, START, List.of(activity(1, 30, 1))).isOnGrid(15));
+    assertFalse(new BookingPlan(1, START, List.of(activity(1, 20, 1))).isOnGrid(15));
+    assertFalse(
+        new BookingPlan(1, START.plusMinutes(5), List.of(activity(1, 30, 1))).isOnGrid(15));
+    assertTrue(
+        new BookingPlan(1, START.plusMinutes(5), List.of(activity(1, 30, 3))).isOnGrid(15));
+  }
+
+  private static List<LocalDateTime> slotStarts(BookingPlan plan) {
+    return plan.reservations(15).stream()
+        .map(Reservation::getSlotStart)
+        .collect(Collectors.toList());
+  }
+
+  private Activity activity(int id, int minutes, int capacity) {
+    Activity activity = new Activity();
+    activity.setId(id);
+    activity.setName("Activity " + id);
+    activity.setDuration(Duration.ofMinutes(minutes).toNanos());
+    activity.setPrice(BigDecimal.TEN);
+    activity.setCapacity(capacity);
+    return activity;
+  }
+
+  private ActivityAppointment segment(int activityId, LocalDateTime start, LocalDateTime end) {
+    ActivityAppointment segment = new ActivityAppointment();
+    segment.setActivityId(activityId);
+    segment.setStartDate(start);
+    segment.setEndDate(end);
+    return segment;
+  }
+}
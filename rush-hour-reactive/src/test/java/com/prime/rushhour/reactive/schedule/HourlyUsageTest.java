@@ -0,0 +1,50 @@
+package com.prime.rushhour.reactive.schedule;
+
+import com.prime.rushhour.reactive.entity.ActivityAppointment;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class HourlyUsageTest {
+
+  private static final LocalDate DAY = LocalDate.of(2020, 5, 4);
+  private static final BigDecimal PRICE = new BigDecimal("20.00");
+
+  @Test
+  void segmentsAreSplitAcrossHoursLikeTheServletRollups() {
+    assertEquals(
+        List.of(
+            new HourlyUsage(1, DAY.atTime(10, 0), 1, 1800, PRICE),
+            new HourlyUsage(1, DAY.atTime(11, 0), 0, 3600, BigDecimal.ZERO),
+            new HourlyUsage(1, DAY.atTime(12, 0), 0, 900, BigDecimal.ZERO)),
+        HourlyUsage.of(List.of(segment(DAY.atTime(10, 30), DAY.atTime(12, 15)))));
+  }
+
+  @Test
+  void rescheduledSegmentOnlyChangesTheHoursItMovedIn() {
+    List<HourlyUsage> before =
+        HourlyUsage.of(List.of(segment(DAY.atTime(10, 0), DAY.atTime(11, 0))));
+    List<HourlyUsage> after =
+        HourlyUsage.of(List.of(segment(DAY.atTime(10, 30), DAY.atTime(11, 30))));
+
+    assertEquals(
+        List.of(
+            new HourlyUsage(1, DAY.atTime(10, 0), 0, -1800, BigDecimal.ZERO.setScale(2)),
+            new HourlyUsage(1, DAY.atTime(11, 0), 0, 1800, BigDecimal.ZERO)),
+        List.copyOf(HourlyUsage.delta(before, after)));
+  }
+
+  private static ActivityAppointment segment(LocalDateTime startDate, LocalDateTime endDate) {
+    ActivityAppointment segment = new ActivityAppointment();
+    segment.setActivityId(1);
+    segment.setStartDate(startDate);
+    segment.setEndDate(endDate);
+    segment.setPrice(PRICE);
+    return segment;
+  }
+}
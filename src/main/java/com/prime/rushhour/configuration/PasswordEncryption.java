@@ -1,5 +1,8 @@
 package com.prime.rushhour.configuration;
 
+import com.prime.rushhour.security.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -9,7 +12,12 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 public class PasswordEncryption {
 
   @Bean
-  public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+  public PasswordEncoder passwordEncoder(
+      @Value("${app.security.password-hashing.bcrypt-cost}") int bcryptCost,
+      @Value("${app.security.password-hashing.threads}") int threads,
+      @Value("${app.security.password-hashing.queue-capacity}") int queueCapacity,
+      MeterRegistry meterRegistry) {
+    return new BoundedPasswordEncoder(
+        new BCryptPasswordEncoder(bcryptCost), threads, queueCapacity, meterRegistry);
   }
 }
@@ -0,0 +1,80 @@
+package com.prime.rushhour.configuration;
+
+import com.prime.rushhour.datasource.ReadYourWritesTracker;
+import com.prime.rushhour.datasource.ReplicaPool;
+import com.prime.rushhour.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.replicas.enabled", havingValue = "true")
+public class ReplicaDataSourceConfiguration {
+
+  @Bean
+  @FlywayDataSource
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+    return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+  }
+
+  @Bean
+  public ReplicaPool replicaPool(
+      DataSourceProperties properties,
+      HikariDataSource primaryDataSource,
+      @Value("${app.datasource.replicas.urls}") List<String> urls,
+      @Value("${app.datasource.replicas.max-lag-seconds}") long maxLagSeconds) {
+
+    List<HikariDataSource> replicas = new ArrayList<>();
+    for (int replica = 0; replica < urls.size(); replica++) {
+      HikariDataSource dataSource =
+          properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+      dataSource.setJdbcUrl(urls.get(replica));
+      dataSource.setPoolName(ReplicaPool.keyOf(replica));
+      dataSource.setMaximumPoolSize(primaryDataSource.getMaximumPoolSize());
+      dataSource.setReadOnly(true);
+      // Start without the replica; the health check keeps it out of rotation until it answers.
+      dataSource.setInitializationFailTimeout(-1);
+      replicas.add(dataSource);
+    }
+
+    return new ReplicaPool(replicas, maxLagSeconds);
+  }
+
+  @Bean
+  @Primary
+  public DataSource dataSource(
+      HikariDataSource primaryDataSource,
+      ReplicaPool replicaPool,
+      @Value("${app.datasource.replicas.sticky-window-ms}") long stickyWindowMs) {
+
+    Map<Object, Object> targets = new HashMap<>();
+    targets.put(ReplicaRoutingDataSource.PRIMARY, primaryDataSource);
+    for (int replica = 0; replica < replicaPool.getReplicas().size(); replica++) {
+      targets.put(ReplicaPool.keyOf(replica), replicaPool.getReplicas().get(replica));
+    }
+
+    ReplicaRoutingDataSource routingDataSource =
+        new ReplicaRoutingDataSource(
+            replicaPool, new ReadYourWritesTracker(Duration.ofMillis(stickyWindowMs)));
+    routingDataSource.setTargetDataSources(targets);
+    routingDataSource.setDefaultTargetDataSource(primaryDataSource);
+    routingDataSource.afterPropertiesSet();
+
+    return new LazyConnectionDataSourceProxy(routingDataSource);
+  }
+}
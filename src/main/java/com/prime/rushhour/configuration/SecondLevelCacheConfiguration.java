@@ -0,0 +1,34 @@
+package com.prime.rushhour.configuration;
+
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.io.IOException;
+
+/**
+ * Hands Hibernate a ready-made JCache manager. Hibernate 5.4.12 cannot resolve {@code
+ * hibernate.javax.cache.uri} itself before its region factory has started.
+ */
+@Configuration
+public class SecondLevelCacheConfiguration {
+
+  @Bean(destroyMethod = "close")
+  public CacheManager hibernateCacheManager(
+      @Value("${app.cache.second-level-config}") Resource configuration) throws IOException {
+    return Caching.getCachingProvider(EhcacheCachingProvider.class.getName())
+        .getCacheManager(configuration.getURI(), getClass().getClassLoader());
+  }
+
+  @Bean
+  public HibernatePropertiesCustomizer secondLevelCacheCustomizer(
+      CacheManager hibernateCacheManager) {
+    return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+  }
+}
@@ -0,0 +1,82 @@
+package com.prime.rushhour.configuration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves requests and async work on virtual threads (JDK 21+), so a request blocked on MySQL no
+ * longer holds a platform thread. Concurrency is then bounded by the Hikari pool rather than by
+ * Tomcat's thread pool.
+ *
+ * <p>MySQL Connector/J 8.0 guards every statement with {@code synchronized}, so a virtual thread
+ * is pinned to its carrier for the duration of each query. At most one pinned thread exists per
+ * pooled connection, which is why the pool should stay smaller than the carrier count. The
+ * booking engine partitions, the group commit thread and {@code @Scheduled} tasks keep their
+ * platform threads.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "app.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfiguration {
+
+  private static final String PARALLELISM_PROPERTY = "jdk.virtualThreadScheduler.parallelism";
+
+  @Bean(destroyMethod = "shutdown")
+  public ExecutorService virtualThreadExecutor(
+      @Value("${spring.datasource.hikari.maximum-pool-size}") int maximumPoolSize) {
+    int carriers =
+        Integer.getInteger(PARALLELISM_PROPERTY, Runtime.getRuntime().availableProcessors());
+    if (maximumPoolSize >= carriers) {
+      log.warn(
+          "Hikari allows {} connections but only {} carrier threads exist; queries pin their "
+              + "carrier, so set -D{} above the pool size",
+          maximumPoolSize,
+          carriers,
+          PARALLELISM_PROPERTY);
+    }
+
+    return newVirtualThreadPerTaskExecutor();
+  }
+
+  @Bean
+  public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer(
+      ExecutorService virtualThreadExecutor) {
+    return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+  }
+
+  @Bean(
+      name = {
+        TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+        AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME
+      })
+  public AsyncTaskExecutor applicationTaskExecutor(ExecutorService virtualThreadExecutor) {
+    return new TaskExecutorAdapter(virtualThreadExecutor);
+  }
+
+  static ExecutorService newVirtualThreadPerTaskExecutor() {
+    // Looked up reflectively so the application still compiles for and runs on JDK 11.
+    try {
+      return (ExecutorService)
+          Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (NoSuchMethodException exc) {
+      throw new IllegalStateException(
+          "app.threads.virtual.enabled requires a JDK 21 or newer runtime, found "
+              + Runtime.version());
+    } catch (IllegalAccessException | InvocationTargetException exc) {
+      throw new IllegalStateException("Could not create the virtual thread executor", exc);
+    }
+  }
+}
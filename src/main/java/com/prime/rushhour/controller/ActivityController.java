@@ -5,14 +5,17 @@ import com.prime.rushhour.dto.ActivityRequestDto;
 import com.prime.rushhour.dto.ActivityResponseDto;
 import com.prime.rushhour.entity.Activity;
 import com.prime.rushhour.mapper.Mapper;
+import com.prime.rushhour.pagination.KeysetPage;
 import com.prime.rushhour.service.ActivityService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import java.util.List;
 import java.util.Optional;
@@ -29,7 +32,7 @@ public class ActivityController {
 
   @GetMapping("/activity")
   public ResponseEntity<ActivityResponseDto> getActivityById(@RequestParam("id") @Min(1) int id) {
-    Optional<Activity> foundActivity = activityService.findById(id);
+    Optional<Activity> foundActivity = activityService.findWithAppointmentsById(id);
 
     if (foundActivity.isPresent()) {
       ActivityResponseDto activityDto = mapper.activityToActivityDto(foundActivity.get());
@@ -54,10 +57,19 @@ public class ActivityController {
   @GetMapping("/activities")
   public ResponseEntity<List<ActivityResponseDto>> getAllActivities(
       @RequestParam(defaultValue = "0") int pageNo,
-      @RequestParam(defaultValue = "10") int pageSize,
-      @RequestParam(defaultValue = "id") String sortBy) {
-
-    List<Activity> activities = activityService.findAll(pageNo, pageSize, sortBy);
+      @RequestParam(defaultValue = "10") @Max(100) int pageSize,
+      @RequestParam(defaultValue = "id") String sortBy,
+      @RequestParam(required = false) String cursor) {
+
+    HttpHeaders headers = new HttpHeaders();
+    List<Activity> activities;
+    if (cursor != null) {
+      KeysetPage<Activity> page = activityService.findPage(sortBy, cursor, pageSize);
+      activities = page.getContent();
+      page.getNextCursor().ifPresent(next -> headers.set(KeysetPage.NEXT_CURSOR_HEADER, next));
+    } else {
+      activities = activityService.findAll(pageNo, pageSize, sortBy);
+    }
     List<ActivityResponseDto> activityDtos =
         activities.stream()
             .map(
@@ -69,7 +81,7 @@ public class ActivityController {
                 })
             .collect(Collectors.toList());
 
-    return ResponseEntity.ok(activityDtos);
+    return ResponseEntity.ok().headers(headers).body(activityDtos);
   }
 
   @PostMapping("/activity")
@@ -96,7 +108,8 @@ public class ActivityController {
 
     Activity activity = mapper.ActivityDtoWithoutAppointmentsToActivity(activityDto);
 
-    Optional<Activity> updatedActivity = activityService.update(activity);
+    Optional<Activity> updatedActivity =
+        activityService.update(activity, activityDto.getCapacity());
 
     if (updatedActivity.isPresent()) {
       ActivityDtoWithoutAppointments updatedActivityDto =
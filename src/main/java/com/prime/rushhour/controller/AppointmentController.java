@@ -1,26 +1,46 @@
 package com.prime.rushhour.controller;
 
 import com.prime.rushhour.dto.ActivityIdDto;
+import com.prime.rushhour.dto.AppointmentBatchResultDto;
 import com.prime.rushhour.dto.AppointmentRequestDto;
 import com.prime.rushhour.dto.AppointmentResponseDto;
+import com.prime.rushhour.dto.SuggestionDto;
+import com.prime.rushhour.dto.SuggestionRequestDto;
 import com.prime.rushhour.entity.Activity;
 import com.prime.rushhour.entity.ActivityAppointment;
 import com.prime.rushhour.entity.Appointment;
 import com.prime.rushhour.exception.ActivityNotFoundException;
 import com.prime.rushhour.mapper.Mapper;
+import com.prime.rushhour.pagination.KeysetPage;
+import com.prime.rushhour.schedule.Suggestion;
 import com.prime.rushhour.service.ActivityService;
+import com.prime.rushhour.service.AppointmentExportService;
+import com.prime.rushhour.service.AppointmentExportService.ExportFormat;
 import com.prime.rushhour.service.AppointmentService;
+import com.prime.rushhour.service.SuggestionService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @RequiredArgsConstructor
@@ -31,12 +51,14 @@ public class AppointmentController {
 
   private final Mapper mapper;
   private final AppointmentService appointmentService;
+  private final AppointmentExportService appointmentExportService;
   private final ActivityService activityService;
+  private final SuggestionService suggestionService;
 
   @GetMapping("/appointment")
   public ResponseEntity<AppointmentResponseDto> getAppointmentById(
       @RequestParam("id") @Min(1) int id) {
-    Optional<Appointment> foundAppointment = appointmentService.findById(id);
+    Optional<Appointment> foundAppointment = appointmentService.findWithActivitiesById(id);
 
     if (foundAppointment.isPresent()) {
       AppointmentResponseDto appointmentResponseDto =
@@ -52,10 +74,19 @@ public class AppointmentController {
   @GetMapping("/appointments")
   public ResponseEntity<List<AppointmentResponseDto>> getAllAppointments(
       @RequestParam(defaultValue = "0") int pageNo,
-      @RequestParam(defaultValue = "10") int pageSize,
-      @RequestParam(defaultValue = "id") String sortBy) {
-
-    List<Appointment> appointments = appointmentService.findAll(pageNo, pageSize, sortBy);
+      @RequestParam(defaultValue = "10") @Max(100) int pageSize,
+      @RequestParam(defaultValue = "id") String sortBy,
+      @RequestParam(required = false) String cursor) {
+
+    HttpHeaders headers = new HttpHeaders();
+    List<Appointment> appointments;
+    if (cursor != null) {
+      KeysetPage<Appointment> page = appointmentService.findPage(sortBy, cursor, pageSize);
+      appointments = page.getContent();
+      page.getNextCursor().ifPresent(next -> headers.set(KeysetPage.NEXT_CURSOR_HEADER, next));
+    } else {
+      appointments = appointmentService.findAll(pageNo, pageSize, sortBy);
+    }
     List<AppointmentResponseDto> appointmentResponseDtos =
         appointments.stream()
             .map(
@@ -74,7 +105,23 @@ public class AppointmentController {
                 })
             .collect(Collectors.toList());
 
-    return ResponseEntity.ok(appointmentResponseDtos);
+    return ResponseEntity.ok().headers(headers).body(appointmentResponseDtos);
+  }
+
+  @GetMapping("/appointments/export")
+  public void exportAppointments(
+      @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          LocalDateTime from,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          LocalDateTime to,
+      @RequestParam(required = false) Integer activityId,
+      HttpServletResponse response)
+      throws IOException {
+
+    response.setContentType(format.getContentType());
+    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    appointmentExportService.export(format, from, to, activityId, response.getOutputStream());
   }
 
   @PostMapping("/appointment")
@@ -98,6 +145,90 @@ public class AppointmentController {
     return new ResponseEntity<>(HttpStatus.CONFLICT);
   }
 
+  @PostMapping("/appointments/batch")
+  public ResponseEntity<List<AppointmentBatchResultDto>> createAppointments(
+      @RequestBody @NotEmpty List<@Valid AppointmentRequestDto> appointmentRequestDtos,
+      HttpServletRequest request) {
+
+    Set<Integer> activityIds =
+        appointmentRequestDtos.stream()
+            .flatMap(appointmentRequestDto -> appointmentRequestDto.getActivities().stream())
+            .map(ActivityIdDto::getId)
+            .collect(Collectors.toSet());
+    Map<Integer, Activity> activities =
+        activityService.findAllById(activityIds).stream()
+            .collect(Collectors.toMap(Activity::getId, Function.identity()));
+
+    List<AppointmentBatchResultDto> results = new ArrayList<>();
+    List<Appointment> appointments = new ArrayList<>();
+    List<AppointmentBatchResultDto> pendingResults = new ArrayList<>();
+
+    for (int index = 0; index < appointmentRequestDtos.size(); index++) {
+      AppointmentRequestDto appointmentRequestDto = appointmentRequestDtos.get(index);
+      AppointmentBatchResultDto result = new AppointmentBatchResultDto();
+      result.setIndex(index);
+      results.add(result);
+
+      Optional<ActivityIdDto> missingActivity =
+          appointmentRequestDto.getActivities().stream()
+              .filter(activityIdDto -> !activities.containsKey(activityIdDto.getId()))
+              .findFirst();
+
+      if (missingActivity.isPresent()) {
+        result.setStatus(HttpStatus.NOT_FOUND.value());
+        result.setMessage("Activity not found with id " + missingActivity.get().getId());
+        continue;
+      }
+
+      Appointment appointment = mapper.appointmentDtoToAppointment(appointmentRequestDto);
+      for (ActivityIdDto activityIdDto : appointmentRequestDto.getActivities()) {
+        addActivity(appointment, activities.get(activityIdDto.getId()));
+      }
+      appointments.add(appointment);
+      pendingResults.add(result);
+    }
+
+    List<Optional<Appointment>> createdAppointments =
+        appointmentService.createAll(appointments, request);
+
+    for (int i = 0; i < createdAppointments.size(); i++) {
+      AppointmentBatchResultDto result = pendingResults.get(i);
+      Optional<Appointment> createdAppointment = createdAppointments.get(i);
+
+      if (createdAppointment.isPresent()) {
+        AppointmentResponseDto appointmentResponseDto =
+            mapper.appointmentToAppointmentDto(createdAppointment.get());
+        setActivities(createdAppointment.get(), appointmentResponseDto);
+
+        result.setStatus(HttpStatus.CREATED.value());
+        result.setAppointment(appointmentResponseDto);
+      } else {
+        result.setStatus(HttpStatus.CONFLICT.value());
+        result.setMessage("There are overlapping appointments. Please choose another date.");
+      }
+    }
+
+    return ResponseEntity.ok(results);
+  }
+
+  @PostMapping("/appointment/suggest")
+  public ResponseEntity<List<SuggestionDto>> suggestAppointments(
+      @Valid @RequestBody SuggestionRequestDto suggestionRequestDto, HttpServletRequest request) {
+
+    List<Suggestion> suggestions =
+        suggestionService.suggest(
+            suggestionRequestDto.getActivities().stream()
+                .map(ActivityIdDto::getId)
+                .collect(Collectors.toList()),
+            suggestionRequestDto.getFrom(),
+            suggestionRequestDto.getTo(),
+            suggestionRequestDto.getCount(),
+            suggestionRequestDto.isAllowReordering(),
+            request);
+
+    return ResponseEntity.ok(mapper.suggestionsToSuggestionDtos(suggestions));
+  }
+
   private void setActivities(
       Appointment appointment, AppointmentResponseDto appointmentResponseDto) {
     appointmentResponseDto.setActivities(
@@ -150,10 +281,14 @@ public class AppointmentController {
                       new ActivityNotFoundException(
                           "Activity not found with id " + activityIdDto.getId()));
 
-      ActivityAppointment activityAppointment = new ActivityAppointment();
-      activityAppointment.setActivity(foundActivity);
-      activityAppointment.setAppointment(appointment);
-      appointment.getActivityAppointments().add(activityAppointment);
+      addActivity(appointment, foundActivity);
     }
   }
+
+  private void addActivity(Appointment appointment, Activity activity) {
+    ActivityAppointment activityAppointment = new ActivityAppointment();
+    activityAppointment.setActivity(activity);
+    activityAppointment.setAppointment(appointment);
+    appointment.getActivityAppointments().add(activityAppointment);
+  }
 }
@@ -0,0 +1,55 @@
+package com.prime.rushhour.controller;
+
+import com.prime.rushhour.dto.AvailabilityDto;
+import com.prime.rushhour.mapper.Mapper;
+import com.prime.rushhour.schedule.TimeInterval;
+import com.prime.rushhour.service.AvailabilityService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.validation.constraints.NotEmpty;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@RequiredArgsConstructor
+@RestController
+@Validated
+@RequestMapping("/api/v1")
+public class AvailabilityController {
+
+  private final AvailabilityService availabilityService;
+  private final Mapper mapper;
+
+  @GetMapping("/availability")
+  public ResponseEntity<List<AvailabilityDto>> getAvailability(
+      @RequestParam @NotEmpty List<Integer> activityIds,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+    Map<Integer, List<TimeInterval>> freeIntervals =
+        availabilityService.findFreeIntervals(activityIds, from, to);
+
+    List<AvailabilityDto> availabilityDtos =
+        freeIntervals.entrySet().stream()
+            .map(
+                entry -> {
+                  AvailabilityDto availabilityDto = new AvailabilityDto();
+                  availabilityDto.setActivityId(entry.getKey());
+                  availabilityDto.setFreeIntervals(
+                      mapper.timeIntervalsToTimeIntervalDtos(entry.getValue()));
+
+                  return availabilityDto;
+                })
+            .collect(Collectors.toList());
+
+    return ResponseEntity.ok(availabilityDtos);
+  }
+}
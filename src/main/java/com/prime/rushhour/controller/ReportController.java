@@ -0,0 +1,50 @@
+package com.prime.rushhour.controller;
+
+import com.prime.rushhour.dto.UtilizationDto;
+import com.prime.rushhour.mapper.Mapper;
+import com.prime.rushhour.service.UtilizationService;
+import com.prime.rushhour.service.UtilizationService.Granularity;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RequiredArgsConstructor
+@RestController
+@Validated
+@RequestMapping("/api/v1")
+public class ReportController {
+
+  private final UtilizationService utilizationService;
+  private final Mapper mapper;
+
+  @GetMapping("/reports/utilization")
+  public ResponseEntity<List<UtilizationDto>> getUtilization(
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+      @RequestParam(defaultValue = "DAY") Granularity granularity,
+      @RequestParam(required = false) Integer activityId) {
+
+    return ResponseEntity.ok(
+        mapper.utilizationsToUtilizationDtos(
+            utilizationService.findUtilization(from, to, granularity, activityId)));
+  }
+
+  @PostMapping("/reports/utilization/backfill")
+  public ResponseEntity<Void> backfillUtilization(
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+    utilizationService.backfill(from, to);
+
+    return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+  }
+}
@@ -3,8 +3,11 @@ package com.prime.rushhour.controller;
 import com.prime.rushhour.dto.*;
 import com.prime.rushhour.entity.User;
 import com.prime.rushhour.mapper.Mapper;
+import com.prime.rushhour.pagination.KeysetPage;
 import com.prime.rushhour.service.UserService;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
@@ -12,6 +15,7 @@ import org.springframework.web.bind.annotation.*;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import java.util.List;
 import java.util.Optional;
@@ -25,6 +29,7 @@ public class UserController {
   private final UserService userService;
   private final Mapper mapper;
 
+  @Timed("auth.login")
   @PostMapping("/auth")
   public ResponseEntity<LoginResponseDto> authenticateUser(
       @Valid @RequestBody LoginRequestDto loginRequestDto) {
@@ -45,7 +50,7 @@ public class UserController {
 
   @GetMapping("/user")
   public ResponseEntity<UserResponseDto> getUserById(@RequestParam("id") @Min(1) int id) {
-    Optional<User> foundUser = userService.findUserById(id);
+    Optional<User> foundUser = userService.findUserWithAppointmentsById(id);
 
     if (foundUser.isPresent()) {
       UserResponseDto userDto = mapper.userToUserDto(foundUser.get());
@@ -59,14 +64,23 @@ public class UserController {
   @GetMapping("/users")
   public ResponseEntity<List<UserResponseDto>> getAllUsers(
       @RequestParam(defaultValue = "0") int pageNo,
-      @RequestParam(defaultValue = "10") int pageSize,
-      @RequestParam(defaultValue = "id") String sortBy) {
-
-    List<User> users = userService.findAll(pageNo, pageSize, sortBy);
+      @RequestParam(defaultValue = "10") @Max(100) int pageSize,
+      @RequestParam(defaultValue = "id") String sortBy,
+      @RequestParam(required = false) String cursor) {
+
+    HttpHeaders headers = new HttpHeaders();
+    List<User> users;
+    if (cursor != null) {
+      KeysetPage<User> page = userService.findPage(sortBy, cursor, pageSize);
+      users = page.getContent();
+      page.getNextCursor().ifPresent(next -> headers.set(KeysetPage.NEXT_CURSOR_HEADER, next));
+    } else {
+      users = userService.findAll(pageNo, pageSize, sortBy);
+    }
 
     List<UserResponseDto> userDtos = mapper.usersToUserDtos(users);
 
-    return ResponseEntity.ok(userDtos);
+    return ResponseEntity.ok().headers(headers).body(userDtos);
   }
 
   @PutMapping("/user")
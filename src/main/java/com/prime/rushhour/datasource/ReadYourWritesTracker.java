@@ -0,0 +1,24 @@
+package com.prime.rushhour.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+/** Remembers which users wrote recently, so that their own reads can skip lagging replicas. */
+public class ReadYourWritesTracker {
+
+  private final Cache<String, Boolean> recentWriters;
+
+  public ReadYourWritesTracker(Duration stickyWindow) {
+    recentWriters = Caffeine.newBuilder().expireAfterWrite(stickyWindow).build();
+  }
+
+  public void recordWrite(String user) {
+    recentWriters.put(user, Boolean.TRUE);
+  }
+
+  public boolean wroteRecently(String user) {
+    return recentWriters.getIfPresent(user) != null;
+  }
+}
@@ -0,0 +1,87 @@
+package com.prime.rushhour.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Read replicas and their last known health. A replica is only handed out while it answers and
+ * its replication lag is within the configured bound; otherwise reads fall back to the primary.
+ */
+@Slf4j
+public class ReplicaPool implements DisposableBean {
+
+  private final List<HikariDataSource> replicas;
+  private final long maxLagSeconds;
+  private final AtomicInteger nextReplica = new AtomicInteger();
+
+  private volatile List<Integer> healthyReplicas = List.of();
+
+  public ReplicaPool(List<HikariDataSource> replicas, long maxLagSeconds) {
+    this.replicas = replicas;
+    this.maxLagSeconds = maxLagSeconds;
+  }
+
+  public static String keyOf(int replica) {
+    return "replica-" + replica;
+  }
+
+  public List<HikariDataSource> getReplicas() {
+    return replicas;
+  }
+
+  public Optional<String> nextHealthyReplica() {
+    List<Integer> healthy = healthyReplicas;
+    if (healthy.isEmpty()) {
+      return Optional.empty();
+    }
+
+    int index = Math.floorMod(nextReplica.getAndIncrement(), healthy.size());
+    return Optional.of(keyOf(healthy.get(index)));
+  }
+
+  @Scheduled(fixedDelayString = "${app.datasource.replicas.health-check-interval-ms}")
+  public void checkHealth() {
+    List<Integer> healthy = new ArrayList<>();
+    for (int replica = 0; replica < replicas.size(); replica++) {
+      Optional<Long> lag = replicationLag(replicas.get(replica));
+      if (lag.isPresent() && lag.get() <= maxLagSeconds) {
+        healthy.add(replica);
+      } else if (healthyReplicas.contains(replica)) {
+        log.warn("Replica {} is unavailable or lagging ({}s), reading from the primary", replica,
+            lag.map(String::valueOf).orElse("unknown"));
+      }
+    }
+    healthyReplicas = List.copyOf(healthy);
+  }
+
+  private Optional<Long> replicationLag(HikariDataSource replica) {
+    try (Connection connection = replica.getConnection();
+        Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery("SHOW SLAVE STATUS")) {
+
+      if (!resultSet.next()) {
+        return Optional.empty();
+      }
+      long lag = resultSet.getLong("Seconds_Behind_Master");
+      return resultSet.wasNull() ? Optional.empty() : Optional.of(lag);
+    } catch (SQLException exc) {
+      return Optional.empty();
+    }
+  }
+
+  @Override
+  public void destroy() {
+    replicas.forEach(HikariDataSource::close);
+  }
+}
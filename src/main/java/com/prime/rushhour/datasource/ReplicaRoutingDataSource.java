@@ -0,0 +1,62 @@
+package com.prime.rushhour.datasource;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpMethod;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Optional;
+
+/**
+ * Sends read-only transactions of GET requests to a healthy replica and everything else to the
+ * primary. Reads made while handling a write, outside a request, or by a user who wrote within the
+ * sticky window stay on the primary. Must sit behind a {@link
+ * org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} so that the read-only flag is
+ * known when the connection is chosen.
+ */
+@RequiredArgsConstructor
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+  public static final String PRIMARY = "primary";
+
+  private final ReplicaPool replicaPool;
+  private final ReadYourWritesTracker readYourWritesTracker;
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    Optional<String> user = currentUser();
+
+    if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+      if (TransactionSynchronizationManager.isActualTransactionActive()) {
+        user.ifPresent(readYourWritesTracker::recordWrite);
+      }
+      return PRIMARY;
+    }
+
+    if (!isGetRequest() || user.map(readYourWritesTracker::wroteRecently).orElse(false)) {
+      return PRIMARY;
+    }
+
+    return replicaPool.nextHealthyReplica().orElse(PRIMARY);
+  }
+
+  private static boolean isGetRequest() {
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+
+    return attributes instanceof ServletRequestAttributes
+        && HttpMethod.GET.matches(((ServletRequestAttributes) attributes).getRequest().getMethod());
+  }
+
+  private static Optional<String> currentUser() {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+
+    return Optional.ofNullable(authentication)
+        .filter(Authentication::isAuthenticated)
+        .map(Authentication::getName);
+  }
+}
@@ -24,4 +24,7 @@ public class ActivityDtoWithoutAppointments {
     @Min(value = 1, message = "Price must be positive value")
     @NotNull(message = "Price is required")
     private BigDecimal price;
+
+    @Min(value = 1, message = "Capacity must be positive value")
+    private Integer capacity;
 }
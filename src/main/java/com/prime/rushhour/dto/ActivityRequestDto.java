@@ -21,4 +21,7 @@ public class ActivityRequestDto {
   @Min(value = 1, message = "Price must be positive value")
   @NotNull(message = "Price is required")
   private BigDecimal price;
+
+  @Min(value = 1, message = "Capacity must be positive value")
+  private Integer capacity;
 }
@@ -26,5 +26,7 @@ public class ActivityResponseDto {
   @NotNull(message = "Price is required")
   private BigDecimal price;
 
+  private int capacity;
+
   private List<AppointmentDtoWithoutActivities> appointments = new ArrayList<>();
 }
@@ -0,0 +1,17 @@
+package com.prime.rushhour.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class AppointmentBatchResultDto {
+
+  private int index;
+
+  private int status;
+
+  private String message;
+
+  private AppointmentResponseDto appointment;
+}
@@ -0,0 +1,16 @@
+package com.prime.rushhour.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+public class AvailabilityDto {
+
+  private int activityId;
+
+  private List<TimeIntervalDto> freeIntervals = new ArrayList<>();
+}
@@ -0,0 +1,21 @@
+package com.prime.rushhour.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@Setter
+public class SuggestionDto {
+
+  @DateTimeFormat
+  private LocalDateTime startDate;
+
+  @DateTimeFormat
+  private LocalDateTime endDate;
+
+  private List<Integer> activityIds;
+}
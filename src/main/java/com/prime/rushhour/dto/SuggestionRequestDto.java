@@ -0,0 +1,35 @@
+package com.prime.rushhour.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@Setter
+public class SuggestionRequestDto {
+
+  @NotEmpty(message = "Activities is required")
+  private List<@Valid ActivityIdDto> activities;
+
+  @NotNull(message = "From is required")
+  @DateTimeFormat
+  private LocalDateTime from;
+
+  @NotNull(message = "To is required")
+  @DateTimeFormat
+  private LocalDateTime to;
+
+  @Min(value = 1, message = "Count must be positive value")
+  @Max(value = 20, message = "Count must be at most 20")
+  private int count = 5;
+
+  private boolean allowReordering;
+}
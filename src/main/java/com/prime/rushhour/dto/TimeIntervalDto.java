@@ -0,0 +1,18 @@
+package com.prime.rushhour.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+public class TimeIntervalDto {
+
+  @DateTimeFormat
+  private LocalDateTime startDate;
+
+  @DateTimeFormat
+  private LocalDateTime endDate;
+}
@@ -0,0 +1,28 @@
+package com.prime.rushhour.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+public class UtilizationDto {
+
+  private int activityId;
+
+  private String activityName;
+
+  @DateTimeFormat
+  private LocalDateTime periodStart;
+
+  private int bookings;
+
+  private long bookedMinutes;
+
+  private double occupancy;
+
+  private BigDecimal revenue;
+}
@@ -2,6 +2,8 @@ package com.prime.rushhour.entity;
 
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.math.BigDecimal;
@@ -12,6 +14,8 @@ import java.util.List;
 @Setter
 @Getter
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "activity")
 public class Activity {
 
@@ -25,6 +29,8 @@ public class Activity {
 
   private BigDecimal price;
 
+  private int capacity = 1;
+
   @OneToMany(mappedBy = "activity", cascade = CascadeType.ALL, orphanRemoval = true)
   private List<ActivityAppointment> activityAppointments = new ArrayList<>();
 }
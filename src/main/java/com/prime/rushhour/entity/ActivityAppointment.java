@@ -4,6 +4,8 @@ import lombok.Getter;
 import lombok.Setter;
 
 import javax.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 
 @Getter
 @Setter
@@ -11,8 +13,16 @@ import javax.persistence.*;
 @Table(name = "activity_appointment")
 public class ActivityAppointment {
 
+  // Every insert takes its id from id_generator; see BookingTransactions for the pool headroom.
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.TABLE, generator = "activity_appointment_id")
+  @TableGenerator(
+      name = "activity_appointment_id",
+      table = "id_generator",
+      pkColumnName = "name",
+      valueColumnName = "next_val",
+      pkColumnValue = "activity_appointment",
+      allocationSize = 50)
   private int id;
 
   @ManyToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
@@ -22,4 +32,10 @@ public class ActivityAppointment {
   @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "activity_id")
   private Activity activity;
+
+  private LocalDateTime startDate;
+
+  private LocalDateTime endDate;
+
+  private BigDecimal price;
 }
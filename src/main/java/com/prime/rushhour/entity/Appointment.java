@@ -14,8 +14,16 @@ import java.util.List;
 @Table(name = "appointment")
 public class Appointment {
 
+  // Every insert takes its id from id_generator; see BookingTransactions for the pool headroom.
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.TABLE, generator = "appointment_id")
+  @TableGenerator(
+      name = "appointment_id",
+      table = "id_generator",
+      pkColumnName = "name",
+      valueColumnName = "next_val",
+      pkColumnValue = "appointment",
+      allocationSize = 50)
   private int id;
 
   private LocalDateTime startDate;
@@ -26,7 +34,9 @@ public class Appointment {
   @JoinColumn(name = "user_id")
   private User user;
 
+  // Segments run back to back, so their order is part of the schedule.
   @OneToMany(mappedBy = "appointment", orphanRemoval = true, cascade = CascadeType.ALL)
+  @OrderBy("startDate")
   private List<ActivityAppointment> activityAppointments = new ArrayList<>();
 
   public void addActivityAppointment(ActivityAppointment activityAppointment) {
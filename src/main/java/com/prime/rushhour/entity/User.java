@@ -26,6 +26,8 @@ public class User {
 
   private String password;
 
+  private int tokenVersion;
+
   @ManyToOne(cascade = {CascadeType.DETACH, CascadeType.MERGE, CascadeType.PERSIST, CascadeType.REFRESH})
   @JoinColumn(name = "role_id")
   private Role role;
@@ -0,0 +1,12 @@
+package com.prime.rushhour.event;
+
+import com.prime.rushhour.schedule.BookedAppointment;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public class AppointmentSavedEvent {
+
+  private final BookedAppointment appointment;
+}
@@ -0,0 +1,16 @@
+package com.prime.rushhour.event;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.OptionalInt;
+
+@Getter
+@RequiredArgsConstructor
+public class UserChangedEvent {
+
+  private final int userId;
+
+  /** The user's current token version, or empty once the user has been deleted. */
+  private final OptionalInt tokenVersion;
+}
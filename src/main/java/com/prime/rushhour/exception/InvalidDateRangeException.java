@@ -0,0 +1,7 @@
+package com.prime.rushhour.exception;
+
+public class InvalidDateRangeException extends RuntimeException {
+  public InvalidDateRangeException(String message) {
+    super(message);
+  }
+}
@@ -83,6 +83,11 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
     response.sendError(HttpStatus.BAD_REQUEST.value());
   }
 
+  @ExceptionHandler(InvalidCursorException.class)
+  public void invalidCursorException(HttpServletResponse response) throws IOException {
+    response.sendError(HttpStatus.BAD_REQUEST.value());
+  }
+
   @ExceptionHandler(ActivityNotFoundException.class)
   public void activityNotFoundException(HttpServletResponse response) throws IOException {
     response.sendError(HttpStatus.NOT_FOUND.value());
@@ -113,11 +118,28 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
     response.sendError(HttpStatus.BAD_REQUEST.value());
   }
 
+  @ExceptionHandler(BookingUnavailableException.class)
+  public void bookingUnavailableException(HttpServletResponse response) throws IOException {
+    response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value());
+  }
+
+  @ExceptionHandler(PasswordHashingUnavailableException.class)
+  public void passwordHashingUnavailableException(HttpServletResponse response)
+      throws IOException {
+    response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+    response.sendError(HttpStatus.TOO_MANY_REQUESTS.value());
+  }
+
   @ExceptionHandler(UserNotFoundException.class)
   public void userNotFoundException(HttpServletResponse response) throws IOException {
     response.sendError(HttpStatus.NOT_FOUND.value());
   }
 
+  @ExceptionHandler(InvalidDateRangeException.class)
+  public void invalidDateRangeException(HttpServletResponse response) throws IOException {
+    response.sendError(HttpStatus.BAD_REQUEST.value());
+  }
+
   @ExceptionHandler(RoleNotFoundException.class)
   public void roleException(HttpServletResponse response) throws IOException {
     response.sendError(HttpStatus.NOT_FOUND.value());
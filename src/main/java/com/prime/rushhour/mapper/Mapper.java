@@ -5,6 +5,9 @@ import com.prime.rushhour.entity.Activity;
 import com.prime.rushhour.entity.Appointment;
 import com.prime.rushhour.entity.Role;
 import com.prime.rushhour.entity.User;
+import com.prime.rushhour.schedule.ActivityUtilization;
+import com.prime.rushhour.schedule.Suggestion;
+import com.prime.rushhour.schedule.TimeInterval;
 import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 
@@ -52,7 +55,14 @@ public interface Mapper {
 
   Appointment appointmentResponseDtoToAppointment(AppointmentResponseDto appointmentResponseDto);
 
+  @Mapping(target = "capacity", ignore = true)
   Activity ActivityDtoWithoutAppointmentsToActivity(ActivityDtoWithoutAppointments activityDto);
 
   ActivityDtoWithoutAppointments activityToActivityDtoWithoutAppointments(Activity activity);
+
+  List<TimeIntervalDto> timeIntervalsToTimeIntervalDtos(List<TimeInterval> timeIntervals);
+
+  List<SuggestionDto> suggestionsToSuggestionDtos(List<Suggestion> suggestions);
+
+  List<UtilizationDto> utilizationsToUtilizationDtos(List<ActivityUtilization> utilizations);
 }
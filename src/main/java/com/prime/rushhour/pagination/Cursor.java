@@ -0,0 +1,58 @@
+package com.prime.rushhour.pagination;
+
+import com.prime.rushhour.exception.InvalidCursorException;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position after the last row of a keyset page: the value of the sort key, or null if that row has
+ * none, and the id that breaks ties on it. Clients only ever see the encoded form.
+ */
+@Getter
+@RequiredArgsConstructor
+public class Cursor {
+
+  private static final String SEPARATOR = "\n";
+  private static final char NULL_VALUE = '-';
+  private static final char PRESENT_VALUE = '=';
+
+  private final String sortBy;
+  private final String value;
+  private final int id;
+
+  public String encode() {
+    String encodedValue = value == null ? String.valueOf(NULL_VALUE) : PRESENT_VALUE + value;
+    String raw = sortBy + SEPARATOR + encodedValue + SEPARATOR + id;
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public static Cursor decode(String token) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+      int first = raw.indexOf(SEPARATOR);
+      int last = raw.lastIndexOf(SEPARATOR);
+      if (first < 0 || first == last) {
+        throw new InvalidCursorException("Malformed cursor");
+      }
+
+      String encodedValue = raw.substring(first + 1, last);
+      String value;
+      if (encodedValue.equals(String.valueOf(NULL_VALUE))) {
+        value = null;
+      } else if (!encodedValue.isEmpty() && encodedValue.charAt(0) == PRESENT_VALUE) {
+        value = encodedValue.substring(1);
+      } else {
+        throw new InvalidCursorException("Malformed cursor");
+      }
+
+      return new Cursor(raw.substring(0, first), value, Integer.parseInt(raw.substring(last + 1)));
+    } catch (IllegalArgumentException exc) {
+      throw new InvalidCursorException("Malformed cursor");
+    }
+  }
+}
@@ -0,0 +1,21 @@
+package com.prime.rushhour.pagination;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+import java.util.Optional;
+
+@Getter
+@RequiredArgsConstructor
+public class KeysetPage<T> {
+
+  public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+  private final List<T> content;
+  private final String nextCursor;
+
+  public Optional<String> getNextCursor() {
+    return Optional.ofNullable(nextCursor);
+  }
+}
@@ -1,10 +1,20 @@
 package com.prime.rushhour.repository;
 
 import com.prime.rushhour.entity.Activity;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.EntityGraph.EntityGraphType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import javax.persistence.QueryHint;
 import java.util.Optional;
 
 public interface ActivityRepository extends JpaRepository<Activity, Integer> {
+    @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
     Optional<Activity> findByName(String name);
+
+    @EntityGraph(
+        attributePaths = {"activityAppointments.appointment.user.role"},
+        type = EntityGraphType.LOAD)
+    Optional<Activity> findWithAppointmentsById(int id);
 }
@@ -0,0 +1,151 @@
+package com.prime.rushhour.repository;
+
+import com.prime.rushhour.schedule.HourlyUsage;
+import com.prime.rushhour.schedule.TimeInterval;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+@Repository
+@RequiredArgsConstructor
+public class ActivityUsageRepository {
+
+  private static final String DAY_START = "CAST(CAST(usg.hour_start AS DATE) AS DATETIME)";
+
+  private static final String HOURLY_TOTALS =
+      "SELECT usg.activity_id, act.name, act.capacity, usg.hour_start AS period_start, "
+          + "usg.bookings, usg.booked_seconds, usg.revenue "
+          + "FROM activity_hourly_usage AS usg "
+          + "JOIN activity AS act ON act.id = usg.activity_id "
+          + "WHERE usg.hour_start >= ? AND usg.hour_start < ? AND usg.booked_seconds > 0";
+
+  private static final String DAILY_TOTALS =
+      "SELECT usg.activity_id, act.name, act.capacity, "
+          + DAY_START
+          + " AS period_start, "
+          + "SUM(usg.bookings) AS bookings, SUM(usg.booked_seconds) AS booked_seconds, "
+          + "SUM(usg.revenue) AS revenue "
+          + "FROM activity_hourly_usage AS usg "
+          + "JOIN activity AS act ON act.id = usg.activity_id "
+          + "WHERE usg.hour_start >= ? AND usg.hour_start < ? AND usg.booked_seconds > 0";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public void addAll(Collection<HourlyUsage> usage) {
+    List<Object[]> rows = new ArrayList<>(usage.size());
+    for (HourlyUsage hourlyUsage : usage) {
+      rows.add(
+          new Object[] {
+            hourlyUsage.getActivityId(),
+            Timestamp.valueOf(hourlyUsage.getHourStart()),
+            hourlyUsage.getBookings(),
+            hourlyUsage.getBookedSeconds(),
+            hourlyUsage.getRevenue()
+          });
+    }
+
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO activity_hourly_usage "
+            + "(activity_id, hour_start, bookings, booked_seconds, revenue) "
+            + "VALUES (?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE bookings = bookings + VALUES(bookings), "
+            + "booked_seconds = booked_seconds + VALUES(booked_seconds), "
+            + "revenue = revenue + VALUES(revenue)",
+        rows);
+  }
+
+  public void deleteRange(LocalDateTime from, LocalDateTime to) {
+    jdbcTemplate.update(
+        "DELETE FROM activity_hourly_usage WHERE hour_start >= ? AND hour_start < ?",
+        Timestamp.valueOf(from),
+        Timestamp.valueOf(to));
+  }
+
+  public boolean isEmpty() {
+    return jdbcTemplate.query(
+        "SELECT 1 FROM activity_hourly_usage LIMIT 1", resultSet -> !resultSet.next());
+  }
+
+  public Optional<TimeInterval> findBookedRange() {
+    return jdbcTemplate.queryForObject(
+        "SELECT MIN(start_date), MAX(end_date) FROM activity_appointment",
+        (resultSet, rowNum) -> {
+          Timestamp from = resultSet.getTimestamp(1);
+          Timestamp to = resultSet.getTimestamp(2);
+
+          return from == null
+              ? Optional.empty()
+              : Optional.of(new TimeInterval(from.toLocalDateTime(), to.toLocalDateTime()));
+        });
+  }
+
+  /** Streams the segments overlapping the range, split into hours, from the source tables. */
+  public void scanSegments(
+      LocalDateTime from, LocalDateTime to, Consumer<List<HourlyUsage>> consumer) {
+    jdbcTemplate.query(
+        "SELECT act_app.activity_id, act_app.price, act_app.start_date, act_app.end_date "
+            + "FROM activity_appointment AS act_app "
+            + "WHERE act_app.end_date > ? AND act_app.start_date < ?",
+        (RowCallbackHandler)
+            resultSet ->
+                consumer.accept(
+                    HourlyUsage.ofSegment(
+                        resultSet.getInt(1),
+                        resultSet.getBigDecimal(2),
+                        resultSet.getTimestamp(3).toLocalDateTime(),
+                        resultSet.getTimestamp(4).toLocalDateTime())),
+        Timestamp.valueOf(from),
+        Timestamp.valueOf(to));
+  }
+
+  public List<UsageTotals> findTotals(
+      LocalDateTime from, LocalDateTime to, boolean daily, Integer activityId) {
+    StringBuilder sql = new StringBuilder(daily ? DAILY_TOTALS : HOURLY_TOTALS);
+    List<Object> args = new ArrayList<>(List.of(Timestamp.valueOf(from), Timestamp.valueOf(to)));
+    if (activityId != null) {
+      sql.append(" AND usg.activity_id = ?");
+      args.add(activityId);
+    }
+    if (daily) {
+      sql.append(" GROUP BY usg.activity_id, act.name, act.capacity, ").append(DAY_START);
+    }
+    sql.append(" ORDER BY period_start, usg.activity_id");
+
+    return jdbcTemplate.query(
+        sql.toString(),
+        (resultSet, rowNum) ->
+            new UsageTotals(
+                resultSet.getInt("activity_id"),
+                resultSet.getString("name"),
+                resultSet.getInt("capacity"),
+                resultSet.getTimestamp("period_start").toLocalDateTime(),
+                resultSet.getInt("bookings"),
+                resultSet.getLong("booked_seconds"),
+                resultSet.getBigDecimal("revenue")),
+        args.toArray());
+  }
+
+  @Getter
+  @RequiredArgsConstructor
+  public static class UsageTotals {
+
+    private final int activityId;
+    private final String activityName;
+    private final int capacity;
+    private final LocalDateTime periodStart;
+    private final int bookings;
+    private final long bookedSeconds;
+    private final BigDecimal revenue;
+  }
+}
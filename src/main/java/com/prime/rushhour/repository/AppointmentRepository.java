@@ -1,24 +1,81 @@
 package com.prime.rushhour.repository;
 
 import com.prime.rushhour.entity.Appointment;
+import com.prime.rushhour.repository.projection.AppointmentSlot;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.EntityGraph.EntityGraphType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface AppointmentRepository extends JpaRepository<Appointment, Integer> {
+  @Override
+  @EntityGraph(attributePaths = {"user.role"}, type = EntityGraphType.LOAD)
+  Page<Appointment> findAll(Pageable pageable);
+
+  @EntityGraph(
+      attributePaths = {"user.role", "activityAppointments.activity"},
+      type = EntityGraphType.LOAD)
+  Optional<Appointment> findWithActivitiesById(int id);
+
+  @EntityGraph(attributePaths = {"activityAppointments.activity"}, type = EntityGraphType.LOAD)
+  List<Appointment> findWithActivitiesByUserId(int userId);
+
   @Query(
       value =
-          "Select DISTINCT * from appointment as app "
-              + " join activity_appointment as act_app on act_app.appointment_id = app.id "
-              + " where app.start_date < :endDate and app.end_date > :startDate and "
-              + " (act_app.activity_id in :activityIdList or app.user_id = :userId)",
+          "select app.id from appointment as app "
+              + " where app.user_id = :userId "
+              + " and app.end_date > :startDate and app.start_date < :endDate "
+              + " union "
+              + "select act_app.appointment_id from activity_appointment as act_app "
+              + " where act_app.activity_id in :activityIdList "
+              + " and act_app.end_date > :startDate and act_app.start_date < :endDate",
       nativeQuery = true)
-  List<Appointment> findOverlappingAppointments(
+  List<Integer> findOverlappingAppointmentIds(
       @Param("startDate") LocalDateTime startDate,
       @Param("endDate") LocalDateTime endDate,
       @Param("userId") int userId,
-      @Param("activityIdList") List<Integer> activityIdList);
+      @Param("activityIdList") Collection<Integer> activityIdList);
+
+  @Query(
+      "select app.id as appointmentId, app.user.id as userId, app.startDate as startDate, "
+          + " app.endDate as endDate, actApp.activity.id as activityId, "
+          + " actApp.startDate as activityStartDate, actApp.endDate as activityEndDate, "
+          + " actApp.activity.capacity as activityCapacity "
+          + " from Appointment app join app.activityAppointments actApp "
+          + " where app.endDate > :endDate "
+          + " order by app.id, actApp.startDate")
+  List<AppointmentSlot> findSlotsEndingAfter(@Param("endDate") LocalDateTime endDate);
+
+  @Query(
+      "select app.id as appointmentId, app.user.id as userId, app.startDate as startDate, "
+          + " app.endDate as endDate, actApp.activity.id as activityId, "
+          + " actApp.startDate as activityStartDate, actApp.endDate as activityEndDate, "
+          + " actApp.activity.capacity as activityCapacity "
+          + " from Appointment app join app.activityAppointments actApp "
+          + " where actApp.activity.id in :activityIdList "
+          + " and actApp.startDate < :endDate and actApp.endDate > :startDate "
+          + " order by app.id")
+  List<AppointmentSlot> findSlotsByActivities(
+      @Param("activityIdList") Collection<Integer> activityIdList,
+      @Param("startDate") LocalDateTime startDate,
+      @Param("endDate") LocalDateTime endDate);
+
+  @Query(
+      "select app.id as appointmentId, app.user.id as userId, app.startDate as startDate, "
+          + " app.endDate as endDate, actApp.activity.id as activityId, "
+          + " actApp.startDate as activityStartDate, actApp.endDate as activityEndDate, "
+          + " actApp.activity.capacity as activityCapacity "
+          + " from Appointment app join app.activityAppointments actApp "
+          + " where app.id in :appointmentIds "
+          + " order by app.id, actApp.startDate")
+  List<AppointmentSlot> findSlotsByAppointmentIds(
+      @Param("appointmentIds") Collection<Integer> appointmentIds);
 }
@@ -0,0 +1,162 @@
+package com.prime.rushhour.repository;
+
+import com.prime.rushhour.entity.Activity;
+import com.prime.rushhour.entity.Appointment;
+import com.prime.rushhour.entity.User;
+import com.prime.rushhour.exception.InvalidCursorException;
+import com.prime.rushhour.pagination.Cursor;
+import com.prime.rushhour.pagination.KeysetPage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityGraph;
+import javax.persistence.EntityManager;
+import javax.persistence.Subgraph;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.SingularAttribute;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Seek-based paging ordered by a basic attribute and then by id. Each page is a single bounded
+ * query that continues after the previous page's last row, so no count or offset scan is needed.
+ *
+ * <p>The next cursor carries the last row's sort value in clear text, so only the attributes
+ * listed in {@link #SORT_KEYS} can be sort keys. Rows without a value come first, as MySQL orders
+ * NULLs before any value when sorting ascending.
+ */
+@Repository
+@RequiredArgsConstructor
+public class KeysetRepository {
+
+  private static final Map<Class<?>, Set<String>> SORT_KEYS =
+      Map.of(
+          Activity.class, Set.of("id", "name", "duration", "price", "capacity"),
+          Appointment.class, Set.of("id", "startDate", "endDate"),
+          User.class, Set.of("id", "firstName", "lastName", "email"));
+
+  private final EntityManager entityManager;
+
+  public <T> KeysetPage<T> findPage(
+      Class<T> type,
+      String sortBy,
+      String cursorToken,
+      int pageSize,
+      String... fetchPaths) {
+
+    if (pageSize < 1) {
+      throw new InvalidCursorException("Page size must be positive");
+    }
+
+    SingularAttribute<? super T, ?> sortAttribute = sortAttribute(type, sortBy);
+    CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<T> query = builder.createQuery(type);
+    Root<T> root = query.from(type);
+    Path<Comparable<Object>> sortKey = root.get(sortBy);
+    Path<Integer> id = root.get("id");
+
+    if (cursorToken != null && !cursorToken.isEmpty()) {
+      Cursor cursor = Cursor.decode(cursorToken);
+      if (!cursor.getSortBy().equals(sortBy)) {
+        throw new InvalidCursorException("Cursor was issued for sorting by " + cursor.getSortBy());
+      }
+      if (cursor.getValue() == null) {
+        query.where(
+            builder.or(
+                builder.isNotNull(sortKey),
+                builder.and(builder.isNull(sortKey), builder.greaterThan(id, cursor.getId()))));
+      } else {
+        Comparable<Object> value = parse(sortAttribute.getJavaType(), cursor.getValue());
+        query.where(
+            builder.or(
+                builder.greaterThan(sortKey, value),
+                builder.and(
+                    builder.equal(sortKey, value), builder.greaterThan(id, cursor.getId()))));
+      }
+    }
+    query.orderBy(builder.asc(sortKey), builder.asc(id));
+
+    List<T> rows =
+        entityManager
+            .createQuery(query)
+            .setHint("javax.persistence.loadgraph", fetchGraph(type, fetchPaths))
+            .setMaxResults(pageSize + 1)
+            .getResultList();
+
+    if (rows.size() <= pageSize) {
+      return new KeysetPage<>(rows, null);
+    }
+
+    List<T> content = rows.subList(0, pageSize);
+    T last = content.get(pageSize - 1);
+    Object lastId =
+        entityManager.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(last);
+    Object lastValue = attributeValue(sortAttribute, last);
+    Cursor nextCursor =
+        new Cursor(sortBy, lastValue == null ? null : lastValue.toString(), (Integer) lastId);
+
+    return new KeysetPage<>(content, nextCursor.encode());
+  }
+
+  private <T> SingularAttribute<? super T, ?> sortAttribute(Class<T> type, String sortBy) {
+    EntityType<T> entityType = entityManager.getMetamodel().entity(type);
+    if (!SORT_KEYS.getOrDefault(type, Set.of()).contains(sortBy)) {
+      throw new InvalidCursorException("Cannot page " + entityType.getName() + " by " + sortBy);
+    }
+    return entityType.getSingularAttribute(sortBy);
+  }
+
+  private <T> EntityGraph<T> fetchGraph(Class<T> type, String... fetchPaths) {
+    EntityGraph<T> graph = entityManager.createEntityGraph(type);
+    for (String fetchPath : fetchPaths) {
+      String[] attributes = fetchPath.split("\\.");
+      if (attributes.length == 1) {
+        graph.addAttributeNodes(attributes[0]);
+        continue;
+      }
+      Subgraph<?> subgraph = graph.addSubgraph(attributes[0]);
+      for (int index = 1; index < attributes.length - 1; index++) {
+        subgraph = subgraph.addSubgraph(attributes[index]);
+      }
+      subgraph.addAttributeNodes(attributes[attributes.length - 1]);
+    }
+    return graph;
+  }
+
+  private static Object attributeValue(SingularAttribute<?, ?> attribute, Object entity) {
+    try {
+      Field field = (Field) attribute.getJavaMember();
+      field.setAccessible(true);
+      return field.get(entity);
+    } catch (IllegalAccessException exc) {
+      throw new IllegalStateException(exc);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Comparable<Object> parse(Class<?> type, String value) {
+    try {
+      if (type == int.class || type == Integer.class) {
+        return (Comparable<Object>) (Comparable<?>) Integer.valueOf(value);
+      } else if (type == LocalDateTime.class) {
+        return (Comparable<Object>) (Comparable<?>) LocalDateTime.parse(value);
+      } else if (type == BigDecimal.class) {
+        return (Comparable<Object>) (Comparable<?>) new BigDecimal(value);
+      } else if (type == Duration.class) {
+        return (Comparable<Object>) (Comparable<?>) Duration.parse(value);
+      }
+      return (Comparable<Object>) (Comparable<?>) value;
+    } catch (RuntimeException exc) {
+      throw new InvalidCursorException("Malformed cursor");
+    }
+  }
+}
@@ -0,0 +1,49 @@
+package com.prime.rushhour.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class SlotReservationRepository {
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public void deleteByAppointmentId(int appointmentId) {
+    jdbcTemplate.update(
+        "DELETE FROM activity_slot_reservation WHERE appointment_id = ?", appointmentId);
+  }
+
+  public void insertAll(List<Object[]> reservations) {
+    jdbcTemplate.batchUpdate(
+        "INSERT INTO activity_slot_reservation (activity_id, appointment_id, slot_start) "
+            + "VALUES (?, ?, ?)",
+        reservations);
+  }
+
+  /** The activity id and slot start of every claim on the activities between the two slots. */
+  public List<Object[]> findReservedSlots(
+      Collection<Integer> activityIds, Timestamp fromSlot, Timestamp toSlot) {
+    List<Object> args = new ArrayList<>(activityIds);
+    args.add(fromSlot);
+    args.add(toSlot);
+
+    return jdbcTemplate.query(
+        "SELECT activity_id, slot_start FROM activity_slot_reservation WHERE activity_id IN ("
+            + String.join(", ", Collections.nCopies(activityIds.size(), "?"))
+            + ") AND slot_start BETWEEN ? AND ?",
+        (resultSet, rowNum) -> new Object[] {resultSet.getInt(1), resultSet.getTimestamp(2)},
+        args.toArray());
+  }
+
+  public static Object[] reservation(int activityId, int appointmentId, Timestamp slotStart) {
+    return new Object[] {activityId, appointmentId, slotStart};
+  }
+}
@@ -1,10 +1,25 @@
 package com.prime.rushhour.repository;
 
 import com.prime.rushhour.entity.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.EntityGraph.EntityGraphType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Integer> {
   Optional<User> findByEmail(String email);
+
+  @Override
+  @EntityGraph(attributePaths = {"role"}, type = EntityGraphType.LOAD)
+  Page<User> findAll(Pageable pageable);
+
+  @EntityGraph(attributePaths = {"role", "appointments"}, type = EntityGraphType.LOAD)
+  Optional<User> findWithAppointmentsById(int id);
+
+  @Query("select u.tokenVersion from User u where u.id = ?1")
+  Optional<Integer> findTokenVersionById(int id);
 }
@@ -0,0 +1,22 @@
+package com.prime.rushhour.repository.projection;
+
+import java.time.LocalDateTime;
+
+public interface AppointmentSlot {
+
+  int getAppointmentId();
+
+  int getUserId();
+
+  LocalDateTime getStartDate();
+
+  LocalDateTime getEndDate();
+
+  int getActivityId();
+
+  LocalDateTime getActivityStartDate();
+
+  LocalDateTime getActivityEndDate();
+
+  int getActivityCapacity();
+}
@@ -0,0 +1,174 @@
+package com.prime.rushhour.schedule;
+
+import com.prime.rushhour.event.AppointmentDeletedEvent;
+import com.prime.rushhour.event.AppointmentSavedEvent;
+import com.prime.rushhour.repository.AppointmentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Booked slots per activity and day, from the start of the day the index was last loaded. Past days
+ * are dropped on each periodic reload, and queries reaching before the first day are left to the
+ * database.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ActivityAvailabilityIndex {
+
+  private final AppointmentRepository appointmentRepository;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  @Value("${app.booking.availability.index-enabled}")
+  private boolean enabled;
+
+  @Value("${app.booking.availability.slot-minutes}")
+  private int slotMinutes;
+
+  private LocalDate firstDay;
+  private SlotCalendar calendar;
+  private Map<Integer, BookedAppointment> appointments = new HashMap<>();
+  private long modifications;
+  private volatile boolean ready;
+
+  public boolean isReady() {
+    return enabled && ready;
+  }
+
+  public int getSlotMinutes() {
+    return slotMinutes;
+  }
+
+  /** The free intervals per activity, or empty if the range starts before the indexed days. */
+  public Optional<Map<Integer, List<TimeInterval>>> findFreeIntervals(
+      Map<Integer, Integer> capacities, LocalDate from, LocalDate to) {
+    lock.readLock().lock();
+    try {
+      if (!isReady() || from.isBefore(firstDay)) {
+        return Optional.empty();
+      }
+
+      Map<Integer, List<TimeInterval>> freeIntervals = new LinkedHashMap<>();
+      capacities.forEach(
+          (activityId, capacity) ->
+              freeIntervals.put(
+                  activityId, calendar.findFreeIntervals(activityId, capacity, from, to)));
+      return Optional.of(freeIntervals);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onAppointmentSaved(AppointmentSavedEvent event) {
+    lock.writeLock().lock();
+    try {
+      modifications++;
+      if (calendar == null) {
+        return;
+      }
+      remove(event.getAppointment().getId());
+      if (event.getAppointment().getEndDate().isAfter(firstDay.atStartOfDay())) {
+        appointments.put(event.getAppointment().getId(), event.getAppointment());
+        calendar.add(event.getAppointment());
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onAppointmentDeleted(AppointmentDeletedEvent event) {
+    lock.writeLock().lock();
+    try {
+      modifications++;
+      if (calendar != null) {
+        remove(event.getAppointment().getId());
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void load() {
+    if (enabled) {
+      while (rebuild().isEmpty()) {
+        log.info("Appointments changed while loading the availability index, loading again");
+      }
+      ready = true;
+    }
+  }
+
+  @Scheduled(
+      initialDelayString = "${app.booking.availability.verify-interval-ms}",
+      fixedDelayString = "${app.booking.availability.verify-interval-ms}")
+  public void verify() {
+    if (ready && !rebuild().orElse(true)) {
+      log.warn("Activity availability index drifted from the database and was reloaded");
+    }
+  }
+
+  private void remove(int appointmentId) {
+    BookedAppointment previous = appointments.remove(appointmentId);
+    if (previous != null) {
+      calendar.remove(previous);
+    }
+  }
+
+  private Optional<Boolean> rebuild() {
+    long modificationsBeforeLoad = currentModifications();
+
+    LocalDate today = LocalDate.now();
+    SlotCalendar loadedCalendar = new SlotCalendar(slotMinutes);
+    Map<Integer, BookedAppointment> loaded = new HashMap<>();
+    for (BookedAppointment appointment :
+        BookedAppointment.fromSlots(
+            appointmentRepository.findSlotsEndingAfter(today.atStartOfDay()))) {
+      loaded.put(appointment.getId(), appointment);
+      loadedCalendar.add(appointment);
+    }
+
+    lock.writeLock().lock();
+    try {
+      if (modifications != modificationsBeforeLoad) {
+        return Optional.empty();
+      }
+      appointments
+          .values()
+          .removeIf(appointment -> !appointment.getEndDate().isAfter(today.atStartOfDay()));
+      boolean consistent = loaded.equals(appointments);
+
+      firstDay = today;
+      calendar = loadedCalendar;
+      appointments = loaded;
+      return Optional.of(consistent);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private long currentModifications() {
+    lock.readLock().lock();
+    try {
+      return modifications;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+}
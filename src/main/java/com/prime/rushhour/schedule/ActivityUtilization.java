@@ -0,0 +1,22 @@
+package com.prime.rushhour.schedule;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Getter
+@EqualsAndHashCode
+@RequiredArgsConstructor
+public class ActivityUtilization {
+
+  private final int activityId;
+  private final String activityName;
+  private final LocalDateTime periodStart;
+  private final int bookings;
+  private final long bookedMinutes;
+  private final double occupancy;
+  private final BigDecimal revenue;
+}
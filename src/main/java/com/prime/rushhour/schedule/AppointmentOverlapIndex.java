@@ -0,0 +1,139 @@
+package com.prime.rushhour.schedule;
+
+import com.prime.rushhour.event.AppointmentDeletedEvent;
+import com.prime.rushhour.event.AppointmentSavedEvent;
+import com.prime.rushhour.repository.AppointmentRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The appointments that had not ended when the index was last loaded. Bookings are only checked
+ * against it on the single-node paths: the booking engine, or an in-process booking lock. With a
+ * cluster-wide lock and no engine it is never consulted, so it is not loaded at all.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AppointmentOverlapIndex {
+
+  private final AppointmentRepository appointmentRepository;
+  private final BookingLock bookingLock;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  @Value("${app.booking.overlap-index.enabled}")
+  private boolean enabled;
+
+  @Value("${app.booking.engine.enabled}")
+  private boolean engineEnabled;
+
+  private LocalDateTime loadedFrom;
+  private ScheduleSnapshot snapshot = new ScheduleSnapshot();
+  private long modifications;
+  private volatile boolean ready;
+
+  /**
+   * Whether the candidate overlaps an indexed appointment, or empty if the index is not loaded or
+   * the candidate starts before the appointments it holds.
+   */
+  public Optional<Boolean> hasOverlap(BookedAppointment candidate, int excludedId) {
+    lock.readLock().lock();
+    try {
+      if (!ready || candidate.getStartDate().isBefore(loadedFrom)) {
+        return Optional.empty();
+      }
+      return Optional.of(snapshot.hasOverlap(candidate, excludedId));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onAppointmentSaved(AppointmentSavedEvent event) {
+    lock.writeLock().lock();
+    try {
+      snapshot.remove(event.getAppointment().getId());
+      if (loadedFrom == null || event.getAppointment().getEndDate().isAfter(loadedFrom)) {
+        snapshot.add(event.getAppointment());
+      }
+      modifications++;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onAppointmentDeleted(AppointmentDeletedEvent event) {
+    lock.writeLock().lock();
+    try {
+      snapshot.remove(event.getAppointment().getId());
+      modifications++;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void load() {
+    if (enabled && (engineEnabled || !bookingLock.isClusterWide())) {
+      while (rebuild().isEmpty()) {
+        log.info("Appointments changed while loading the overlap index, loading again");
+      }
+      ready = true;
+    }
+  }
+
+  @Scheduled(
+      initialDelayString = "${app.booking.overlap-index.verify-interval-ms}",
+      fixedDelayString = "${app.booking.overlap-index.verify-interval-ms}")
+  public void verify() {
+    if (ready && !rebuild().orElse(true)) {
+      log.warn("Appointment overlap index drifted from the database and was reloaded");
+    }
+  }
+
+  private Optional<Boolean> rebuild() {
+    long modificationsBeforeLoad = currentModifications();
+
+    LocalDateTime now = LocalDateTime.now();
+    ScheduleSnapshot loaded = new ScheduleSnapshot();
+    BookedAppointment.fromSlots(appointmentRepository.findSlotsEndingAfter(now))
+        .forEach(loaded::add);
+
+    lock.writeLock().lock();
+    try {
+      if (modifications != modificationsBeforeLoad) {
+        return Optional.empty();
+      }
+      Map<Integer, BookedAppointment> stillIndexed = new HashMap<>(snapshot.getAppointments());
+      stillIndexed.values().removeIf(appointment -> !appointment.getEndDate().isAfter(now));
+      boolean consistent = loaded.getAppointments().equals(stillIndexed);
+      loadedFrom = now;
+      snapshot = loaded;
+      return Optional.of(consistent);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private long currentModifications() {
+    lock.readLock().lock();
+    try {
+      return modifications;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+}
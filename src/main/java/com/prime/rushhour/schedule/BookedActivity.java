@@ -0,0 +1,19 @@
+package com.prime.rushhour.schedule;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Getter
+@EqualsAndHashCode
+@RequiredArgsConstructor
+public class BookedActivity {
+
+  private final int activityId;
+  private final LocalDateTime startDate;
+  private final LocalDateTime endDate;
+
+  @EqualsAndHashCode.Exclude private final int capacity;
+}
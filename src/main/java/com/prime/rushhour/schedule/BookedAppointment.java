@@ -0,0 +1,87 @@
+package com.prime.rushhour.schedule;
+
+import com.prime.rushhour.entity.Appointment;
+import com.prime.rushhour.repository.projection.AppointmentSlot;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Getter
+@EqualsAndHashCode
+@RequiredArgsConstructor
+public class BookedAppointment {
+
+  private final int id;
+  private final int userId;
+  private final LocalDateTime startDate;
+  private final LocalDateTime endDate;
+  private final List<BookedActivity> activities;
+
+  public static BookedAppointment of(Appointment appointment) {
+    List<BookedActivity> activities =
+        appointment.getActivityAppointments().stream()
+            .map(
+                activityAppointment ->
+                    new BookedActivity(
+                        activityAppointment.getActivity().getId(),
+                        activityAppointment.getStartDate(),
+                        activityAppointment.getEndDate(),
+                        activityAppointment.getActivity().getCapacity()))
+            .collect(Collectors.toList());
+
+    return new BookedAppointment(
+        appointment.getId(),
+        appointment.getUser().getId(),
+        appointment.getStartDate(),
+        appointment.getEndDate(),
+        activities);
+  }
+
+  public static Collection<BookedAppointment> fromSlots(List<AppointmentSlot> slots) {
+    Map<Integer, List<AppointmentSlot>> slotsByAppointment = new LinkedHashMap<>();
+    for (AppointmentSlot slot : slots) {
+      slotsByAppointment.computeIfAbsent(slot.getAppointmentId(), id -> new ArrayList<>()).add(slot);
+    }
+
+    return slotsByAppointment.values().stream()
+        .map(
+            appointmentSlots -> {
+              AppointmentSlot first = appointmentSlots.get(0);
+              List<BookedActivity> activities =
+                  appointmentSlots.stream()
+                      .map(
+                          slot ->
+                              new BookedActivity(
+                                  slot.getActivityId(),
+                                  slot.getActivityStartDate(),
+                                  slot.getActivityEndDate(),
+                                  slot.getActivityCapacity()))
+                      .collect(Collectors.toList());
+
+              return new BookedAppointment(
+                  first.getAppointmentId(),
+                  first.getUserId(),
+                  first.getStartDate(),
+                  first.getEndDate(),
+                  activities);
+            })
+        .collect(Collectors.toList());
+  }
+
+  public BookedAppointment withId(int id) {
+    return new BookedAppointment(id, userId, startDate, endDate, activities);
+  }
+
+  public static long toEpochSecond(LocalDateTime dateTime) {
+    return dateTime.toEpochSecond(ZoneOffset.UTC);
+  }
+}
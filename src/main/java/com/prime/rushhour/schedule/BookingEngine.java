@@ -0,0 +1,350 @@
+package com.prime.rushhour.schedule;
+
+import com.prime.rushhour.entity.Appointment;
+import com.prime.rushhour.event.AppointmentDeletedEvent;
+import com.prime.rushhour.event.AppointmentSavedEvent;
+import com.prime.rushhour.exception.BookingUnavailableException;
+import com.prime.rushhour.exception.OverlappingAppointmentsException;
+import com.prime.rushhour.repository.AppointmentRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionOperations;
+
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Decides bookings in memory, one partition thread per group of activities, and persists the
+ * accepted ones in group commits. While it runs it decides every booking, so no booking can miss
+ * another one that is still waiting for its commit.
+ *
+ * <p>A booking is held in each partition of its activities in ascending partition order, and
+ * released from all of them if any partition rejects it. The partitions only load appointments
+ * that had not ended, so the caller's check against the committed bookings runs first, under a
+ * per-user lock that also keeps one user's bookings in different partitions apart.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingEngine {
+
+  private static final int USER_LOCK_STRIPES = 256;
+
+  private final AppointmentRepository appointmentRepository;
+  private final TransactionOperations transactionOperations;
+  private final MeterRegistry meterRegistry;
+  private final List<BookingPartition> partitions = new ArrayList<>();
+  private final ReentrantLock[] userLocks = new ReentrantLock[USER_LOCK_STRIPES];
+  private final AtomicInteger nextProvisionalId = new AtomicInteger(-1);
+
+  @Value("${app.booking.engine.enabled}")
+  private boolean enabled;
+
+  @Value("${app.booking.engine.partitions}")
+  private int partitionCount;
+
+  @Value("${app.booking.engine.queue-capacity}")
+  private int queueCapacity;
+
+  @Value("${app.booking.engine.commit-batch-size}")
+  private int commitBatchSize;
+
+  @Value("${app.booking.engine.timeout-ms}")
+  private long timeoutMs;
+
+  private GroupCommitPersister persister;
+  private volatile boolean ready;
+
+  public boolean isReady() {
+    return ready;
+  }
+
+  /**
+   * Books the candidate once {@code check} has passed against the committed bookings, returning
+   * the appointment saved by {@code persist}.
+   */
+  public Appointment book(
+      Appointment appointment,
+      BookedAppointment candidate,
+      int excludedId,
+      Runnable check,
+      UnaryOperator<Appointment> persist) {
+
+    List<BookingPartition> bookingPartitions =
+        partitionsOf(candidate).stream().sorted().map(partitions::get).collect(Collectors.toList());
+    ReentrantLock userLock = userLocks[Math.floorMod(candidate.getUserId(), userLocks.length)];
+    long startTime = System.nanoTime();
+    long deadline = startTime + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+
+    try {
+      if (!userLock.tryLock(timeoutMs, TimeUnit.MILLISECONDS)) {
+        throw new BookingUnavailableException("Booking did not complete in time.");
+      }
+    } catch (InterruptedException exc) {
+      Thread.currentThread().interrupt();
+      throw new BookingUnavailableException("Booking was interrupted.");
+    }
+
+    try {
+      check.run();
+      return holdAndCommit(
+          appointment, candidate, excludedId, persist, bookingPartitions, deadline);
+    } finally {
+      userLock.unlock();
+      if (!bookingPartitions.isEmpty()) {
+        bookingPartitions
+            .get(0)
+            .getLatency()
+            .record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+      }
+    }
+  }
+
+  private Appointment holdAndCommit(
+      Appointment appointment,
+      BookedAppointment candidate,
+      int excludedId,
+      UnaryOperator<Appointment> persist,
+      List<BookingPartition> bookingPartitions,
+      long deadline) {
+
+    BookedAppointment provisional =
+        candidate.withId(excludedId != 0 ? excludedId : nextProvisionalId.getAndDecrement());
+    Map<BookingPartition, BookedAppointment> previous = new ConcurrentHashMap<>();
+    Runnable release = () -> release(bookingPartitions, provisional, previous);
+    CompletableFuture<Appointment> result = new CompletableFuture<>();
+    // Set by whoever gets there first: the group commit before persisting the booking, or this
+    // thread when it gives up waiting.
+    AtomicBoolean claimed = new AtomicBoolean();
+    // Once submitted, the group commit undoes the holds of a booking it finds claimed.
+    boolean submitted = false;
+
+    try {
+      for (BookingPartition partition : bookingPartitions) {
+        CompletableFuture<Boolean> held = new CompletableFuture<>();
+        partition.submit(
+            () ->
+                held.complete(
+                    !claimed.get()
+                        && hold(partition, candidate, provisional, excludedId, previous)));
+        if (!held.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+          claimed.set(true);
+          release.run();
+          throw new OverlappingAppointmentsException(
+              "There are overlapping appointments. Please choose another date.");
+        }
+      }
+
+      persister.submit(
+          new GroupCommitPersister.PendingBooking(
+              appointment,
+              persist,
+              result,
+              claimed,
+              () -> {
+                if (provisional.getId() < 0) {
+                  bookingPartitions.forEach(
+                      partition ->
+                          partition.control(
+                              () -> partition.getSchedule().remove(provisional.getId())));
+                }
+              },
+              release));
+      submitted = true;
+      return result.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+    } catch (RejectedExecutionException exc) {
+      claimed.set(true);
+      release.run();
+      throw new BookingUnavailableException("Too many pending bookings. Please try again.");
+    } catch (TimeoutException exc) {
+      if (claimed.compareAndSet(false, true)) {
+        if (!submitted) {
+          release.run();
+        }
+        throw new BookingUnavailableException("Booking did not complete in time.");
+      }
+      // Already being committed, so a 503 could be followed by a duplicate on retry.
+      return awaitCommit(result);
+    } catch (InterruptedException exc) {
+      if (claimed.compareAndSet(false, true) && !submitted) {
+        release.run();
+      }
+      Thread.currentThread().interrupt();
+      throw new BookingUnavailableException("Booking was interrupted.");
+    } catch (ExecutionException exc) {
+      throw unwrap(exc);
+    }
+  }
+
+  private Appointment awaitCommit(CompletableFuture<Appointment> result) {
+    try {
+      return result.get();
+    } catch (InterruptedException exc) {
+      Thread.currentThread().interrupt();
+      throw new BookingUnavailableException("Booking was interrupted.");
+    } catch (ExecutionException exc) {
+      throw unwrap(exc);
+    }
+  }
+
+  private static RuntimeException unwrap(ExecutionException exc) {
+    if (exc.getCause() instanceof RuntimeException) {
+      return (RuntimeException) exc.getCause();
+    }
+    return new IllegalStateException(exc.getCause());
+  }
+
+  /** Runs on the partition's thread, so the check and the hold cannot interleave with others. */
+  private static boolean hold(
+      BookingPartition partition,
+      BookedAppointment candidate,
+      BookedAppointment provisional,
+      int excludedId,
+      Map<BookingPartition, BookedAppointment> previous) {
+
+    ScheduleSnapshot schedule = partition.getSchedule();
+    if (schedule.hasOverlap(candidate, excludedId)) {
+      return false;
+    }
+
+    BookedAppointment previousBooking = schedule.getAppointments().get(excludedId);
+    if (previousBooking != null) {
+      previous.put(partition, previousBooking);
+    }
+    schedule.remove(provisional.getId());
+    schedule.add(provisional);
+    return true;
+  }
+
+  /** Undoes the holds, restoring the booking that an update would have replaced. */
+  private static void release(
+      List<BookingPartition> bookingPartitions,
+      BookedAppointment provisional,
+      Map<BookingPartition, BookedAppointment> previous) {
+    for (BookingPartition partition : bookingPartitions) {
+      partition.control(
+          () -> {
+            partition.getSchedule().remove(provisional.getId());
+            BookedAppointment previousBooking = previous.get(partition);
+            if (previousBooking != null) {
+              partition.getSchedule().add(previousBooking);
+            }
+          });
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onAppointmentSaved(AppointmentSavedEvent event) {
+    BookedAppointment appointment = event.getAppointment();
+    Set<Integer> appointmentPartitions = partitionsOf(appointment);
+    // An update can move the appointment out of the partitions of its previous activities.
+    for (int partition = 0; partition < partitions.size(); partition++) {
+      ScheduleSnapshot schedule = partitions.get(partition).getSchedule();
+      boolean booked = appointmentPartitions.contains(partition);
+      partitions
+          .get(partition)
+          .control(
+              () -> {
+                schedule.remove(appointment.getId());
+                if (booked) {
+                  schedule.add(appointment);
+                }
+              });
+    }
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onAppointmentDeleted(AppointmentDeletedEvent event) {
+    BookedAppointment appointment = event.getAppointment();
+    for (int partition : partitionsOf(appointment)) {
+      ScheduleSnapshot schedule = partitions.get(partition).getSchedule();
+      partitions.get(partition).control(() -> schedule.remove(appointment.getId()));
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void start() {
+    if (!enabled) {
+      return;
+    }
+
+    for (int stripe = 0; stripe < userLocks.length; stripe++) {
+      userLocks[stripe] = new ReentrantLock();
+    }
+
+    for (int index = 0; index < partitionCount; index++) {
+      String partitionTag = String.valueOf(index);
+      BookingPartition partition =
+          new BookingPartition(
+              index,
+              queueCapacity,
+              Timer.builder("booking.engine.latency")
+                  .tag("partition", partitionTag)
+                  .publishPercentiles(0.5, 0.99)
+                  .register(meterRegistry));
+      Gauge.builder("booking.engine.queue.depth", partition, BookingPartition::queueDepth)
+          .tag("partition", partitionTag)
+          .register(meterRegistry);
+      partitions.add(partition);
+    }
+
+    persister =
+        new GroupCommitPersister(
+            transactionOperations,
+            DistributionSummary.builder("booking.engine.commit.size").register(meterRegistry),
+            commitBatchSize);
+    Gauge.builder("booking.engine.commit.queue.depth", persister, GroupCommitPersister::queueDepth)
+        .register(meterRegistry);
+
+    for (BookedAppointment appointment :
+        BookedAppointment.fromSlots(
+            appointmentRepository.findSlotsEndingAfter(LocalDateTime.now()))) {
+      for (int partition : partitionsOf(appointment)) {
+        partitions.get(partition).getSchedule().add(appointment);
+      }
+    }
+
+    persister.start();
+    ready = true;
+  }
+
+  @PreDestroy
+  public void stop() {
+    ready = false;
+    partitions.forEach(BookingPartition::shutdown);
+    if (persister != null) {
+      persister.shutdown();
+    }
+  }
+
+  private Set<Integer> partitionsOf(BookedAppointment appointment) {
+    if (partitions.isEmpty()) {
+      return Set.of();
+    }
+    return appointment.getActivities().stream()
+        .map(activity -> Math.floorMod(activity.getActivityId(), partitions.size()))
+        .collect(Collectors.toSet());
+  }
+}
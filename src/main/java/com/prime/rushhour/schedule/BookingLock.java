@@ -0,0 +1,40 @@
+package com.prime.rushhour.schedule;
+
+import java.util.Collection;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+public interface BookingLock {
+
+  /**
+   * Locks the users and activities of the given appointments until the current transaction
+   * completes. Keys are always taken in their natural order so concurrent bookings cannot
+   * deadlock on each other.
+   */
+  void acquire(Collection<BookedAppointment> appointments);
+
+  boolean isClusterWide();
+
+  static SortedSet<String> keysOf(Collection<BookedAppointment> appointments) {
+    SortedSet<String> keys = new TreeSet<>();
+    for (BookedAppointment appointment : appointments) {
+      keys.add("rush_hour.user." + appointment.getUserId());
+      for (BookedActivity activity : appointment.getActivities()) {
+        keys.add("rush_hour.activity." + activity.getActivityId());
+      }
+    }
+    return keys;
+  }
+
+  /**
+   * Maps lock keys onto a fixed number of local lock stripes, in the order the stripes must be
+   * taken. Keys of one booking may share a stripe or hash in a different order than they sort.
+   */
+  static SortedSet<Integer> stripesOf(Collection<String> keys, int stripeCount) {
+    SortedSet<Integer> stripes = new TreeSet<>();
+    for (String key : keys) {
+      stripes.add(Math.floorMod(key.hashCode(), stripeCount));
+    }
+    return stripes;
+  }
+}
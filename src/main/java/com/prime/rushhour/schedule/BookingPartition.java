@@ -0,0 +1,58 @@
+package com.prime.rushhour.schedule;
+
+import io.micrometer.core.instrument.Timer;
+import lombok.Getter;
+
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+class BookingPartition {
+
+  private final ThreadPoolExecutor worker;
+  private final Queue<Runnable> controlTasks = new ConcurrentLinkedQueue<>();
+
+  @Getter private final ScheduleSnapshot schedule = new ScheduleSnapshot();
+  @Getter private final Timer latency;
+
+  BookingPartition(int index, int queueCapacity, Timer latency) {
+    this.latency = latency;
+    this.worker =
+        new ThreadPoolExecutor(
+            1,
+            1,
+            0,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> new Thread(runnable, "booking-partition-" + index));
+  }
+
+  void submit(Runnable command) {
+    worker.execute(
+        () -> {
+          drainControlTasks();
+          command.run();
+        });
+  }
+
+  void control(Runnable task) {
+    controlTasks.add(task);
+  }
+
+  int queueDepth() {
+    return worker.getQueue().size();
+  }
+
+  void shutdown() {
+    worker.shutdownNow();
+  }
+
+  private void drainControlTasks() {
+    Runnable task;
+    while ((task = controlTasks.poll()) != null) {
+      task.run();
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package com.prime.rushhour.schedule;
+
+import com.prime.rushhour.exception.BookingUnavailableException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs booking transactions, at most {@code app.booking.max-transactions} of them at a time.
+ *
+ * <p>Appointment and segment ids come from a table generator, and Hibernate claims each new block
+ * of ids on a second pooled connection while the booking transaction keeps its own. If bookings
+ * held every pooled connection, that claim, and every insert waiting for an id behind it, would
+ * stall until the pool timed out. Bookings therefore take a permit before their transaction opens,
+ * and startup fails unless the pool keeps a connection free beyond the permits and the booking
+ * engine's group commit.
+ */
+@Component
+public class BookingTransactions {
+
+  private final TransactionOperations transactionOperations;
+  private final Semaphore permits;
+  private final long timeoutMs;
+
+  public BookingTransactions(
+      TransactionOperations transactionOperations,
+      @Value("${app.booking.max-transactions}") int maxTransactions,
+      @Value("${spring.datasource.hikari.maximum-pool-size}") int maximumPoolSize,
+      @Value("${app.booking.engine.enabled}") boolean engineEnabled,
+      @Value("${app.booking.lock.timeout-ms}") long timeoutMs) {
+    int bookingConnections = maxTransactions + (engineEnabled ? 1 : 0);
+    if (maxTransactions < 1 || bookingConnections >= maximumPoolSize) {
+      throw new IllegalStateException(
+          "app.booking.max-transactions is "
+              + maxTransactions
+              + " but bookings must leave at least one of the "
+              + maximumPoolSize
+              + " pooled connections free for id generation");
+    }
+
+    this.transactionOperations = transactionOperations;
+    this.permits = new Semaphore(maxTransactions, true);
+    this.timeoutMs = timeoutMs;
+  }
+
+  public <T> T execute(TransactionCallback<T> action) {
+    try {
+      if (!permits.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+        throw new BookingUnavailableException("Too many concurrent bookings. Please try again.");
+      }
+    } catch (InterruptedException exc) {
+      Thread.currentThread().interrupt();
+      throw new BookingUnavailableException("Booking was interrupted.");
+    }
+
+    try {
+      return transactionOperations.execute(action);
+    } finally {
+      permits.release();
+    }
+  }
+}
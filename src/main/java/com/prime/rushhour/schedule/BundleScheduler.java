@@ -0,0 +1,160 @@
+package com.prime.rushhour.schedule;
+
+import com.prime.rushhour.entity.Activity;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Finds the earliest start times at which a bundle of activities fits into a schedule. Start times
+ * are probed on a slot grid and the search stops at a deadline, returning what it found so far.
+ */
+public class BundleScheduler {
+
+  private final ScheduleSnapshot schedule;
+  private final int slotMinutes;
+
+  public BundleScheduler(ScheduleSnapshot schedule, int slotMinutes) {
+    this.schedule = schedule;
+    this.slotMinutes = slotMinutes;
+  }
+
+  public List<Suggestion> findEarliest(
+      int userId,
+      List<Activity> activities,
+      LocalDateTime from,
+      LocalDateTime to,
+      int count,
+      boolean allowReordering,
+      long deadlineNanos) {
+
+    List<Suggestion> suggestions = new ArrayList<>();
+    Duration totalDuration =
+        activities.stream().map(Activity::getDuration).reduce(Duration.ZERO, Duration::plus);
+    LocalDateTime lastStart = to.minus(totalDuration);
+
+    for (LocalDateTime startDate = firstSlot(from);
+        !startDate.isAfter(lastStart) && suggestions.size() < count;
+        startDate = startDate.plusMinutes(slotMinutes)) {
+
+      if (System.nanoTime() - deadlineNanos > 0) {
+        break;
+      }
+
+      BookedAppointment candidate = candidate(userId, startDate, activities);
+      if (!schedule.hasOverlap(candidate, 0)) {
+        suggestions.add(suggestion(candidate));
+        continue;
+      }
+
+      if (allowReordering) {
+        findReordered(userId, startDate, activities, deadlineNanos)
+            .ifPresent(reordered -> suggestions.add(suggestion(reordered)));
+      }
+    }
+
+    return suggestions;
+  }
+
+  private Optional<BookedAppointment> findReordered(
+      int userId, LocalDateTime startDate, List<Activity> activities, long deadlineNanos) {
+
+    Activity[] order = activities.toArray(new Activity[0]);
+    Arrays.sort(order, Comparator.comparingInt(Activity::getId));
+
+    do {
+      if (System.nanoTime() - deadlineNanos > 0) {
+        break;
+      }
+
+      List<Activity> reordered = Arrays.asList(order);
+      if (sameOrder(reordered, activities)) {
+        continue;
+      }
+
+      BookedAppointment candidate = candidate(userId, startDate, reordered);
+      if (!schedule.hasOverlap(candidate, 0)) {
+        return Optional.of(candidate);
+      }
+    } while (nextPermutation(order));
+
+    return Optional.empty();
+  }
+
+  private BookedAppointment candidate(
+      int userId, LocalDateTime startDate, List<Activity> activities) {
+    List<BookedActivity> segments = new ArrayList<>();
+    LocalDateTime segmentStart = startDate;
+
+    for (Activity activity : activities) {
+      LocalDateTime segmentEnd = segmentStart.plus(activity.getDuration());
+      segments.add(
+          new BookedActivity(activity.getId(), segmentStart, segmentEnd, activity.getCapacity()));
+      segmentStart = segmentEnd;
+    }
+
+    return new BookedAppointment(0, userId, startDate, segmentStart, segments);
+  }
+
+  private LocalDateTime firstSlot(LocalDateTime from) {
+    LocalDateTime day = from.truncatedTo(ChronoUnit.DAYS);
+    long minutes = ChronoUnit.MINUTES.between(day, from);
+    long slots = (minutes + slotMinutes - 1) / slotMinutes;
+    LocalDateTime slotStart = day.plusMinutes(slots * slotMinutes);
+
+    return slotStart.isBefore(from) ? slotStart.plusMinutes(slotMinutes) : slotStart;
+  }
+
+  private static Suggestion suggestion(BookedAppointment candidate) {
+    return new Suggestion(
+        candidate.getStartDate(),
+        candidate.getEndDate(),
+        candidate.getActivities().stream()
+            .map(BookedActivity::getActivityId)
+            .collect(Collectors.toList()));
+  }
+
+  private static boolean sameOrder(List<Activity> first, List<Activity> second) {
+    for (int index = 0; index < first.size(); index++) {
+      if (first.get(index).getId() != second.get(index).getId()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Rearranges the activities into the next permutation by id, skipping duplicates. */
+  private static boolean nextPermutation(Activity[] order) {
+    int pivot = order.length - 2;
+    while (pivot >= 0 && order[pivot].getId() >= order[pivot + 1].getId()) {
+      pivot--;
+    }
+    if (pivot < 0) {
+      return false;
+    }
+
+    int successor = order.length - 1;
+    while (order[successor].getId() <= order[pivot].getId()) {
+      successor--;
+    }
+    swap(order, pivot, successor);
+
+    for (int left = pivot + 1, right = order.length - 1; left < right; left++, right--) {
+      swap(order, left, right);
+    }
+    return true;
+  }
+
+  private static void swap(Activity[] order, int first, int second) {
+    Activity activity = order[first];
+    order[first] = order[second];
+    order[second] = activity;
+  }
+}
@@ -0,0 +1,126 @@
+package com.prime.rushhour.schedule;
+
+import com.prime.rushhour.entity.Appointment;
+import io.micrometer.core.instrument.DistributionSummary;
+import lombok.RequiredArgsConstructor;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.UnaryOperator;
+
+class GroupCommitPersister implements Runnable {
+
+  private final BlockingQueue<PendingBooking> pendingBookings = new LinkedBlockingQueue<>();
+  private final TransactionOperations transactionOperations;
+  private final DistributionSummary commitSizes;
+  private final int commitBatchSize;
+  private final Thread thread;
+
+  GroupCommitPersister(
+      TransactionOperations transactionOperations,
+      DistributionSummary commitSizes,
+      int commitBatchSize) {
+    this.transactionOperations = transactionOperations;
+    this.commitSizes = commitSizes;
+    this.commitBatchSize = commitBatchSize;
+    this.thread = new Thread(this, "booking-group-commit");
+  }
+
+  void start() {
+    thread.start();
+  }
+
+  void shutdown() {
+    thread.interrupt();
+  }
+
+  void submit(PendingBooking pendingBooking) {
+    pendingBookings.add(pendingBooking);
+  }
+
+  int queueDepth() {
+    return pendingBookings.size();
+  }
+
+  @Override
+  public void run() {
+    while (!Thread.currentThread().isInterrupted()) {
+      List<PendingBooking> batch = new ArrayList<>(commitBatchSize);
+      try {
+        batch.add(pendingBookings.take());
+      } catch (InterruptedException exc) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      pendingBookings.drainTo(batch, commitBatchSize - 1);
+      batch.removeIf(pendingBooking -> !pendingBooking.claim());
+      if (batch.isEmpty()) {
+        continue;
+      }
+      commitSizes.record(batch.size());
+      commit(batch);
+    }
+  }
+
+  private void commit(List<PendingBooking> batch) {
+    List<Appointment> savedAppointments;
+    try {
+      savedAppointments =
+          transactionOperations.execute(
+              status -> {
+                List<Appointment> saved = new ArrayList<>(batch.size());
+                for (PendingBooking pendingBooking : batch) {
+                  saved.add(pendingBooking.persist.apply(pendingBooking.appointment));
+                }
+                return saved;
+              });
+    } catch (RuntimeException exc) {
+      if (batch.size() == 1) {
+        batch.get(0).fail(exc);
+      } else {
+        batch.forEach(pendingBooking -> commit(Collections.singletonList(pendingBooking)));
+      }
+      return;
+    }
+
+    for (int i = 0; i < batch.size(); i++) {
+      batch.get(i).complete(savedAppointments.get(i));
+    }
+  }
+
+  @RequiredArgsConstructor
+  static class PendingBooking {
+
+    private final Appointment appointment;
+    private final UnaryOperator<Appointment> persist;
+    private final CompletableFuture<Appointment> result;
+    private final AtomicBoolean claimed;
+    private final Runnable onCommitted;
+    private final Runnable onFailed;
+
+    /** Returns false, and undoes the provisional booking, if the caller has stopped waiting. */
+    private boolean claim() {
+      if (claimed.compareAndSet(false, true)) {
+        return true;
+      }
+      onFailed.run();
+      return false;
+    }
+
+    private void complete(Appointment savedAppointment) {
+      onCommitted.run();
+      result.complete(savedAppointment);
+    }
+
+    private void fail(RuntimeException exc) {
+      onFailed.run();
+      result.completeExceptionally(exc);
+    }
+  }
+}
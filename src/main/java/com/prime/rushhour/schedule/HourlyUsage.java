@@ -0,0 +1,110 @@
+package com.prime.rushhour.schedule;
+
+import com.prime.rushhour.entity.ActivityAppointment;
+import com.prime.rushhour.entity.Appointment;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * One activity's share of a single clock hour. A booking and its revenue count towards the hour
+ * its segment starts in, while the booked seconds are split over every hour the segment covers.
+ */
+@Getter
+@EqualsAndHashCode
+@RequiredArgsConstructor
+public class HourlyUsage {
+
+  private final int activityId;
+  private final LocalDateTime hourStart;
+  private final int bookings;
+  private final long bookedSeconds;
+  private final BigDecimal revenue;
+
+  public static List<HourlyUsage> of(Appointment appointment) {
+    List<HourlyUsage> usage = new ArrayList<>();
+    for (ActivityAppointment activityAppointment : appointment.getActivityAppointments()) {
+      usage.addAll(
+          ofSegment(
+              activityAppointment.getActivity().getId(),
+              activityAppointment.getPrice(),
+              activityAppointment.getStartDate(),
+              activityAppointment.getEndDate()));
+    }
+
+    return usage;
+  }
+
+  public static List<HourlyUsage> ofSegment(
+      int activityId, BigDecimal price, LocalDateTime startDate, LocalDateTime endDate) {
+    List<HourlyUsage> usage = new ArrayList<>();
+    LocalDateTime hourStart = startDate.truncatedTo(ChronoUnit.HOURS);
+    boolean first = true;
+    while (hourStart.isBefore(endDate)) {
+      LocalDateTime hourEnd = hourStart.plusHours(1);
+      long bookedSeconds =
+          Duration.between(
+                  startDate.isAfter(hourStart) ? startDate : hourStart,
+                  endDate.isBefore(hourEnd) ? endDate : hourEnd)
+              .getSeconds();
+      usage.add(
+          new HourlyUsage(
+              activityId,
+              hourStart,
+              first ? 1 : 0,
+              bookedSeconds,
+              first ? Objects.requireNonNullElse(price, BigDecimal.ZERO) : BigDecimal.ZERO));
+      first = false;
+      hourStart = hourEnd;
+    }
+
+    return usage;
+  }
+
+  /** Sums usage per activity and hour, subtracting {@code removed} and dropping empty buckets. */
+  public static Collection<HourlyUsage> delta(
+      Collection<HourlyUsage> removed, Collection<HourlyUsage> added) {
+    Map<List<Object>, HourlyUsage> buckets = new LinkedHashMap<>();
+    for (HourlyUsage usage : removed) {
+      buckets.merge(usage.key(), usage.negate(), HourlyUsage::plus);
+    }
+    for (HourlyUsage usage : added) {
+      buckets.merge(usage.key(), usage, HourlyUsage::plus);
+    }
+    buckets.values().removeIf(HourlyUsage::isEmpty);
+
+    return buckets.values();
+  }
+
+  private List<Object> key() {
+    return List.of(activityId, hourStart);
+  }
+
+  private HourlyUsage negate() {
+    return new HourlyUsage(activityId, hourStart, -bookings, -bookedSeconds, revenue.negate());
+  }
+
+  private HourlyUsage plus(HourlyUsage other) {
+    return new HourlyUsage(
+        activityId,
+        hourStart,
+        bookings + other.bookings,
+        bookedSeconds + other.bookedSeconds,
+        revenue.add(other.revenue));
+  }
+
+  private boolean isEmpty() {
+    return bookings == 0 && bookedSeconds == 0 && revenue.signum() == 0;
+  }
+}
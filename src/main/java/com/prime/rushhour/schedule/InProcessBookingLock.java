@@ -0,0 +1,92 @@
+package com.prime.rushhour.schedule;
+
+import com.prime.rushhour.exception.BookingUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+@Component
+@ConditionalOnProperty(name = "app.booking.lock.type", havingValue = "in-process")
+public class InProcessBookingLock implements BookingLock {
+
+  private static final int LOCK_STRIPES = 256;
+
+  private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+  private final Timer waitTimer;
+  private final Counter timeouts;
+
+  @Value("${app.booking.lock.timeout-ms}")
+  private long timeoutMs;
+
+  public InProcessBookingLock(MeterRegistry meterRegistry) {
+    this.waitTimer =
+        Timer.builder("booking.lock.wait").tag("type", "in-process").register(meterRegistry);
+    this.timeouts =
+        Counter.builder("booking.lock.timeouts").tag("type", "in-process").register(meterRegistry);
+    for (int stripe = 0; stripe < LOCK_STRIPES; stripe++) {
+      locks[stripe] = new ReentrantLock();
+    }
+  }
+
+  @Override
+  public void acquire(Collection<BookedAppointment> appointments) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      throw new IllegalStateException("Booking locks can only be acquired within a transaction");
+    }
+
+    Deque<ReentrantLock> acquired = new ArrayDeque<>();
+    long startTime = System.nanoTime();
+    long deadline = startTime + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+
+    try {
+      for (int stripe : BookingLock.stripesOf(BookingLock.keysOf(appointments), LOCK_STRIPES)) {
+        ReentrantLock lock = locks[stripe];
+        if (!lock.tryLock(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+          timeouts.increment();
+          throw new BookingUnavailableException(
+              "Timed out waiting for a concurrent booking. Please try again.");
+        }
+        acquired.push(lock);
+      }
+    } catch (InterruptedException exc) {
+      Thread.currentThread().interrupt();
+      release(acquired);
+      throw new BookingUnavailableException("Booking was interrupted.");
+    } catch (RuntimeException exc) {
+      release(acquired);
+      throw exc;
+    } finally {
+      waitTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+    }
+
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronizationAdapter() {
+          @Override
+          public void afterCompletion(int status) {
+            release(acquired);
+          }
+        });
+  }
+
+  @Override
+  public boolean isClusterWide() {
+    return false;
+  }
+
+  private void release(Deque<ReentrantLock> acquired) {
+    while (!acquired.isEmpty()) {
+      acquired.pop().unlock();
+    }
+  }
+}
@@ -0,0 +1,224 @@
+package com.prime.rushhour.schedule;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * AVL tree of half-open {@code [start, end)} intervals augmented with the maximum end of each
+ * subtree, so overlap queries only descend into subtrees that can still contain a match.
+ */
+public class IntervalTree {
+
+  private Node root;
+  private int size;
+
+  public int size() {
+    return size;
+  }
+
+  public void insert(long start, long end, int id) {
+    root = insert(root, new Node(start, end, id));
+    size++;
+  }
+
+  public boolean remove(long start, long end, int id) {
+    int sizeBefore = size;
+    root = remove(root, new Node(start, end, id));
+    return size < sizeBefore;
+  }
+
+  public boolean hasOverlap(long start, long end, int excludedId) {
+    return hasOverlap(root, start, end, excludedId);
+  }
+
+  public List<Interval> findOverlapping(long start, long end) {
+    List<Interval> overlapping = new ArrayList<>();
+    collectOverlapping(root, start, end, overlapping);
+    return overlapping;
+  }
+
+  /** Returns the highest number of intervals covering any single point of [start, end). */
+  public int maxConcurrency(long start, long end, int excludedId) {
+    List<long[]> events = new ArrayList<>();
+    for (Interval interval : findOverlapping(start, end)) {
+      if (interval.getId() != excludedId) {
+        events.add(new long[] {Math.max(start, interval.getStart()), 1});
+        events.add(new long[] {Math.min(end, interval.getEnd()), -1});
+      }
+    }
+    // Intervals are half-open, so an interval ending at t never overlaps one starting at t.
+    events.sort(
+        Comparator.<long[]>comparingLong(event -> event[0]).thenComparingLong(event -> event[1]));
+
+    int concurrency = 0;
+    int maxConcurrency = 0;
+    for (long[] event : events) {
+      concurrency += event[1];
+      maxConcurrency = Math.max(maxConcurrency, concurrency);
+    }
+    return maxConcurrency;
+  }
+
+  private boolean hasOverlap(Node node, long start, long end, int excludedId) {
+    if (node == null || node.maxEnd <= start) {
+      return false;
+    }
+    if (node.start < end && node.end > start && node.id != excludedId) {
+      return true;
+    }
+    if (hasOverlap(node.left, start, end, excludedId)) {
+      return true;
+    }
+    return node.start < end && hasOverlap(node.right, start, end, excludedId);
+  }
+
+  private void collectOverlapping(Node node, long start, long end, List<Interval> overlapping) {
+    if (node == null || node.maxEnd <= start) {
+      return;
+    }
+    collectOverlapping(node.left, start, end, overlapping);
+    if (node.start < end && node.end > start) {
+      overlapping.add(new Interval(node.start, node.end, node.id));
+    }
+    if (node.start < end) {
+      collectOverlapping(node.right, start, end, overlapping);
+    }
+  }
+
+  private Node insert(Node node, Node added) {
+    if (node == null) {
+      return added;
+    }
+    if (compare(added, node) < 0) {
+      node.left = insert(node.left, added);
+    } else {
+      node.right = insert(node.right, added);
+    }
+    return rebalance(node);
+  }
+
+  private Node remove(Node node, Node removed) {
+    if (node == null) {
+      return null;
+    }
+    int comparison = compare(removed, node);
+    if (comparison < 0) {
+      node.left = remove(node.left, removed);
+    } else if (comparison > 0) {
+      node.right = remove(node.right, removed);
+    } else {
+      size--;
+      if (node.left == null) {
+        return node.right;
+      }
+      if (node.right == null) {
+        return node.left;
+      }
+      Node successor = node.right;
+      while (successor.left != null) {
+        successor = successor.left;
+      }
+      node.right = removeMin(node.right);
+      successor.left = node.left;
+      successor.right = node.right;
+      return rebalance(successor);
+    }
+    return rebalance(node);
+  }
+
+  private Node removeMin(Node node) {
+    if (node.left == null) {
+      return node.right;
+    }
+    node.left = removeMin(node.left);
+    return rebalance(node);
+  }
+
+  private Node rebalance(Node node) {
+    update(node);
+    int balance = height(node.left) - height(node.right);
+    if (balance > 1) {
+      if (height(node.left.left) < height(node.left.right)) {
+        node.left = rotateLeft(node.left);
+      }
+      return rotateRight(node);
+    }
+    if (balance < -1) {
+      if (height(node.right.right) < height(node.right.left)) {
+        node.right = rotateRight(node.right);
+      }
+      return rotateLeft(node);
+    }
+    return node;
+  }
+
+  private Node rotateLeft(Node node) {
+    Node pivot = node.right;
+    node.right = pivot.left;
+    pivot.left = node;
+    update(node);
+    update(pivot);
+    return pivot;
+  }
+
+  private Node rotateRight(Node node) {
+    Node pivot = node.left;
+    node.left = pivot.right;
+    pivot.right = node;
+    update(node);
+    update(pivot);
+    return pivot;
+  }
+
+  private static void update(Node node) {
+    node.height = 1 + Math.max(height(node.left), height(node.right));
+    node.maxEnd = Math.max(node.end, Math.max(maxEnd(node.left), maxEnd(node.right)));
+  }
+
+  private static int height(Node node) {
+    return node == null ? 0 : node.height;
+  }
+
+  private static long maxEnd(Node node) {
+    return node == null ? Long.MIN_VALUE : node.maxEnd;
+  }
+
+  private static int compare(Node first, Node second) {
+    int comparison = Long.compare(first.start, second.start);
+    if (comparison == 0) {
+      comparison = Long.compare(first.end, second.end);
+    }
+    return comparison == 0 ? Integer.compare(first.id, second.id) : comparison;
+  }
+
+  @Getter
+  @RequiredArgsConstructor
+  public static class Interval {
+
+    private final long start;
+    private final long end;
+    private final int id;
+  }
+
+  private static class Node {
+
+    private final long start;
+    private final long end;
+    private final int id;
+    private long maxEnd;
+    private int height = 1;
+    private Node left;
+    private Node right;
+
+    private Node(long start, long end, int id) {
+      this.start = start;
+      this.end = end;
+      this.id = id;
+      this.maxEnd = end;
+    }
+  }
+}
@@ -0,0 +1,176 @@
+package com.prime.rushhour.schedule;
+
+import com.prime.rushhour.exception.BookingUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Synchronization;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.SortedSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cluster-wide booking lock built on MySQL named locks. The locks are taken on the booking
+ * transaction's own connection, so a booking never needs a second pooled connection, and they are
+ * released when the Hibernate transaction completes, before that connection goes back to the pool.
+ *
+ * <p>Contenders within this instance first queue on a fixed set of local lock stripes, so only one
+ * of them at a time waits inside {@code GET_LOCK}. On virtual threads they park on the stripe
+ * instead of being pinned to a carrier by the driver's monitors.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(
+    name = "app.booking.lock.type",
+    havingValue = "mysql",
+    matchIfMissing = true)
+public class MySqlBookingLock implements BookingLock {
+
+  private static final int LOCAL_LOCK_STRIPES = 256;
+
+  private final EntityManager entityManager;
+  private final Timer waitTimer;
+  private final Counter timeouts;
+  private final ReentrantLock[] localLocks = new ReentrantLock[LOCAL_LOCK_STRIPES];
+
+  @Value("${app.booking.lock.timeout-ms}")
+  private long timeoutMs;
+
+  public MySqlBookingLock(EntityManager entityManager, MeterRegistry meterRegistry) {
+    this.entityManager = entityManager;
+    this.waitTimer = Timer.builder("booking.lock.wait").tag("type", "mysql").register(meterRegistry);
+    this.timeouts =
+        Counter.builder("booking.lock.timeouts").tag("type", "mysql").register(meterRegistry);
+    for (int stripe = 0; stripe < LOCAL_LOCK_STRIPES; stripe++) {
+      localLocks[stripe] = new ReentrantLock();
+    }
+  }
+
+  @Override
+  public void acquire(Collection<BookedAppointment> appointments) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      throw new IllegalStateException("Booking locks can only be acquired within a transaction");
+    }
+
+    long startTime = System.nanoTime();
+    long deadline = startTime + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+    SortedSet<String> keys = BookingLock.keysOf(appointments);
+    Deque<ReentrantLock> acquired = new ArrayDeque<>();
+    Session session = entityManager.unwrap(Session.class);
+    Connection connection = null;
+
+    try {
+      for (int stripe : BookingLock.stripesOf(keys, LOCAL_LOCK_STRIPES)) {
+        ReentrantLock lock = localLocks[stripe];
+        if (!lock.tryLock(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+          throw timeout();
+        }
+        acquired.push(lock);
+      }
+
+      connection = session.doReturningWork(transactionConnection -> transactionConnection);
+      for (String key : keys) {
+        if (!getLock(connection, key, Math.max(0, deadline - System.nanoTime()))) {
+          throw timeout();
+        }
+      }
+    } catch (InterruptedException exc) {
+      Thread.currentThread().interrupt();
+      release(acquired);
+      throw new BookingUnavailableException("Booking was interrupted.");
+    } catch (SQLException exc) {
+      log.error("Could not acquire booking lock", exc);
+      release(connection);
+      release(acquired);
+      throw new BookingUnavailableException("Booking is temporarily unavailable.");
+    } catch (RuntimeException exc) {
+      release(connection);
+      release(acquired);
+      throw exc;
+    } finally {
+      waitTimer.record(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
+    }
+
+    // Spring's own synchronizations run only after Hibernate has released the connection.
+    Connection lockConnection = connection;
+    session
+        .getTransaction()
+        .registerSynchronization(
+            new Synchronization() {
+              @Override
+              public void beforeCompletion() {}
+
+              @Override
+              public void afterCompletion(int status) {
+                release(lockConnection);
+                release(acquired);
+              }
+            });
+  }
+
+  private BookingUnavailableException timeout() {
+    timeouts.increment();
+    return new BookingUnavailableException(
+        "Timed out waiting for a concurrent booking. Please try again.");
+  }
+
+  @Override
+  public boolean isClusterWide() {
+    return true;
+  }
+
+  private boolean getLock(Connection connection, String key, long timeoutNanos)
+      throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+      statement.setString(1, key);
+      statement.setDouble(2, timeoutNanos / 1e9);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        resultSet.next();
+        int result = resultSet.getInt(1);
+        if (resultSet.wasNull()) {
+          throw new SQLException("GET_LOCK failed for " + key);
+        }
+        return result == 1;
+      }
+    }
+  }
+
+  private void release(Deque<ReentrantLock> acquired) {
+    while (!acquired.isEmpty()) {
+      acquired.pop().unlock();
+    }
+  }
+
+  private void release(Connection connection) {
+    if (connection == null) {
+      return;
+    }
+
+    try (PreparedStatement statement = connection.prepareStatement("SELECT RELEASE_ALL_LOCKS()")) {
+      statement.executeQuery().close();
+    } catch (SQLException exc) {
+      // A pooled connection must never go back to the pool while still holding named locks.
+      log.error("Could not release booking locks, discarding connection", exc);
+      try {
+        connection.abort(Runnable::run);
+      } catch (SQLException abortExc) {
+        log.error("Could not abort booking lock connection", abortExc);
+      }
+    }
+  }
+}
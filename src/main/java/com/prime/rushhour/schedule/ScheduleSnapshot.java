@@ -0,0 +1,82 @@
+package com.prime.rushhour.schedule;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.prime.rushhour.schedule.BookedAppointment.toEpochSecond;
+
+public class ScheduleSnapshot {
+
+  private final Map<Integer, BookedAppointment> appointments = new HashMap<>();
+  private final Map<Integer, IntervalTree> userIntervals = new HashMap<>();
+  private final Map<Integer, IntervalTree> activityIntervals = new HashMap<>();
+
+  public Map<Integer, BookedAppointment> getAppointments() {
+    return appointments;
+  }
+
+  public boolean hasOverlap(BookedAppointment candidate, int excludedId) {
+    IntervalTree userTree = userIntervals.get(candidate.getUserId());
+    if (userTree != null
+        && userTree.hasOverlap(
+            toEpochSecond(candidate.getStartDate()),
+            toEpochSecond(candidate.getEndDate()),
+            excludedId)) {
+      return true;
+    }
+
+    for (BookedActivity activity : candidate.getActivities()) {
+      IntervalTree activityTree = activityIntervals.get(activity.getActivityId());
+      if (activityTree != null
+          && activityTree.maxConcurrency(
+                  toEpochSecond(activity.getStartDate()),
+                  toEpochSecond(activity.getEndDate()),
+                  excludedId)
+              >= activity.getCapacity()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public void add(BookedAppointment appointment) {
+    appointments.put(appointment.getId(), appointment);
+    userIntervals
+        .computeIfAbsent(appointment.getUserId(), id -> new IntervalTree())
+        .insert(
+            toEpochSecond(appointment.getStartDate()),
+            toEpochSecond(appointment.getEndDate()),
+            appointment.getId());
+
+    for (BookedActivity activity : appointment.getActivities()) {
+      activityIntervals
+          .computeIfAbsent(activity.getActivityId(), id -> new IntervalTree())
+          .insert(
+              toEpochSecond(activity.getStartDate()),
+              toEpochSecond(activity.getEndDate()),
+              appointment.getId());
+    }
+  }
+
+  public void remove(int appointmentId) {
+    BookedAppointment appointment = appointments.remove(appointmentId);
+    if (appointment == null) {
+      return;
+    }
+    userIntervals
+        .get(appointment.getUserId())
+        .remove(
+            toEpochSecond(appointment.getStartDate()),
+            toEpochSecond(appointment.getEndDate()),
+            appointmentId);
+
+    for (BookedActivity activity : appointment.getActivities()) {
+      activityIntervals
+          .get(activity.getActivityId())
+          .remove(
+              toEpochSecond(activity.getStartDate()),
+              toEpochSecond(activity.getEndDate()),
+              appointmentId);
+    }
+  }
+}
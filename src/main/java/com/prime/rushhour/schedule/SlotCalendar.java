@@ -0,0 +1,105 @@
+package com.prime.rushhour.schedule;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class SlotCalendar {
+
+  private static final long SECONDS_PER_DAY = 24 * 60 * 60;
+
+  private final long slotSeconds;
+  private final int slotsPerDay;
+  private final Map<Integer, Map<LocalDate, SlotCounter>> activityDays = new HashMap<>();
+
+  public SlotCalendar(int slotMinutes) {
+    this.slotSeconds = slotMinutes * 60L;
+    this.slotsPerDay = (int) (SECONDS_PER_DAY / slotSeconds);
+  }
+
+  public void add(BookedAppointment appointment) {
+    for (BookedActivity activity : appointment.getActivities()) {
+      forEachDay(activity, (counter, fromSlot, toSlot) -> counter.add(fromSlot, toSlot));
+    }
+  }
+
+  public void remove(BookedAppointment appointment) {
+    for (BookedActivity activity : appointment.getActivities()) {
+      forEachDay(activity, (counter, fromSlot, toSlot) -> counter.remove(fromSlot, toSlot));
+      activityDays.get(activity.getActivityId()).values().removeIf(SlotCounter::isEmpty);
+    }
+  }
+
+  public List<TimeInterval> findFreeIntervals(
+      int activityId, int capacity, LocalDate from, LocalDate to) {
+    Map<LocalDate, SlotCounter> days = activityDays.getOrDefault(activityId, Map.of());
+    List<TimeInterval> freeIntervals = new ArrayList<>();
+    LocalDateTime freeStart = null;
+    LocalDateTime freeEnd = null;
+
+    for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+      SlotCounter counter = days.get(day);
+      RoaringBitmap busy = counter == null ? new RoaringBitmap() : counter.slotsWithAtLeast(capacity);
+
+      int slot = 0;
+      while (slot < slotsPerDay) {
+        int fromSlot = (int) busy.nextAbsentValue(slot);
+        if (fromSlot >= slotsPerDay) {
+          break;
+        }
+        long nextBusy = busy.nextValue(fromSlot);
+        int toSlot = nextBusy < 0 || nextBusy > slotsPerDay ? slotsPerDay : (int) nextBusy;
+
+        LocalDateTime start = slotStart(day, fromSlot);
+        if (!start.equals(freeEnd)) {
+          if (freeStart != null) {
+            freeIntervals.add(new TimeInterval(freeStart, freeEnd));
+          }
+          freeStart = start;
+        }
+        freeEnd = slotStart(day, toSlot);
+        slot = toSlot;
+      }
+    }
+
+    if (freeStart != null) {
+      freeIntervals.add(new TimeInterval(freeStart, freeEnd));
+    }
+    return freeIntervals;
+  }
+
+  private LocalDateTime slotStart(LocalDate day, int slot) {
+    return day.atStartOfDay().plusSeconds(slot * slotSeconds);
+  }
+
+  private void forEachDay(BookedActivity activity, SlotRangeConsumer consumer) {
+    LocalDateTime start = activity.getStartDate();
+    LocalDateTime end = activity.getEndDate();
+    Map<LocalDate, SlotCounter> days =
+        activityDays.computeIfAbsent(activity.getActivityId(), id -> new HashMap<>());
+
+    for (LocalDate day = start.toLocalDate();
+        day.atStartOfDay().isBefore(end);
+        day = day.plusDays(1)) {
+      LocalDateTime dayStart = day.atStartOfDay();
+      long fromSecond = Math.max(0, ChronoUnit.SECONDS.between(dayStart, start));
+      long toSecond = Math.min(SECONDS_PER_DAY, ChronoUnit.SECONDS.between(dayStart, end));
+
+      int fromSlot = (int) (fromSecond / slotSeconds);
+      int toSlot = (int) ((toSecond + slotSeconds - 1) / slotSeconds);
+      if (fromSlot < toSlot) {
+        consumer.accept(days.computeIfAbsent(day, d -> new SlotCounter()), fromSlot, toSlot);
+      }
+    }
+  }
+
+  private interface SlotRangeConsumer {
+    void accept(SlotCounter counter, int fromSlot, int toSlot);
+  }
+}
@@ -0,0 +1,54 @@
+package com.prime.rushhour.schedule;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Counts bookings per slot of a single day as nested bitmaps: a slot is in level {@code n} when at
+ * least {@code n + 1} bookings cover it.
+ */
+public class SlotCounter {
+
+  private final List<RoaringBitmap> levels = new ArrayList<>();
+
+  public void add(int fromSlot, int toSlot) {
+    RoaringBitmap remaining = RoaringBitmap.bitmapOf();
+    remaining.add((long) fromSlot, (long) toSlot);
+
+    for (int level = 0; !remaining.isEmpty(); level++) {
+      if (level == levels.size()) {
+        levels.add(new RoaringBitmap());
+      }
+      RoaringBitmap bitmap = levels.get(level);
+      RoaringBitmap alreadyCounted = RoaringBitmap.and(remaining, bitmap);
+      bitmap.or(RoaringBitmap.andNot(remaining, bitmap));
+      remaining = alreadyCounted;
+    }
+  }
+
+  public void remove(int fromSlot, int toSlot) {
+    RoaringBitmap remaining = RoaringBitmap.bitmapOf();
+    remaining.add((long) fromSlot, (long) toSlot);
+
+    for (int level = levels.size() - 1; level >= 0 && !remaining.isEmpty(); level--) {
+      RoaringBitmap bitmap = levels.get(level);
+      RoaringBitmap counted = RoaringBitmap.and(remaining, bitmap);
+      bitmap.andNot(counted);
+      remaining.andNot(counted);
+    }
+
+    while (!levels.isEmpty() && levels.get(levels.size() - 1).isEmpty()) {
+      levels.remove(levels.size() - 1);
+    }
+  }
+
+  public boolean isEmpty() {
+    return levels.isEmpty();
+  }
+
+  public RoaringBitmap slotsWithAtLeast(int bookings) {
+    return bookings <= levels.size() ? levels.get(bookings - 1) : new RoaringBitmap();
+  }
+}
@@ -0,0 +1,18 @@
+package com.prime.rushhour.schedule;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Getter
+@EqualsAndHashCode
+@RequiredArgsConstructor
+public class Suggestion {
+
+  private final LocalDateTime startDate;
+  private final LocalDateTime endDate;
+  private final List<Integer> activityIds;
+}
@@ -0,0 +1,16 @@
+package com.prime.rushhour.schedule;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Getter
+@EqualsAndHashCode
+@RequiredArgsConstructor
+public class TimeInterval {
+
+  private final LocalDateTime startDate;
+  private final LocalDateTime endDate;
+}
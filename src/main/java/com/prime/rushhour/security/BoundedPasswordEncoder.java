@@ -0,0 +1,96 @@
+package com.prime.rushhour.security;
+
+import com.prime.rushhour.exception.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs the delegate's hashing on a small dedicated pool, so a burst of sign-ins can occupy at most
+ * {@code threads} cores. Once the queue is full further calls fail straight away with {@link
+ * PasswordHashingUnavailableException} instead of piling up on request threads.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+  private final PasswordEncoder delegate;
+  private final ThreadPoolExecutor executor;
+  private final Timer encodeTimer;
+  private final Timer matchesTimer;
+  private final Counter rejections;
+
+  public BoundedPasswordEncoder(
+      PasswordEncoder delegate, int threads, int queueCapacity, MeterRegistry meterRegistry) {
+    this.delegate = delegate;
+    this.executor =
+        new ThreadPoolExecutor(
+            threads,
+            threads,
+            0,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            new CustomizableThreadFactory("password-hashing-"),
+            new ThreadPoolExecutor.AbortPolicy());
+    this.encodeTimer =
+        Timer.builder("password.hashing").tag("operation", "encode").register(meterRegistry);
+    this.matchesTimer =
+        Timer.builder("password.hashing").tag("operation", "matches").register(meterRegistry);
+    this.rejections = Counter.builder("password.hashing.rejected").register(meterRegistry);
+    Gauge.builder("password.hashing.queue.depth", executor, pool -> pool.getQueue().size())
+        .register(meterRegistry);
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return run(encodeTimer, () -> delegate.encode(rawPassword));
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    return run(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+  }
+
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    return delegate.upgradeEncoding(encodedPassword);
+  }
+
+  private <T> T run(Timer timer, Supplier<T> task) {
+    Future<T> future;
+    try {
+      future = executor.submit(() -> timer.record(task));
+    } catch (RejectedExecutionException exc) {
+      rejections.increment();
+      throw new PasswordHashingUnavailableException(
+          "Too many password checks in progress, please retry shortly");
+    }
+
+    try {
+      return future.get();
+    } catch (InterruptedException exc) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while hashing a password", exc);
+    } catch (ExecutionException exc) {
+      if (exc.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) exc.getCause();
+      }
+      throw new IllegalStateException(exc.getCause());
+    }
+  }
+
+  @Override
+  public void close() {
+    executor.shutdown();
+  }
+}
@@ -2,6 +2,7 @@ package com.prime.rushhour.security;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.prime.rushhour.entity.User;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -16,6 +17,7 @@ import java.util.List;
 public class CustomUserDetails implements UserDetails {
 
   @Id
+  @Getter
   private final int id;
 
   private final String email;
@@ -25,11 +27,15 @@ public class CustomUserDetails implements UserDetails {
 
   private final List<GrantedAuthority> authorities;
 
+  @Getter
+  private final int tokenVersion;
+
   public static CustomUserDetails create(User user) {
     List<GrantedAuthority> authorities = new ArrayList<>();
     authorities.add(new SimpleGrantedAuthority(user.getRole().getName()));
 
-    return new CustomUserDetails(user.getId(), user.getEmail(), user.getPassword(), authorities);
+    return new CustomUserDetails(
+        user.getId(), user.getEmail(), user.getPassword(), authorities, user.getTokenVersion());
   }
 
   @Override
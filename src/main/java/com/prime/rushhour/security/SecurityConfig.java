@@ -1,6 +1,7 @@
 package com.prime.rushhour.security;
 
 import com.prime.rushhour.security.jwt.filter.JwtRequestFilter;
+import com.prime.rushhour.security.ratelimit.RateLimitFilter;
 import com.prime.rushhour.security.service.CustomUserDetailsService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
@@ -20,6 +21,7 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
   private final CustomUserDetailsService customUserDetailsService;
   private final PasswordEncoder passwordEncoder;
   private final JwtRequestFilter jwtRequestFilter;
+  private final RateLimitFilter rateLimitFilter;
   private static final String ADMIN = "ADMIN";
   private static final String USER = "USER";
 
@@ -56,7 +58,13 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
           .permitAll()
         .antMatchers("/api/v1/activity/**", "/api/v1/activities")
           .hasRole(ADMIN)
-        .antMatchers("/api/v1/appointment/**", "/api/v1/appointments")
+        .antMatchers("/api/v1/appointments/export", "/api/v1/reports/**")
+          .hasRole(ADMIN)
+        .antMatchers(
+            "/api/v1/appointment/**",
+            "/api/v1/appointments",
+            "/api/v1/appointments/**",
+            "/api/v1/availability")
           .hasAnyRole(USER, ADMIN)
         .antMatchers("/actuator/**")
           .hasRole(ADMIN)
@@ -64,5 +72,6 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
           .authenticated();
 
     http.addFilterBefore(jwtRequestFilter, UsernamePasswordAuthenticationFilter.class);
+    http.addFilterBefore(rateLimitFilter, JwtRequestFilter.class);
   }
 }
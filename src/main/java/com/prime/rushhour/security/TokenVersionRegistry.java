@@ -0,0 +1,51 @@
+package com.prime.rushhour.security;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.prime.rushhour.event.UserChangedEvent;
+import com.prime.rushhour.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.OptionalInt;
+
+/**
+ * Caches each active user's token version so that authenticating a request needs no query. Changes
+ * made on this instance are applied from {@link UserChangedEvent} straight away; other instances
+ * notice them once their entry expires.
+ */
+@Component
+public class TokenVersionRegistry {
+
+  private final LoadingCache<Integer, OptionalInt> versions;
+
+  public TokenVersionRegistry(
+      UserRepository userRepository,
+      @Value("${app.security.token-version.cache-size}") long cacheSize,
+      @Value("${app.security.token-version.ttl-ms}") long ttlMs) {
+    versions =
+        Caffeine.newBuilder()
+            .maximumSize(cacheSize)
+            .expireAfterWrite(Duration.ofMillis(ttlMs))
+            .build(
+                userId ->
+                    userRepository
+                        .findTokenVersionById(userId)
+                        .map(OptionalInt::of)
+                        .orElse(OptionalInt.empty()));
+  }
+
+  public boolean isCurrent(int userId, int tokenVersion) {
+    OptionalInt currentVersion = versions.get(userId);
+
+    return currentVersion.isPresent() && currentVersion.getAsInt() == tokenVersion;
+  }
+
+  @EventListener
+  public void onUserChanged(UserChangedEvent event) {
+    // Stored rather than evicted, so a lagging replica cannot reload the old version.
+    versions.put(event.getUserId(), event.getTokenVersion());
+  }
+}
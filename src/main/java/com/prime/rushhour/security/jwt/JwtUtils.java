@@ -1,51 +1,115 @@
 package com.prime.rushhour.security.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.prime.rushhour.security.CustomUserDetails;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.SignatureAlgorithm;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Component
 public class JwtUtils {
 
-  @Value("${app.security.jwt-secret}")
-  private String secretKey;
+  static final String USER_ID_CLAIM = "uid";
+  static final String ROLES_CLAIM = "roles";
+  static final String TOKEN_VERSION_CLAIM = "ver";
 
-  @Value("${app.security.jwt-expiration-in-ms}")
-  private long expirationInMs;
+  private final String secretKey;
+  private final long expirationInMs;
 
+  /** Verified tokens by SHA-256 digest, each kept until the token itself expires. */
+  private final Cache<String, VerifiedToken> verifiedTokens;
 
-  public String getUsernameFromToken(String token) {
-    return getClaimFromToken(token, Claims::getSubject);
-  }
+  private final boolean cacheEnabled;
 
-  public Date getExpirationDateFromToken(String token) {
-    return getClaimFromToken(token, Claims::getExpiration);
+  public JwtUtils(
+      @Value("${app.security.jwt-secret}") String secretKey,
+      @Value("${app.security.jwt-expiration-in-ms}") long expirationInMs,
+      @Value("${app.security.verified-token-cache-size}") long verifiedTokenCacheSize) {
+    this.secretKey = secretKey;
+    this.expirationInMs = expirationInMs;
+    this.cacheEnabled = verifiedTokenCacheSize > 0;
+    this.verifiedTokens =
+        Caffeine.newBuilder()
+            .maximumSize(verifiedTokenCacheSize)
+            .expireAfter(new UntilTokenExpiry())
+            .build();
   }
 
-  public <T> T getClaimFromToken(String token, Function<Claims, T> claimsResolver) {
-    final Claims claims = getAllClaimsFromToken(token);
-    return claimsResolver.apply(claims);
-  }
+  /**
+   * Checks the signature and expiry once and returns the claims. Tokens seen recently are answered
+   * from the cache. Throws a {@code JwtException} when the token is expired, tampered with or was
+   * issued without the user claims.
+   */
+  public VerifiedToken verify(String token) {
+    if (!cacheEnabled) {
+      return parse(token);
+    }
+
+    String digest = digest(token);
+    VerifiedToken verifiedToken = verifiedTokens.getIfPresent(digest);
 
-  private Claims getAllClaimsFromToken(String token) {
-    return Jwts.parser().setSigningKey(secretKey).parseClaimsJws(token).getBody();
+    if (verifiedToken == null || verifiedToken.isExpired(Instant.now())) {
+      verifiedToken = parse(token);
+      verifiedTokens.put(digest, verifiedToken);
+    }
+
+    return verifiedToken;
   }
 
-  private boolean isTokenExpired(String token) {
-    final Date expiration = getExpirationDateFromToken(token);
-    return expiration.before(new Date());
+  private VerifiedToken parse(String token) {
+    Claims claims = Jwts.parser().setSigningKey(secretKey).parseClaimsJws(token).getBody();
+    Integer userId = claims.get(USER_ID_CLAIM, Integer.class);
+    Integer tokenVersion = claims.get(TOKEN_VERSION_CLAIM, Integer.class);
+    List<?> roles = claims.get(ROLES_CLAIM, List.class);
+    if (userId == null || tokenVersion == null || roles == null) {
+      throw new MalformedJwtException("Token is missing the user claims");
+    }
+    // Every issued token expires, and the cache keeps entries only until then.
+    if (claims.getExpiration() == null) {
+      throw new MalformedJwtException("Token has no expiration");
+    }
+
+    List<GrantedAuthority> authorities =
+        roles.stream()
+            .map(role -> new SimpleGrantedAuthority(role.toString()))
+            .collect(Collectors.toList());
+
+    return new VerifiedToken(
+        claims.getSubject(),
+        userId,
+        authorities,
+        tokenVersion,
+        claims.getExpiration().toInstant());
   }
 
-  public String generateToken(UserDetails userDetails) {
+  public String generateToken(CustomUserDetails userDetails) {
     Map<String, Object> claims = new HashMap<>();
+    claims.put(USER_ID_CLAIM, userDetails.getId());
+    claims.put(
+        ROLES_CLAIM,
+        userDetails.getAuthorities().stream()
+            .map(GrantedAuthority::getAuthority)
+            .collect(Collectors.toList()));
+    claims.put(TOKEN_VERSION_CLAIM, userDetails.getTokenVersion());
     return createToken(claims, userDetails.getUsername());
   }
 
@@ -59,8 +123,34 @@ public class JwtUtils {
         .compact();
   }
 
-  public boolean validateToken(String token, UserDetails userDetails) {
-    final String username = getUsernameFromToken(token);
-    return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+  private static String digest(String token) {
+    try {
+      return Base64.getEncoder()
+          .encodeToString(
+              MessageDigest.getInstance("SHA-256")
+                  .digest(token.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException exc) {
+      throw new IllegalStateException("SHA-256 is not available", exc);
+    }
+  }
+
+  private static class UntilTokenExpiry implements Expiry<String, VerifiedToken> {
+
+    @Override
+    public long expireAfterCreate(String digest, VerifiedToken token, long currentTime) {
+      return Math.max(0, Duration.between(Instant.now(), token.getExpiresAt()).toNanos());
+    }
+
+    @Override
+    public long expireAfterUpdate(
+        String digest, VerifiedToken token, long currentTime, long currentDuration) {
+      return expireAfterCreate(digest, token, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(
+        String digest, VerifiedToken token, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
   }
 }
@@ -0,0 +1,42 @@
+package com.prime.rushhour.security.jwt;
+
+import com.prime.rushhour.security.CustomUserDetails;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.time.Instant;
+import java.util.List;
+
+/** The claims of a token whose signature and expiry have been checked. */
+@Getter
+@EqualsAndHashCode
+public class VerifiedToken {
+
+  private final String subject;
+  private final int userId;
+  private final List<GrantedAuthority> authorities;
+  private final int tokenVersion;
+  private final Instant expiresAt;
+
+  public VerifiedToken(
+      String subject,
+      int userId,
+      List<GrantedAuthority> authorities,
+      int tokenVersion,
+      Instant expiresAt) {
+    this.subject = subject;
+    this.userId = userId;
+    this.authorities = List.copyOf(authorities);
+    this.tokenVersion = tokenVersion;
+    this.expiresAt = expiresAt;
+  }
+
+  public boolean isExpired(Instant now) {
+    return !expiresAt.isAfter(now);
+  }
+
+  public CustomUserDetails toUserDetails() {
+    return new CustomUserDetails(userId, subject, null, authorities, tokenVersion);
+  }
+}
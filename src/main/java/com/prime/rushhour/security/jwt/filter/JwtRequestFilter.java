@@ -1,11 +1,13 @@
 package com.prime.rushhour.security.jwt.filter;
 
+import com.prime.rushhour.security.CustomUserDetails;
+import com.prime.rushhour.security.TokenVersionRegistry;
 import com.prime.rushhour.security.jwt.JwtUtils;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -16,12 +18,17 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 
+/**
+ * Authenticates requests from the token alone. The user id and authorities are signed claims, and
+ * the token version is checked against {@link TokenVersionRegistry}, so no user is loaded here.
+ */
+@Slf4j
 @Component
 @RequiredArgsConstructor
 public class JwtRequestFilter extends OncePerRequestFilter {
 
-  private final UserDetailsService userDetailsService;
   private final JwtUtils jwtUtils;
+  private final TokenVersionRegistry tokenVersionRegistry;
 
   @Override
   protected void doFilterInternal(
@@ -29,24 +36,24 @@ public class JwtRequestFilter extends OncePerRequestFilter {
       throws ServletException, IOException {
     final String authorizationHeader = request.getHeader("Authorization");
 
-    String email = null;
-    String jwt = null;
-
-    if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-      jwt = authorizationHeader.substring(7);
-      email = jwtUtils.getUsernameFromToken(jwt);
-    }
-
-    if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-      UserDetails userDetails = this.userDetailsService.loadUserByUsername(email);
-
-      if (jwtUtils.validateToken(jwt, userDetails)) {
-        UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken =
-            new UsernamePasswordAuthenticationToken(
-                userDetails, null, userDetails.getAuthorities());
-        usernamePasswordAuthenticationToken.setDetails(
-            new WebAuthenticationDetailsSource().buildDetails(request));
-        SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
+    if (authorizationHeader != null
+        && authorizationHeader.startsWith("Bearer ")
+        && SecurityContextHolder.getContext().getAuthentication() == null) {
+      String jwt = authorizationHeader.substring(7);
+
+      try {
+        CustomUserDetails userDetails = jwtUtils.verify(jwt).toUserDetails();
+
+        if (tokenVersionRegistry.isCurrent(userDetails.getId(), userDetails.getTokenVersion())) {
+          UsernamePasswordAuthenticationToken usernamePasswordAuthenticationToken =
+              new UsernamePasswordAuthenticationToken(
+                  userDetails, null, userDetails.getAuthorities());
+          usernamePasswordAuthenticationToken.setDetails(
+              new WebAuthenticationDetailsSource().buildDetails(request));
+          SecurityContextHolder.getContext().setAuthentication(usernamePasswordAuthenticationToken);
+        }
+      } catch (JwtException exc) {
+        log.debug("Rejected bearer token: {}", exc.getMessage());
       }
     }
     filterChain.doFilter(request, response);
@@ -0,0 +1,77 @@
+package com.prime.rushhour.security.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Keeps each bucket as a single timestamp, the moment it will be full again, so taking a token is
+ * one compare-and-set. A bucket left idle for a whole refill period is full, so evicting it once
+ * idle for longer than the longest period loses nothing.
+ */
+@Component
+@ConditionalOnProperty(name = "app.rate-limit.store", havingValue = "in-memory")
+public class InMemoryRateLimitStore implements RateLimitStore {
+
+  private final Cache<String, AtomicLong> buckets;
+  private final LongSupplier clock;
+
+  @Autowired
+  public InMemoryRateLimitStore(
+      RateLimitProperties properties,
+      @Value("${app.rate-limit.max-buckets}") long maxBuckets,
+      @Value("${app.rate-limit.idle-eviction-ms}") long idleEvictionMs) {
+    this(maxBuckets, idleEvictionMs, System::nanoTime);
+
+    for (RateLimitProperties.Route route : properties.getRoutes()) {
+      if (route.getRefillPeriodMs() > idleEvictionMs) {
+        throw new IllegalStateException(
+            "app.rate-limit.idle-eviction-ms is "
+                + idleEvictionMs
+                + " but "
+                + route.getMethod()
+                + " "
+                + route.getPath()
+                + " refills over "
+                + route.getRefillPeriodMs()
+                + " ms, so its evicted buckets would start full again");
+      }
+    }
+  }
+
+  InMemoryRateLimitStore(long maxBuckets, long idleEvictionMs, LongSupplier clock) {
+    this.buckets =
+        Caffeine.newBuilder()
+            .maximumSize(maxBuckets)
+            .expireAfterAccess(Duration.ofMillis(idleEvictionMs))
+            .build();
+    this.clock = clock;
+  }
+
+  @Override
+  public long tryConsume(String key, int capacity, long refillPeriodNanos) {
+    long tokenNanos = refillPeriodNanos / capacity;
+    long now = clock.getAsLong();
+    AtomicLong fullAt = buckets.get(key, k -> new AtomicLong(now));
+
+    while (true) {
+      long current = fullAt.get();
+      long next = Math.max(current, now) + tokenNanos;
+      long overdraft = next - now - refillPeriodNanos;
+
+      if (overdraft > 0) {
+        return overdraft;
+      }
+      if (fullAt.compareAndSet(current, next)) {
+        return 0;
+      }
+    }
+  }
+}
@@ -0,0 +1,110 @@
+package com.prime.rushhour.security.ratelimit;
+
+import com.prime.rushhour.security.jwt.JwtUtils;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Limits the configured routes per user, or per remote address for requests without a valid
+ * token. Behind a proxy the remote address is only the client's when forwarded headers are
+ * applied ({@code server.forward-headers-strategy}). It runs before {@code JwtRequestFilter}; the
+ * bearer token is verified through {@link JwtUtils}, whose cache the authenticating filter then
+ * hits.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+  private final RateLimitStore rateLimitStore;
+  private final JwtUtils jwtUtils;
+  private final boolean enabled;
+  private final List<LimitedRoute> routes;
+
+  public RateLimitFilter(
+      RateLimitProperties properties,
+      RateLimitStore rateLimitStore,
+      JwtUtils jwtUtils,
+      MeterRegistry meterRegistry) {
+    this.rateLimitStore = rateLimitStore;
+    this.jwtUtils = jwtUtils;
+    this.enabled = properties.isEnabled();
+    this.routes =
+        properties.getRoutes().stream()
+            .map(route -> new LimitedRoute(route, meterRegistry))
+            .collect(Collectors.toList());
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !enabled;
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    for (LimitedRoute route : routes) {
+      if (!route.matcher.matches(request)) {
+        continue;
+      }
+
+      long waitNanos =
+          rateLimitStore.tryConsume(
+              route.name + "|" + clientKey(request), route.capacity, route.refillPeriodNanos);
+      if (waitNanos > 0) {
+        route.rejections.increment();
+        long retryAfterSeconds =
+            TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.sendError(HttpStatus.TOO_MANY_REQUESTS.value());
+        return;
+      }
+    }
+    filterChain.doFilter(request, response);
+  }
+
+  private String clientKey(HttpServletRequest request) {
+    final String authorizationHeader = request.getHeader("Authorization");
+
+    if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
+      try {
+        return "user:" + jwtUtils.verify(authorizationHeader.substring(7)).getUserId();
+      } catch (JwtException exc) {
+        // Invalid tokens are limited together with everything else from the same address.
+      }
+    }
+    return "ip:" + request.getRemoteAddr();
+  }
+
+  private static class LimitedRoute {
+
+    private final String name;
+    private final AntPathRequestMatcher matcher;
+    private final int capacity;
+    private final long refillPeriodNanos;
+    private final Counter rejections;
+
+    private LimitedRoute(RateLimitProperties.Route route, MeterRegistry meterRegistry) {
+      this.name = route.getMethod() + " " + route.getPath();
+      this.matcher = new AntPathRequestMatcher(route.getPath(), route.getMethod());
+      this.capacity = route.getCapacity();
+      this.refillPeriodNanos = TimeUnit.MILLISECONDS.toNanos(route.getRefillPeriodMs());
+      this.rejections =
+          Counter.builder("rate-limit.rejected").tag("route", name).register(meterRegistry);
+    }
+  }
+}
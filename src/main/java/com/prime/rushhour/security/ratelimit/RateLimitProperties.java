@@ -0,0 +1,29 @@
+package com.prime.rushhour.security.ratelimit;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties("app.rate-limit")
+public class RateLimitProperties {
+
+  private boolean enabled;
+  private List<Route> routes = new ArrayList<>();
+
+  @Getter
+  @Setter
+  public static class Route {
+
+    private String method;
+    private String path;
+    private int capacity;
+    private long refillPeriodMs;
+  }
+}
@@ -0,0 +1,16 @@
+package com.prime.rushhour.security.ratelimit;
+
+/**
+ * Holds the token buckets behind {@link RateLimitFilter}. The in-memory store limits each instance
+ * on its own; a shared implementation makes the limits apply across the cluster.
+ */
+public interface RateLimitStore {
+
+  /**
+   * Takes one token from the bucket under {@code key}, which holds at most {@code capacity} tokens
+   * and refills completely over {@code refillPeriodNanos}.
+   *
+   * @return 0 when a token was taken, otherwise the nanoseconds until one becomes available
+   */
+  long tryConsume(String key, int capacity, long refillPeriodNanos);
+}
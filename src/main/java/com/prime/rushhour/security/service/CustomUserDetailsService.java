@@ -5,6 +5,7 @@ import com.prime.rushhour.security.CustomUserDetails;
 import com.prime.rushhour.service.UserService;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -12,7 +13,7 @@ import org.springframework.stereotype.Service;
 import javax.transaction.Transactional;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
   private final UserService userService;
 
@@ -31,4 +32,20 @@ public class CustomUserDetailsService implements UserDetailsService {
 
     return CustomUserDetails.create(user);
   }
+
+  /** Stores the hash re-encoded at the configured cost after a successful sign-in. */
+  @Override
+  @Transactional
+  public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+    User user =
+        userService
+            .findUserByEmail(userDetails.getUsername())
+            .orElseThrow(
+                () ->
+                    new UsernameNotFoundException(
+                        "User not found with email: " + userDetails.getUsername()));
+    user.setPassword(newPassword);
+
+    return CustomUserDetails.create(user);
+  }
 }
@@ -3,14 +3,20 @@ package com.prime.rushhour.service;
 import com.prime.rushhour.entity.Activity;
 import com.prime.rushhour.exception.ActivityConflictException;
 import com.prime.rushhour.exception.ActivityNotFoundException;
+import com.prime.rushhour.pagination.KeysetPage;
 import com.prime.rushhour.repository.ActivityRepository;
+import com.prime.rushhour.repository.KeysetRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -19,8 +25,13 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class ActivityService {
 
+  public static final String ACTIVITIES_BY_ID = "activitiesById";
+  public static final String ACTIVITIES_BY_NAME = "activitiesByName";
+
   private final ActivityRepository activityRepository;
+  private final KeysetRepository keysetRepository;
 
+  @Cacheable(ACTIVITIES_BY_ID)
   public Optional<Activity> findById(int id) {
     return Optional.of(
         activityRepository
@@ -28,10 +39,24 @@ public class ActivityService {
             .orElseThrow(() -> new ActivityNotFoundException("Activity not found with id " + id)));
   }
 
+  @Transactional(readOnly = true)
+  public Optional<Activity> findWithAppointmentsById(int id) {
+    return Optional.of(
+        activityRepository
+            .findWithAppointmentsById(id)
+            .orElseThrow(() -> new ActivityNotFoundException("Activity not found with id " + id)));
+  }
+
+  public List<Activity> findAllById(Collection<Integer> ids) {
+    return activityRepository.findAllById(ids);
+  }
+
+  @Cacheable(ACTIVITIES_BY_NAME)
   public Optional<Activity> findByName(String name) {
     return activityRepository.findByName(name);
   }
 
+  @CacheEvict(cacheNames = {ACTIVITIES_BY_ID, ACTIVITIES_BY_NAME}, allEntries = true)
   public Optional<Activity> create(Activity activity) {
 
     if (findByName(activity.getName()).isPresent()) {
@@ -41,6 +66,7 @@ public class ActivityService {
     return Optional.of(activityRepository.save(activity));
   }
 
+  @Transactional(readOnly = true)
   public List<Activity> findAll(int pageNo, int pageSize, String sortBy) {
     Pageable paging = PageRequest.of(pageNo, pageSize, Sort.by(sortBy));
 
@@ -53,12 +79,20 @@ public class ActivityService {
     }
   }
 
+  @Transactional(readOnly = true)
+  public KeysetPage<Activity> findPage(String sortBy, String cursor, int pageSize) {
+    return keysetRepository.findPage(Activity.class, sortBy, cursor, pageSize);
+  }
+
+  @CacheEvict(cacheNames = {ACTIVITIES_BY_ID, ACTIVITIES_BY_NAME}, allEntries = true)
   public void delete(int id) {
     findById(id);
     activityRepository.deleteById(id);
   }
 
-  public Optional<Activity> update(Activity activity) {
+  /** Updates the activity, keeping its current capacity when {@code capacity} is null. */
+  @CacheEvict(cacheNames = {ACTIVITIES_BY_ID, ACTIVITIES_BY_NAME}, allEntries = true)
+  public Optional<Activity> update(Activity activity, Integer capacity) {
     Optional<Activity> foundActivity = findById(activity.getId());
 
     checkIfNameIsTaken(activity);
@@ -68,6 +102,9 @@ public class ActivityService {
     currentActivity.setName(activity.getName());
     currentActivity.setDuration(activity.getDuration());
     currentActivity.setPrice(activity.getPrice());
+    if (capacity != null) {
+      currentActivity.setCapacity(capacity);
+    }
 
     return Optional.of(activityRepository.save(currentActivity));
   }
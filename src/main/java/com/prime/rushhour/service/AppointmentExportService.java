@@ -0,0 +1,221 @@
+package com.prime.rushhour.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.hibernate.query.Query;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+/**
+ * Streams appointments with their activity segments from a forward-only cursor. Rows are read as
+ * scalars so nothing accumulates in the persistence context, and each appointment is written as
+ * soon as its last segment has been read.
+ */
+@Service
+@RequiredArgsConstructor
+public class AppointmentExportService {
+
+  private final EntityManager entityManager;
+  private final ObjectMapper objectMapper;
+
+  @Value("${app.export.fetch-size}")
+  private int fetchSize;
+
+  @Transactional(readOnly = true)
+  public void export(
+      ExportFormat format,
+      LocalDateTime from,
+      LocalDateTime to,
+      Integer activityId,
+      OutputStream outputStream)
+      throws IOException {
+
+    try (ScrollableResults rows = scroll(from, to, activityId);
+        RecordWriter writer =
+            format == ExportFormat.CSV
+                ? new CsvRecordWriter(outputStream)
+                : new NdjsonRecordWriter(
+                    objectMapper
+                        .getFactory()
+                        .createGenerator(outputStream)
+                        .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET))) {
+
+      int currentId = 0;
+      while (rows.next()) {
+        Object[] row = rows.get();
+        int appointmentId = (Integer) row[0];
+        if (appointmentId != currentId) {
+          if (currentId != 0) {
+            writer.endAppointment();
+          }
+          writer.startAppointment(
+              appointmentId, (Integer) row[1], (LocalDateTime) row[2], (LocalDateTime) row[3]);
+          currentId = appointmentId;
+        }
+        writer.activity((Integer) row[4], (LocalDateTime) row[5], (LocalDateTime) row[6]);
+      }
+      if (currentId != 0) {
+        writer.endAppointment();
+      }
+    }
+  }
+
+  private ScrollableResults scroll(LocalDateTime from, LocalDateTime to, Integer activityId) {
+    StringBuilder hql =
+        new StringBuilder(
+            "select app.id, app.user.id, app.startDate, app.endDate, "
+                + "actApp.activity.id, actApp.startDate, actApp.endDate "
+                + "from Appointment app join app.activityAppointments actApp where 1 = 1");
+    if (from != null) {
+      hql.append(" and app.endDate > :from");
+    }
+    if (to != null) {
+      hql.append(" and app.startDate < :to");
+    }
+    if (activityId != null) {
+      hql.append(
+          " and exists (select filter.id from ActivityAppointment filter"
+              + " where filter.appointment = app and filter.activity.id = :activityId)");
+    }
+    hql.append(" order by app.id, actApp.startDate");
+
+    Query<Object[]> query =
+        entityManager.unwrap(Session.class).createQuery(hql.toString(), Object[].class);
+    if (from != null) {
+      query.setParameter("from", from);
+    }
+    if (to != null) {
+      query.setParameter("to", to);
+    }
+    if (activityId != null) {
+      query.setParameter("activityId", activityId);
+    }
+
+    return query.setReadOnly(true).setFetchSize(fetchSize).scroll(ScrollMode.FORWARD_ONLY);
+  }
+
+  @Getter
+  @RequiredArgsConstructor
+  public enum ExportFormat {
+    NDJSON("application/x-ndjson"),
+    CSV("text/csv");
+
+    private final String contentType;
+  }
+
+  private interface RecordWriter extends AutoCloseable {
+
+    void startAppointment(int id, int userId, LocalDateTime startDate, LocalDateTime endDate)
+        throws IOException;
+
+    void activity(int activityId, LocalDateTime startDate, LocalDateTime endDate)
+        throws IOException;
+
+    void endAppointment() throws IOException;
+
+    @Override
+    void close() throws IOException;
+  }
+
+  @RequiredArgsConstructor
+  private static class NdjsonRecordWriter implements RecordWriter {
+
+    private final JsonGenerator generator;
+
+    @Override
+    public void startAppointment(
+        int id, int userId, LocalDateTime startDate, LocalDateTime endDate) throws IOException {
+      generator.writeStartObject();
+      generator.writeNumberField("id", id);
+      generator.writeNumberField("userId", userId);
+      generator.writeObjectField("startDate", startDate);
+      generator.writeObjectField("endDate", endDate);
+      generator.writeArrayFieldStart("activities");
+    }
+
+    @Override
+    public void activity(int activityId, LocalDateTime startDate, LocalDateTime endDate)
+        throws IOException {
+      generator.writeStartObject();
+      generator.writeNumberField("id", activityId);
+      generator.writeObjectField("startDate", startDate);
+      generator.writeObjectField("endDate", endDate);
+      generator.writeEndObject();
+    }
+
+    @Override
+    public void endAppointment() throws IOException {
+      generator.writeEndArray();
+      generator.writeEndObject();
+      generator.writeRaw('\n');
+    }
+
+    @Override
+    public void close() throws IOException {
+      generator.close();
+    }
+  }
+
+  private static class CsvRecordWriter implements RecordWriter {
+
+    private final Writer writer;
+    private int id;
+    private int userId;
+    private LocalDateTime startDate;
+    private LocalDateTime endDate;
+
+    CsvRecordWriter(OutputStream outputStream) throws IOException {
+      writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+      writer.write(
+          "appointment_id,user_id,start_date,end_date,"
+              + "activity_id,activity_start_date,activity_end_date\n");
+    }
+
+    @Override
+    public void startAppointment(
+        int id, int userId, LocalDateTime startDate, LocalDateTime endDate) {
+      this.id = id;
+      this.userId = userId;
+      this.startDate = startDate;
+      this.endDate = endDate;
+    }
+
+    @Override
+    public void activity(int activityId, LocalDateTime startDate, LocalDateTime endDate)
+        throws IOException {
+      writer.write(
+          String.join(
+              ",",
+              String.valueOf(id),
+              String.valueOf(userId),
+              this.startDate.toString(),
+              this.endDate.toString(),
+              String.valueOf(activityId),
+              startDate.toString(),
+              endDate.toString()));
+      writer.write('\n');
+    }
+
+    @Override
+    public void endAppointment() {}
+
+    @Override
+    public void close() throws IOException {
+      writer.flush();
+    }
+  }
+}
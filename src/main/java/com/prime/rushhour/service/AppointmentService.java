@@ -3,12 +3,24 @@ package com.prime.rushhour.service;
 import com.prime.rushhour.entity.ActivityAppointment;
 import com.prime.rushhour.entity.Appointment;
 import com.prime.rushhour.entity.User;
+import com.prime.rushhour.event.AppointmentDeletedEvent;
+import com.prime.rushhour.event.AppointmentSavedEvent;
 import com.prime.rushhour.exception.AppointmentNotFoundException;
 import com.prime.rushhour.exception.OverlappingAppointmentsException;
 import com.prime.rushhour.exception.UnauthorizedActionException;
 import com.prime.rushhour.exception.UserNotFoundException;
+import com.prime.rushhour.pagination.KeysetPage;
 import com.prime.rushhour.repository.AppointmentRepository;
+import com.prime.rushhour.repository.KeysetRepository;
+import com.prime.rushhour.schedule.AppointmentOverlapIndex;
+import com.prime.rushhour.schedule.BookedAppointment;
+import com.prime.rushhour.schedule.BookingEngine;
+import com.prime.rushhour.schedule.BookingLock;
+import com.prime.rushhour.schedule.BookingTransactions;
+import com.prime.rushhour.schedule.HourlyUsage;
+import com.prime.rushhour.schedule.ScheduleSnapshot;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -16,14 +28,18 @@ import org.springframework.data.domain.Sort;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import javax.servlet.http.HttpServletRequest;
-import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,9 +47,18 @@ import java.util.stream.Collectors;
 public class AppointmentService {
 
   private final AppointmentRepository appointmentRepository;
+  private final KeysetRepository keysetRepository;
   private final UserService userService;
   private final UserDetailsService userDetailsService;
-
+  private final AppointmentOverlapIndex overlapIndex;
+  private final BookingEngine bookingEngine;
+  private final BookingLock bookingLock;
+  private final BookingTransactions bookingTransactions;
+  private final SlotReservationService slotReservationService;
+  private final UtilizationService utilizationService;
+  private final ApplicationEventPublisher eventPublisher;
+
+  @Transactional(readOnly = true)
   public List<Appointment> findAll(int pageNo, int pageSize, String sortBy) {
 
     Pageable paging = PageRequest.of(pageNo, pageSize, Sort.by(sortBy));
@@ -47,6 +72,11 @@ public class AppointmentService {
     }
   }
 
+  @Transactional(readOnly = true)
+  public KeysetPage<Appointment> findPage(String sortBy, String cursor, int pageSize) {
+    return keysetRepository.findPage(Appointment.class, sortBy, cursor, pageSize, "user.role");
+  }
+
   public Optional<Appointment> findById(int id) {
     return Optional.of(
         appointmentRepository
@@ -55,83 +85,252 @@ public class AppointmentService {
                 () -> new AppointmentNotFoundException("Appointment not found with id " + id)));
   }
 
+  @Transactional(readOnly = true)
+  public Optional<Appointment> findWithActivitiesById(int id) {
+    return Optional.of(
+        appointmentRepository
+            .findWithActivitiesById(id)
+            .orElseThrow(
+                () -> new AppointmentNotFoundException("Appointment not found with id " + id)));
+  }
+
   public Optional<Appointment> create(Appointment appointment, HttpServletRequest request) {
 
     String userPrincipalEmail = request.getUserPrincipal().getName();
-    Optional<User> userOptional = userService.findUserByEmail(userPrincipalEmail);
+    Optional<User> userOptional = userService.findUserReferenceByEmail(userPrincipalEmail);
 
     userOptional.ifPresent(appointment::setUser);
 
-    appointment.setEndDate(calculateEndDate(appointment));
+    appointment.setEndDate(scheduleSegments(appointment));
+    slotReservationService.requireOnGrid(BookedAppointment.of(appointment));
 
-    List<Integer> activityIdList =
-        appointment.getActivityAppointments().stream()
-            .map(p -> p.getActivity().getId())
-            .collect(Collectors.toList());
+    return Optional.of(book(appointment, 0, List.of()));
+  }
 
-    List<Appointment> overlappingAppointments =
-        appointmentRepository.findOverlappingAppointments(
-            appointment.getStartDate(),
-            appointment.getEndDate(),
-            appointment.getUser().getId(),
-            activityIdList);
+  public List<Optional<Appointment>> createAll(
+      List<Appointment> appointments, HttpServletRequest request) {
 
-    if (!overlappingAppointments.isEmpty()) {
-      throw new OverlappingAppointmentsException(
-          "There are overlapping appointments. Please choose another date.");
+    String userPrincipalEmail = request.getUserPrincipal().getName();
+    User user =
+        userService
+            .findUserReferenceByEmail(userPrincipalEmail)
+            .orElseThrow(
+                () -> new UserNotFoundException("User not found with email " + userPrincipalEmail));
+
+    for (Appointment appointment : appointments) {
+      appointment.setUser(user);
+      appointment.setEndDate(scheduleSegments(appointment));
+      slotReservationService.requireOnGrid(BookedAppointment.of(appointment));
+    }
+
+    if (bookingEngine.isReady()) {
+      // The engine decides every booking while it runs, so each one is booked through it.
+      List<Optional<Appointment>> results = new ArrayList<>();
+      for (Appointment appointment : appointments) {
+        try {
+          results.add(Optional.of(book(appointment, 0, List.of())));
+        } catch (OverlappingAppointmentsException exc) {
+          results.add(Optional.empty());
+        }
+      }
+      return results;
+    }
+
+    return bookingTransactions.execute(status -> bookAll(appointments, user));
+  }
+
+  private List<Optional<Appointment>> bookAll(List<Appointment> appointments, User user) {
+    bookingLock.acquire(
+        appointments.stream().map(BookedAppointment::of).collect(Collectors.toList()));
+    ScheduleSnapshot schedule = loadScheduleFor(appointments, user);
+
+    List<Optional<Appointment>> results = new ArrayList<>();
+    Map<Integer, Appointment> acceptedAppointments = new LinkedHashMap<>();
+    List<BookedAppointment> acceptedCandidates = new ArrayList<>();
+    Map<Integer, Integer> resultIndexes = new HashMap<>();
+    int batchId = -1;
+    for (Appointment appointment : appointments) {
+      BookedAppointment candidate = BookedAppointment.of(appointment);
+
+      if (schedule.hasOverlap(candidate, 0)) {
+        results.add(Optional.empty());
+      } else {
+        BookedAppointment accepted = candidate.withId(batchId);
+        schedule.add(accepted);
+        acceptedCandidates.add(accepted);
+        acceptedAppointments.put(batchId, appointment);
+        resultIndexes.put(batchId--, results.size());
+        results.add(Optional.of(appointment));
+      }
+    }
+
+    // A slot claimed outside the loaded schedule would fail the whole batch at reservation, so
+    // the items that would collide are rejected on their own first.
+    for (int conflictingId : slotReservationService.findConflicting(acceptedCandidates)) {
+      acceptedAppointments.remove(conflictingId);
+      results.set(resultIndexes.get(conflictingId), Optional.empty());
+    }
+
+    List<Appointment> savedAppointments =
+        appointmentRepository.saveAll(new ArrayList<>(acceptedAppointments.values()));
+    List<BookedAppointment> bookedAppointments =
+        savedAppointments.stream().map(BookedAppointment::of).collect(Collectors.toList());
+    slotReservationService.reserve(bookedAppointments);
+    utilizationService.record(
+        List.of(),
+        savedAppointments.stream()
+            .flatMap(appointment -> HourlyUsage.of(appointment).stream())
+            .collect(Collectors.toList()));
+    for (BookedAppointment bookedAppointment : bookedAppointments) {
+      eventPublisher.publishEvent(new AppointmentSavedEvent(bookedAppointment));
+    }
+
+    return results;
+  }
+
+  private ScheduleSnapshot loadScheduleFor(List<Appointment> appointments, User user) {
+    ScheduleSnapshot schedule = new ScheduleSnapshot();
+    if (appointments.isEmpty()) {
+      return schedule;
+    }
+
+    LocalDateTime startDate =
+        appointments.stream().map(Appointment::getStartDate).min(LocalDateTime::compareTo).get();
+    LocalDateTime endDate =
+        appointments.stream().map(Appointment::getEndDate).max(LocalDateTime::compareTo).get();
+    Set<Integer> activityIds =
+        appointments.stream()
+            .flatMap(appointment -> appointment.getActivityAppointments().stream())
+            .map(activityAppointment -> activityAppointment.getActivity().getId())
+            .collect(Collectors.toSet());
+
+    List<Integer> overlappingIds =
+        appointmentRepository.findOverlappingAppointmentIds(
+            startDate, endDate, user.getId(), activityIds);
+
+    return loadSchedule(overlappingIds);
+  }
+
+  private ScheduleSnapshot loadSchedule(List<Integer> appointmentIds) {
+    ScheduleSnapshot schedule = new ScheduleSnapshot();
+    if (!appointmentIds.isEmpty()) {
+      BookedAppointment.fromSlots(appointmentRepository.findSlotsByAppointmentIds(appointmentIds))
+          .forEach(schedule::add);
     }
 
-    return Optional.of(appointmentRepository.save(appointment));
+    return schedule;
   }
 
   public Optional<Appointment> update(Appointment appointment, HttpServletRequest request) {
 
     User user = checkUserPermission(request, "update");
 
-    Appointment appointmentToUpdate =
-        prepareAppointmentForUpdate(user.getId(), appointment)
-            .orElseThrow(
-                () ->
-                    new AppointmentNotFoundException(
-                        "Appointment not found with id " + appointment.getId()));
+    Appointment appointmentToUpdate = findById(appointment.getId()).get();
+    // Taken before the segments change so the rollup can subtract the old booking.
+    List<HourlyUsage> previousUsage = HourlyUsage.of(appointmentToUpdate);
 
-    appointmentToUpdate.setEndDate(calculateEndDate(appointmentToUpdate));
+    prepareAppointmentForUpdate(appointmentToUpdate, appointment);
 
-    List<Integer> activityIdList =
-        appointmentToUpdate.getActivityAppointments().stream()
-            .map(p -> p.getActivity().getId())
-            .collect(Collectors.toList());
+    appointmentToUpdate.setEndDate(scheduleSegments(appointmentToUpdate));
+    slotReservationService.requireOnGrid(BookedAppointment.of(appointmentToUpdate));
 
-    List<Appointment> overlappingAppointments =
-        appointmentRepository
-            .findOverlappingAppointments(
-                appointmentToUpdate.getStartDate(),
-                appointmentToUpdate.getEndDate(),
-                appointmentToUpdate.getUser().getId(),
-                activityIdList)
-            .stream()
-            .filter(p -> p.getId() != appointment.getId())
-            .collect(Collectors.toList());
-
-    if (!overlappingAppointments.isEmpty()) {
-      throw new OverlappingAppointmentsException(
-          "There are overlapping appointments. Please choose another date.");
+    Appointment updatedAppointment =
+        book(appointmentToUpdate, appointment.getId(), previousUsage);
+
+    return Optional.of(updatedAppointment);
+  }
+
+  private Appointment book(
+      Appointment appointment, int excludedId, List<HourlyUsage> previousUsage) {
+    BookedAppointment candidate = BookedAppointment.of(appointment);
+
+    if (bookingEngine.isReady()) {
+      bookingEngine.book(
+          appointment,
+          candidate,
+          excludedId,
+          () -> checkForOverlappingAppointments(appointment, excludedId, true),
+          toPersist -> persistFromEngine(toPersist, previousUsage));
+
+      return appointment;
     }
 
-    return Optional.of(appointmentRepository.save(appointmentToUpdate));
+    return bookingTransactions.execute(
+        status -> {
+          bookingLock.acquire(List.of(candidate));
+          checkForOverlappingAppointments(appointment, excludedId, !bookingLock.isClusterWide());
+
+          return persist(appointment, previousUsage);
+        });
   }
 
-  private Optional<Appointment> prepareAppointmentForUpdate(int id, Appointment appointment) {
+  private Appointment persistFromEngine(
+      Appointment appointment, List<HourlyUsage> previousUsage) {
+    appointment.setUser(userService.getReference(appointment.getUser().getId()));
+
+    return persist(appointment, previousUsage);
+  }
 
-    Optional<Appointment> appointmentToUpdate = appointmentRepository.findById(id);
+  private Appointment persist(Appointment appointment, List<HourlyUsage> previousUsage) {
+    boolean isUpdate = appointment.getId() != 0;
 
-    if (appointmentToUpdate.isEmpty()) {
-      throw new AppointmentNotFoundException("Appointment not found with id " + id);
+    Appointment savedAppointment = appointmentRepository.save(appointment);
+    BookedAppointment bookedAppointment = BookedAppointment.of(savedAppointment);
+
+    if (isUpdate) {
+      slotReservationService.release(savedAppointment.getId());
+    }
+    slotReservationService.reserve(List.of(bookedAppointment));
+    utilizationService.record(previousUsage, HourlyUsage.of(savedAppointment));
+    eventPublisher.publishEvent(new AppointmentSavedEvent(bookedAppointment));
+
+    return savedAppointment;
+  }
+
+  private void checkForOverlappingAppointments(
+      Appointment appointment, int excludedId, boolean useIndex) {
+    BookedAppointment candidate = BookedAppointment.of(appointment);
+    Optional<Boolean> indexedOverlap =
+        useIndex ? overlapIndex.hasOverlap(candidate, excludedId) : Optional.empty();
+    boolean overlapping;
+
+    if (indexedOverlap.isPresent()) {
+      overlapping = indexedOverlap.get();
+    } else {
+      List<Integer> activityIdList =
+          appointment.getActivityAppointments().stream()
+              .map(p -> p.getActivity().getId())
+              .collect(Collectors.toList());
+
+      List<Integer> overlappingIds =
+          appointmentRepository
+              .findOverlappingAppointmentIds(
+                  appointment.getStartDate(),
+                  appointment.getEndDate(),
+                  appointment.getUser().getId(),
+                  activityIdList)
+              .stream()
+              .filter(id -> id != excludedId)
+              .collect(Collectors.toList());
+
+      // The id query only matches whole appointment windows, so confirm per segment.
+      overlapping =
+          !overlappingIds.isEmpty()
+              && loadSchedule(overlappingIds).hasOverlap(candidate, excludedId);
     }
 
+    if (overlapping) {
+      throw new OverlappingAppointmentsException(
+          "There are overlapping appointments. Please choose another date.");
+    }
+  }
+
+  private void prepareAppointmentForUpdate(
+      Appointment appointmentToUpdate, Appointment appointment) {
+
     List<ActivityAppointment> toRemove = new ArrayList<>();
     for (ActivityAppointment appointmentActivityToUpdate :
-        appointmentToUpdate.get().getActivityAppointments()) {
+        appointmentToUpdate.getActivityAppointments()) {
       Optional<ActivityAppointment> appointmentActivity =
           appointment.getActivityAppointments().stream()
               .filter(
@@ -147,32 +346,41 @@ public class AppointmentService {
     }
 
     for (ActivityAppointment activityAppointment : toRemove) {
-      appointmentToUpdate.get().removeActivityAppointment(activityAppointment);
+      appointmentToUpdate.removeActivityAppointment(activityAppointment);
     }
 
     for (ActivityAppointment activityAppointment : appointment.getActivityAppointments()) {
-      activityAppointment.setAppointment(appointmentToUpdate.get());
-      appointmentToUpdate.get().addActivityAppointment(activityAppointment);
+      activityAppointment.setAppointment(appointmentToUpdate);
+      appointmentToUpdate.addActivityAppointment(activityAppointment);
     }
 
-    appointmentToUpdate.get().setStartDate(appointment.getStartDate());
-
-    return appointmentToUpdate;
+    appointmentToUpdate.setStartDate(appointment.getStartDate());
   }
 
+  @Transactional
   public void delete(int id, HttpServletRequest request) {
-    findById(id);
+    Optional<Appointment> appointment = findById(id);
     checkUserPermission(request, "delete");
     appointmentRepository.deleteById(id);
+    utilizationService.record(HourlyUsage.of(appointment.get()), List.of());
+    eventPublisher.publishEvent(
+        new AppointmentDeletedEvent(BookedAppointment.of(appointment.get())));
   }
 
-  private LocalDateTime calculateEndDate(Appointment appointment) {
-    Duration totalDuration = Duration.ofSeconds(0);
+  private LocalDateTime scheduleSegments(Appointment appointment) {
+    LocalDateTime segmentStart = appointment.getStartDate();
     for (ActivityAppointment activityAppointment : appointment.getActivityAppointments()) {
-      totalDuration = totalDuration.plus(activityAppointment.getActivity().getDuration());
+      LocalDateTime segmentEnd = segmentStart.plus(activityAppointment.getActivity().getDuration());
+      activityAppointment.setStartDate(segmentStart);
+      activityAppointment.setEndDate(segmentEnd);
+      // Rescheduled segments keep the price they were booked at.
+      if (activityAppointment.getPrice() == null) {
+        activityAppointment.setPrice(activityAppointment.getActivity().getPrice());
+      }
+      segmentStart = segmentEnd;
     }
 
-    return appointment.getStartDate().plus(totalDuration);
+    return segmentStart;
   }
 
   private User checkUserPermission(HttpServletRequest request, String action) {
@@ -181,10 +389,10 @@ public class AppointmentService {
 
     User user =
         userService
-            .findUserByEmail(loggedInUserEmail)
+            .findUserReferenceByEmail(loggedInUserEmail)
             .orElseThrow(() -> new UserNotFoundException("User not found with email " + loggedInUserEmail));
 
-    if (!userDetails.getUsername().equals(user.getEmail())
+    if (!userDetails.getUsername().equals(loggedInUserEmail)
         && !userDetails.getAuthorities().stream()
             .anyMatch(grantedAuthority -> grantedAuthority.getAuthority().contains("ROLE_ADMIN"))) {
       throw new UnauthorizedActionException(
@@ -0,0 +1,84 @@
+package com.prime.rushhour.service;
+
+import com.prime.rushhour.entity.Activity;
+import com.prime.rushhour.exception.ActivityNotFoundException;
+import com.prime.rushhour.exception.InvalidDateRangeException;
+import com.prime.rushhour.repository.ActivityRepository;
+import com.prime.rushhour.repository.AppointmentRepository;
+import com.prime.rushhour.schedule.ActivityAvailabilityIndex;
+import com.prime.rushhour.schedule.BookedAppointment;
+import com.prime.rushhour.schedule.SlotCalendar;
+import com.prime.rushhour.schedule.TimeInterval;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class AvailabilityService {
+
+  private final ActivityAvailabilityIndex availabilityIndex;
+  private final ActivityRepository activityRepository;
+  private final AppointmentRepository appointmentRepository;
+
+  @Value("${app.booking.availability.max-days}")
+  private int maxDays;
+
+  @Transactional(readOnly = true)
+  public Map<Integer, List<TimeInterval>> findFreeIntervals(
+      List<Integer> activityIds, LocalDate from, LocalDate to) {
+
+    if (to.isBefore(from) || ChronoUnit.DAYS.between(from, to) >= maxDays) {
+      throw new InvalidDateRangeException(
+          "Date range must start before it ends and span at most " + maxDays + " days");
+    }
+
+    Map<Integer, Integer> capacities = findCapacities(new LinkedHashSet<>(activityIds));
+
+    Optional<Map<Integer, List<TimeInterval>>> indexedIntervals =
+        availabilityIndex.findFreeIntervals(capacities, from, to);
+    if (indexedIntervals.isPresent()) {
+      return indexedIntervals.get();
+    }
+
+    SlotCalendar calendar = new SlotCalendar(availabilityIndex.getSlotMinutes());
+    BookedAppointment.fromSlots(
+            appointmentRepository.findSlotsByActivities(
+                capacities.keySet(), from.atStartOfDay(), to.plusDays(1).atStartOfDay()))
+        .forEach(calendar::add);
+
+    Map<Integer, List<TimeInterval>> freeIntervals = new LinkedHashMap<>();
+    capacities.forEach(
+        (activityId, capacity) ->
+            freeIntervals.put(
+                activityId, calendar.findFreeIntervals(activityId, capacity, from, to)));
+    return freeIntervals;
+  }
+
+  /** The capacity of each activity, in request order. */
+  private Map<Integer, Integer> findCapacities(Set<Integer> activityIds) {
+    Map<Integer, Integer> foundCapacities =
+        activityRepository.findAllById(activityIds).stream()
+            .collect(Collectors.toMap(Activity::getId, Activity::getCapacity));
+
+    Map<Integer, Integer> capacities = new LinkedHashMap<>();
+    for (int activityId : activityIds) {
+      if (!foundCapacities.containsKey(activityId)) {
+        throw new ActivityNotFoundException("Activity not found with id " + activityId);
+      }
+      capacities.put(activityId, foundCapacities.get(activityId));
+    }
+    return capacities;
+  }
+}
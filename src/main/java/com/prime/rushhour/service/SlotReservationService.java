@@ -0,0 +1,138 @@
+package com.prime.rushhour.service;
+
+import com.prime.rushhour.exception.InvalidDateRangeException;
+import com.prime.rushhour.exception.OverlappingAppointmentsException;
+import com.prime.rushhour.repository.SlotReservationRepository;
+import com.prime.rushhour.schedule.BookedActivity;
+import com.prime.rushhour.schedule.BookedAppointment;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityManager;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static com.prime.rushhour.repository.SlotReservationRepository.reservation;
+
+@Service
+@RequiredArgsConstructor
+public class SlotReservationService {
+
+  private final SlotReservationRepository slotReservationRepository;
+  private final EntityManager entityManager;
+
+  @Value("${app.booking.reservation.slot-minutes}")
+  private int slotMinutes;
+
+  /**
+   * Rejects bookings whose single-booking activities do not start and end on the slot grid. Two
+   * segments that meet inside a slot would both have to claim it, so the unique claim could not
+   * tell back to back bookings from overlapping ones.
+   */
+  public void requireOnGrid(BookedAppointment appointment) {
+    for (BookedActivity activity : appointment.getActivities()) {
+      if (activity.getCapacity() > 1) {
+        continue;
+      }
+      if (!slotStartOf(activity.getStartDate()).equals(activity.getStartDate())
+          || !slotStartOf(activity.getEndDate()).equals(activity.getEndDate())) {
+        throw new InvalidDateRangeException(
+            "Activity "
+                + activity.getActivityId()
+                + " must start and end on a "
+                + slotMinutes
+                + " minute boundary");
+      }
+    }
+  }
+
+  public void reserve(Collection<BookedAppointment> appointments) {
+    List<Object[]> reservations = reservationsOf(appointments);
+
+    entityManager.flush();
+    try {
+      slotReservationRepository.insertAll(reservations);
+    } catch (DuplicateKeyException exc) {
+      throw new OverlappingAppointmentsException(
+          "There are overlapping appointments. Please choose another date.");
+    }
+  }
+
+  /**
+   * The ids of the bookings that would claim a slot another appointment already holds. A batch
+   * leaves them out before it reserves, so one conflicting item does not fail the others.
+   */
+  public Set<Integer> findConflicting(Collection<BookedAppointment> appointments) {
+    List<Object[]> reservations = reservationsOf(appointments);
+    if (reservations.isEmpty()) {
+      return Set.of();
+    }
+
+    Set<Integer> activityIds = new HashSet<>();
+    Timestamp fromSlot = (Timestamp) reservations.get(0)[2];
+    Timestamp toSlot = fromSlot;
+    for (Object[] reservation : reservations) {
+      Timestamp slotStart = (Timestamp) reservation[2];
+      activityIds.add((Integer) reservation[0]);
+      fromSlot = slotStart.before(fromSlot) ? slotStart : fromSlot;
+      toSlot = slotStart.after(toSlot) ? slotStart : toSlot;
+    }
+
+    Set<List<Object>> reservedSlots =
+        slotReservationRepository.findReservedSlots(activityIds, fromSlot, toSlot).stream()
+            .map(Arrays::asList)
+            .collect(Collectors.toSet());
+    Set<Integer> conflicting = new HashSet<>();
+    for (Object[] reservation : reservations) {
+      if (reservedSlots.contains(List.of(reservation[0], reservation[2]))) {
+        conflicting.add((Integer) reservation[1]);
+      }
+    }
+    return conflicting;
+  }
+
+  public void release(int appointmentId) {
+    slotReservationRepository.deleteByAppointmentId(appointmentId);
+  }
+
+  private List<Object[]> reservationsOf(Collection<BookedAppointment> appointments) {
+    List<Object[]> reservations = new ArrayList<>();
+    for (BookedAppointment appointment : appointments) {
+      for (BookedActivity activity : appointment.getActivities()) {
+        // A unique slot claim can only guard activities that host one booking at a time.
+        if (activity.getCapacity() > 1) {
+          continue;
+        }
+        // Every slot the segment touches is claimed, so any two overlapping segments share one.
+        // The end is exclusive: a segment ending on a slot boundary leaves the next slot free.
+        for (LocalDateTime slotStart = slotStartOf(activity.getStartDate());
+            slotStart.isBefore(activity.getEndDate());
+            slotStart = slotStart.plusMinutes(slotMinutes)) {
+          reservations.add(
+              reservation(
+                  activity.getActivityId(), appointment.getId(), Timestamp.valueOf(slotStart)));
+        }
+      }
+    }
+    return reservations;
+  }
+
+  private LocalDateTime slotStartOf(LocalDateTime dateTime) {
+    LocalDateTime hour = dateTime.truncatedTo(ChronoUnit.HOURS);
+    long offset = ChronoUnit.NANOS.between(hour, dateTime);
+    long slotNanos = TimeUnit.MINUTES.toNanos(slotMinutes);
+
+    return hour.plusNanos(offset / slotNanos * slotNanos);
+  }
+}
@@ -0,0 +1,96 @@
+package com.prime.rushhour.service;
+
+import com.prime.rushhour.entity.Activity;
+import com.prime.rushhour.entity.User;
+import com.prime.rushhour.exception.ActivityNotFoundException;
+import com.prime.rushhour.exception.InvalidDateRangeException;
+import com.prime.rushhour.exception.UserNotFoundException;
+import com.prime.rushhour.repository.ActivityRepository;
+import com.prime.rushhour.repository.AppointmentRepository;
+import com.prime.rushhour.schedule.BookedAppointment;
+import com.prime.rushhour.schedule.BundleScheduler;
+import com.prime.rushhour.schedule.ScheduleSnapshot;
+import com.prime.rushhour.schedule.Suggestion;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.servlet.http.HttpServletRequest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class SuggestionService {
+
+  private final ActivityRepository activityRepository;
+  private final AppointmentRepository appointmentRepository;
+  private final UserService userService;
+
+  @Value("${app.booking.suggest.slot-minutes}")
+  private int slotMinutes;
+
+  @Value("${app.booking.suggest.max-days}")
+  private int maxDays;
+
+  @Value("${app.booking.suggest.time-budget-ms}")
+  private long timeBudgetMs;
+
+  public List<Suggestion> suggest(
+      List<Integer> activityIds,
+      LocalDateTime from,
+      LocalDateTime to,
+      int count,
+      boolean allowReordering,
+      HttpServletRequest request) {
+
+    if (!from.isBefore(to) || Duration.between(from, to).toDays() >= maxDays) {
+      throw new InvalidDateRangeException(
+          "Date range must start before it ends and span at most " + maxDays + " days");
+    }
+
+    String userPrincipalEmail = request.getUserPrincipal().getName();
+    User user =
+        userService
+            .findUserByEmail(userPrincipalEmail)
+            .orElseThrow(
+                () -> new UserNotFoundException("User not found with email " + userPrincipalEmail));
+
+    List<Activity> activities = findActivities(activityIds);
+
+    ScheduleSnapshot schedule = new ScheduleSnapshot();
+    List<Integer> overlappingIds =
+        appointmentRepository.findOverlappingAppointmentIds(from, to, user.getId(), activityIds);
+    if (!overlappingIds.isEmpty()) {
+      BookedAppointment.fromSlots(appointmentRepository.findSlotsByAppointmentIds(overlappingIds))
+          .forEach(schedule::add);
+    }
+
+    long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeBudgetMs);
+
+    return new BundleScheduler(schedule, slotMinutes)
+        .findEarliest(user.getId(), activities, from, to, count, allowReordering, deadlineNanos);
+  }
+
+  private List<Activity> findActivities(List<Integer> activityIds) {
+    Map<Integer, Activity> foundActivities =
+        activityRepository.findAllById(activityIds).stream()
+            .collect(Collectors.toMap(Activity::getId, Function.identity()));
+
+    List<Activity> activities = new ArrayList<>();
+    for (int activityId : activityIds) {
+      Activity activity = foundActivities.get(activityId);
+      if (activity == null) {
+        throw new ActivityNotFoundException("Activity not found with id " + activityId);
+      }
+      activities.add(activity);
+    }
+    return activities;
+  }
+}
@@ -2,12 +2,22 @@ package com.prime.rushhour.service;
 
 import com.prime.rushhour.dto.LoginRequestDto;
 import com.prime.rushhour.dto.UserResponseDtoWithoutAppointments;
+import com.prime.rushhour.entity.Appointment;
 import com.prime.rushhour.entity.Role;
 import com.prime.rushhour.entity.User;
+import com.prime.rushhour.event.AppointmentDeletedEvent;
+import com.prime.rushhour.event.UserChangedEvent;
 import com.prime.rushhour.exception.*;
+import com.prime.rushhour.pagination.KeysetPage;
+import com.prime.rushhour.repository.AppointmentRepository;
+import com.prime.rushhour.repository.KeysetRepository;
 import com.prime.rushhour.repository.UserRepository;
+import com.prime.rushhour.schedule.BookedAppointment;
+import com.prime.rushhour.schedule.HourlyUsage;
+import com.prime.rushhour.security.CustomUserDetails;
 import com.prime.rushhour.security.jwt.JwtUtils;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -15,41 +25,51 @@ import org.springframework.data.domain.Sort;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import javax.servlet.http.HttpServletRequest;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class UserService {
 
   private final UserRepository userRepository;
+  private final AppointmentRepository appointmentRepository;
+  private final KeysetRepository keysetRepository;
   private final PasswordEncoder passwordEncoder;
   private final UserDetailsService userDetailsService;
   private final RoleService roleService;
   private final JwtUtils jwtUtils;
   private final AuthenticationManager authenticationManager;
   private final HttpServletRequest request;
+  private final UtilizationService utilizationService;
+  private final ApplicationEventPublisher eventPublisher;
 
   public String authenticateUser(LoginRequestDto loginRequestDto) {
+    Authentication authentication;
     try {
-      authenticationManager.authenticate(
-          new UsernamePasswordAuthenticationToken(
-              loginRequestDto.getEmail(), loginRequestDto.getPassword()));
+      authentication =
+          authenticationManager.authenticate(
+              new UsernamePasswordAuthenticationToken(
+                  loginRequestDto.getEmail(), loginRequestDto.getPassword()));
     } catch (BadCredentialsException exc) {
       throw new InvalidCredentialsException("Incorrect email or password");
     }
 
-    UserDetails userDetails = userDetailsService.loadUserByUsername(loginRequestDto.getEmail());
-
-    return jwtUtils.generateToken(userDetails);
+    // The provider has just loaded the user, so the token gets its current version.
+    return jwtUtils.generateToken((CustomUserDetails) authentication.getPrincipal());
   }
 
   public User registerUser(User user) {
@@ -73,6 +93,21 @@ public class UserService {
     return userRepository.findByEmail(email);
   }
 
+  /**
+   * Resolves the user's id through the cached user details and returns an uninitialized
+   * reference, which is all an appointment needs to point at its user.
+   */
+  public Optional<User> findUserReferenceByEmail(String email) {
+    try {
+      CustomUserDetails userDetails =
+          (CustomUserDetails) userDetailsService.loadUserByUsername(email);
+
+      return Optional.of(getReference(userDetails.getId()));
+    } catch (UsernameNotFoundException exc) {
+      return Optional.empty();
+    }
+  }
+
   public Optional<User> findUserById(int id) {
     return Optional.of(
         userRepository
@@ -80,6 +115,18 @@ public class UserService {
             .orElseThrow(() -> new UserNotFoundException("User not found with id " + id)));
   }
 
+  @Transactional(readOnly = true)
+  public Optional<User> findUserWithAppointmentsById(int id) {
+    return Optional.of(
+        userRepository
+            .findWithAppointmentsById(id)
+            .orElseThrow(() -> new UserNotFoundException("User not found with id " + id)));
+  }
+
+  public User getReference(int id) {
+    return userRepository.getOne(id);
+  }
+
   private Optional<User> createUser(User user) {
     Optional<User> foundUser = findUserByEmail(user.getEmail());
 
@@ -95,7 +142,17 @@ public class UserService {
       UserResponseDtoWithoutAppointments userDto, HttpServletRequest request) {
     User user = checkUserPermission(userDto.getId(), request, "update");
 
-    user.setPassword(passwordEncoder.encode(userDto.getPassword()));
+    boolean passwordChanged = !passwordEncoder.matches(userDto.getPassword(), user.getPassword());
+
+    // Tokens carry the email as their subject, so outstanding ones are revoked when it or the
+    // password changes.
+    if (passwordChanged || !user.getEmail().equals(userDto.getEmail())) {
+      user.setTokenVersion(user.getTokenVersion() + 1);
+    }
+
+    if (passwordChanged) {
+      user.setPassword(passwordEncoder.encode(userDto.getPassword()));
+    }
     user.setEmail(userDto.getEmail());
     user.setFirstName(userDto.getFirstName());
     user.setLastName(userDto.getLastName());
@@ -103,6 +160,8 @@ public class UserService {
     checkIfEmailIsTaken(request, user);
 
     User updatedUser = userRepository.saveAndFlush(user);
+    eventPublisher.publishEvent(
+        new UserChangedEvent(updatedUser.getId(), OptionalInt.of(updatedUser.getTokenVersion())));
 
     return Optional.of(updatedUser);
   }
@@ -115,15 +174,31 @@ public class UserService {
     }
   }
 
+  @Transactional
   public void delete(int userId) {
     Optional<User> user = findUserById(userId);
 
     if (user.isPresent()) {
       checkUserPermission(user.get().getId(), request, "delete");
+
+      // The appointments go with the user through orphan removal, so their usage and schedule
+      // entries are taken out here.
+      List<Appointment> appointments = appointmentRepository.findWithActivitiesByUserId(userId);
+      utilizationService.record(
+          appointments.stream()
+              .flatMap(appointment -> HourlyUsage.of(appointment).stream())
+              .collect(Collectors.toList()),
+          List.of());
       userRepository.delete(user.get());
+      appointments.forEach(
+          appointment ->
+              eventPublisher.publishEvent(
+                  new AppointmentDeletedEvent(BookedAppointment.of(appointment))));
+      eventPublisher.publishEvent(new UserChangedEvent(user.get().getId(), OptionalInt.empty()));
     }
   }
 
+  @Transactional(readOnly = true)
   public List<User> findAll(int pageNo, int pageSize, String sortBy) {
     Pageable paging = PageRequest.of(pageNo, pageSize, Sort.by(sortBy));
 
@@ -136,6 +211,11 @@ public class UserService {
     }
   }
 
+  @Transactional(readOnly = true)
+  public KeysetPage<User> findPage(String sortBy, String cursor, int pageSize) {
+    return keysetRepository.findPage(User.class, sortBy, cursor, pageSize, "role");
+  }
+
   private User checkUserPermission(int userId, HttpServletRequest request, String action) {
     String loggedInUserEmail = request.getUserPrincipal().getName();
     UserDetails userDetails = userDetailsService.loadUserByUsername(loggedInUserEmail);
@@ -0,0 +1,157 @@
+package com.prime.rushhour.service;
+
+import com.prime.rushhour.exception.InvalidDateRangeException;
+import com.prime.rushhour.repository.ActivityUsageRepository;
+import com.prime.rushhour.schedule.ActivityUtilization;
+import com.prime.rushhour.schedule.HourlyUsage;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps {@code activity_hourly_usage} in step with the bookings. Every create, update and delete
+ * adds its difference to the affected hours in the booking's own transaction, so reports read a
+ * few hundred pre-aggregated rows instead of scanning the appointments. Deleting a user subtracts
+ * the usage of the appointments removed with them, and the reactive application records the same
+ * differences. The recent hours are recomputed periodically to repair any drift left by writes
+ * made outside of the applications.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class UtilizationService {
+
+  private static final int BACKFILL_CHUNK_DAYS = 31;
+
+  private final ActivityUsageRepository activityUsageRepository;
+  private final TransactionOperations transactionOperations;
+
+  @Value("${app.reports.max-days}")
+  private int maxDays;
+
+  @Value("${app.reports.backfill-on-startup}")
+  private boolean backfillOnStartup;
+
+  @Value("${app.reports.reconcile-days}")
+  private int reconcileDays;
+
+  public void record(List<HourlyUsage> previousUsage, List<HourlyUsage> currentUsage) {
+    Collection<HourlyUsage> delta = HourlyUsage.delta(previousUsage, currentUsage);
+    if (!delta.isEmpty()) {
+      activityUsageRepository.addAll(delta);
+    }
+  }
+
+  @Transactional(readOnly = true)
+  public List<ActivityUtilization> findUtilization(
+      LocalDateTime from, LocalDateTime to, Granularity granularity, Integer activityId) {
+    if (!from.isBefore(to) || Duration.between(from, to).toDays() > maxDays) {
+      throw new InvalidDateRangeException(
+          "The range must start before it ends and span at most " + maxDays + " days");
+    }
+
+    long periodSeconds = granularity.getUnit().getDuration().getSeconds();
+
+    return activityUsageRepository
+        .findTotals(
+            from.truncatedTo(granularity.getUnit()),
+            to,
+            granularity == Granularity.DAY,
+            activityId)
+        .stream()
+        .map(
+            totals ->
+                new ActivityUtilization(
+                    totals.getActivityId(),
+                    totals.getActivityName(),
+                    totals.getPeriodStart(),
+                    totals.getBookings(),
+                    totals.getBookedSeconds() / 60,
+                    (double) totals.getBookedSeconds()
+                        / (Math.max(totals.getCapacity(), 1) * periodSeconds),
+                    totals.getRevenue()))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Recomputes the hours between {@code from} and {@code to} from the appointment segments. Each
+   * chunk is replaced in one transaction; bookings committed meanwhile wait on the deleted rows and
+   * add their own difference afterwards, so nothing is counted twice.
+   */
+  public void backfill(LocalDateTime from, LocalDateTime to) {
+    LocalDateTime chunkStart = from.truncatedTo(ChronoUnit.HOURS);
+    while (chunkStart.isBefore(to)) {
+      LocalDateTime start = chunkStart;
+      LocalDateTime end = start.plusDays(BACKFILL_CHUNK_DAYS);
+
+      transactionOperations.executeWithoutResult(
+          status -> {
+            activityUsageRepository.deleteRange(start, end);
+
+            List<HourlyUsage> usage = new ArrayList<>();
+            activityUsageRepository.scanSegments(
+                start,
+                end,
+                segmentUsage ->
+                    segmentUsage.stream()
+                        .filter(
+                            hourlyUsage ->
+                                !hourlyUsage.getHourStart().isBefore(start)
+                                    && hourlyUsage.getHourStart().isBefore(end))
+                        .forEach(usage::add));
+            record(List.of(), usage);
+          });
+
+      chunkStart = end;
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void backfillIfEmpty() {
+    if (backfillOnStartup && activityUsageRepository.isEmpty()) {
+      activityUsageRepository
+          .findBookedRange()
+          .ifPresent(
+              range -> {
+                log.info(
+                    "Backfilling activity usage from {} to {}",
+                    range.getStartDate(),
+                    range.getEndDate());
+                backfill(range.getStartDate(), range.getEndDate());
+              });
+    }
+  }
+
+  /** Recomputes the hours from {@code app.reports.reconcile-days} ago to as many days ahead. */
+  @Scheduled(
+      initialDelayString = "${app.reports.reconcile-interval-ms}",
+      fixedDelayString = "${app.reports.reconcile-interval-ms}")
+  public void reconcile() {
+    LocalDateTime now = LocalDateTime.now();
+    backfill(now.minusDays(reconcileDays), now.plusDays(reconcileDays));
+  }
+
+  @Getter
+  @RequiredArgsConstructor
+  public enum Granularity {
+    HOUR(ChronoUnit.HOURS),
+    DAY(ChronoUnit.DAYS);
+
+    private final ChronoUnit unit;
+  }
+}
@@ -0,0 +1,9 @@
+-- Each segment keeps the price it was booked at, so cancelling it later subtracts the revenue that
+-- was added. Existing bookings take the current price.
+ALTER TABLE activity_appointment ADD COLUMN price DECIMAL(10, 2) NULL;
+
+UPDATE activity_appointment AS act_app
+JOIN activity AS act ON act.id = act_app.activity_id
+SET act_app.price = act.price;
+
+ALTER TABLE activity_appointment MODIFY price DECIMAL(10, 2) NOT NULL;
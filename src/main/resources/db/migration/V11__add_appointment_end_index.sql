@@ -0,0 +1,2 @@
+-- The in-memory schedules load only the appointments that have not ended yet.
+CREATE INDEX idx_appointment_end_date ON appointment (end_date);
@@ -0,0 +1,13 @@
+CREATE TABLE activity_slot_reservation (
+    id INT NOT NULL AUTO_INCREMENT,
+    activity_id INT NOT NULL,
+    appointment_id INT NOT NULL,
+    slot_start TIMESTAMP NOT NULL,
+    PRIMARY KEY(id),
+    UNIQUE KEY (activity_id, slot_start)
+);
+
+ALTER TABLE activity_slot_reservation
+    ADD ( FOREIGN KEY (`activity_id`) REFERENCES activity(`id`) ON DELETE CASCADE, FOREIGN KEY (`appointment_id`) REFERENCES appointment(`id`) ON DELETE CASCADE);
+
+-- Existing bookings are claimed per activity segment by V5, once segment times exist.
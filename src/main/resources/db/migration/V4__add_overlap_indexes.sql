@@ -0,0 +1,5 @@
+CREATE INDEX idx_appointment_user_end_start
+    ON appointment (user_id, end_date, start_date);
+
+CREATE INDEX idx_activity_appointment_activity_appointment
+    ON activity_appointment (activity_id, appointment_id);
@@ -0,0 +1,50 @@
+ALTER TABLE activity_appointment
+    ADD COLUMN start_date TIMESTAMP NULL,
+    ADD COLUMN end_date TIMESTAMP NULL;
+
+-- Activities run back to back in id order. Durations are stored in nanoseconds.
+UPDATE activity_appointment AS act_app
+JOIN (
+    SELECT act_app.id,
+           SUM(act.duration) OVER (PARTITION BY act_app.appointment_id ORDER BY act_app.id) AS elapsed,
+           act.duration
+    FROM activity_appointment AS act_app
+    JOIN activity AS act ON act.id = act_app.activity_id
+) AS segment ON segment.id = act_app.id
+JOIN appointment AS app ON app.id = act_app.appointment_id
+SET act_app.start_date = app.start_date + INTERVAL ((segment.elapsed - segment.duration) DIV 1000) MICROSECOND,
+    act_app.end_date = app.start_date + INTERVAL (segment.elapsed DIV 1000) MICROSECOND;
+
+ALTER TABLE activity_appointment
+    MODIFY start_date TIMESTAMP NOT NULL,
+    MODIFY end_date TIMESTAMP NOT NULL;
+
+CREATE INDEX idx_activity_appointment_activity_end_start
+    ON activity_appointment (activity_id, end_date, start_date, appointment_id);
+
+DROP INDEX idx_activity_appointment_activity_appointment ON activity_appointment;
+
+-- Claim the 15 minute slots (app.booking.reservation.slot-minutes) each segment fully covers. For
+-- bookings on the slot grid these are all the slots they touch, as SlotReservationService claims.
+-- Older bookings off the grid keep only their covered slots, so back to back ones cannot collide
+-- here; they are committed, and the overlap query guards them. A plain INSERT makes the migration
+-- fail on bookings that already overlap rather than hiding them; resolve those before migrating.
+INSERT INTO activity_slot_reservation (activity_id, appointment_id, slot_start)
+WITH RECURSIVE slot (activity_id, appointment_id, slot_start, end_date) AS (
+    SELECT activity_id, appointment_id, first_slot, end_date
+    FROM (
+        SELECT activity_id,
+               appointment_id,
+               TIMESTAMPADD(MINUTE,
+                            CEIL(TIMESTAMPDIFF(SECOND, DATE_FORMAT(start_date, '%Y-%m-%d %H:00:00'), start_date) / 900) * 15,
+                            DATE_FORMAT(start_date, '%Y-%m-%d %H:00:00')) AS first_slot,
+               end_date
+        FROM activity_appointment
+    ) AS segment
+    WHERE first_slot + INTERVAL 15 MINUTE <= end_date
+    UNION ALL
+    SELECT activity_id, appointment_id, slot_start + INTERVAL 15 MINUTE, end_date
+    FROM slot
+    WHERE slot_start + INTERVAL 30 MINUTE <= end_date
+)
+SELECT activity_id, appointment_id, slot_start FROM slot;
@@ -0,0 +1,2 @@
+ALTER TABLE activity
+    ADD COLUMN capacity INT NOT NULL DEFAULT 1;
@@ -0,0 +1,12 @@
+CREATE TABLE id_generator (
+    name VARCHAR(64) NOT NULL,
+    next_val BIGINT NOT NULL,
+    PRIMARY KEY(name)
+);
+
+-- pooled-lo: the stored value is the first id of the next block handed out.
+INSERT INTO id_generator (name, next_val)
+    SELECT 'appointment', COALESCE(MAX(id), 0) + 1 FROM appointment;
+
+INSERT INTO id_generator (name, next_val)
+    SELECT 'activity_appointment', COALESCE(MAX(id), 0) + 1 FROM activity_appointment;
@@ -0,0 +1,15 @@
+CREATE TABLE activity_hourly_usage (
+    activity_id INT NOT NULL,
+    hour_start TIMESTAMP NOT NULL,
+    bookings INT NOT NULL,
+    booked_seconds BIGINT NOT NULL,
+    revenue DECIMAL(14, 2) NOT NULL,
+    PRIMARY KEY(activity_id, hour_start)
+);
+
+CREATE INDEX idx_activity_hourly_usage_hour_start ON activity_hourly_usage (hour_start);
+
+ALTER TABLE activity_hourly_usage
+    ADD FOREIGN KEY (activity_id) REFERENCES activity(id) ON DELETE CASCADE;
+
+-- Filled from the existing appointments by the backfill job on the first start.
@@ -0,0 +1,3 @@
+-- Bumped whenever a user's credentials or role change; tokens carrying an older value are rejected.
+ALTER TABLE user
+    ADD COLUMN token_version INT NOT NULL DEFAULT 0;
@@ -0,0 +1,128 @@
+package com.prime.rushhour.activity;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.prime.rushhour.entity.Activity;
+import com.prime.rushhour.provider.ActivityProvider;
+import com.prime.rushhour.repository.ActivityRepository;
+import com.prime.rushhour.repository.KeysetRepository;
+import com.prime.rushhour.service.ActivityService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.cache.CacheMetricsAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.metrics.export.simple.SimpleMetricsExportAutoConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/** Runs against the cache manager and metrics the application configures. */
+@SpringBootTest(classes = ActivityCacheTest.CacheConfiguration.class)
+@ImportAutoConfiguration({
+  CacheAutoConfiguration.class,
+  MetricsAutoConfiguration.class,
+  SimpleMetricsExportAutoConfiguration.class,
+  CompositeMeterRegistryAutoConfiguration.class,
+  CacheMetricsAutoConfiguration.class
+})
+public class ActivityCacheTest {
+
+  @Autowired private ActivityService activityService;
+  @Autowired private ActivityRepository activityRepository;
+  @Autowired private CacheManager cacheManager;
+  @Autowired private MeterRegistry meterRegistry;
+
+  private Activity activity;
+
+  @BeforeEach
+  void setUp() {
+    reset(activityRepository);
+    cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+
+    activity = ActivityProvider.getInstance();
+    when(activityRepository.findById(activity.getId())).thenReturn(Optional.of(activity));
+    when(activityRepository.findByName(activity.getName())).thenReturn(Optional.of(activity));
+  }
+
+  @Test
+  void testActivityCachesAreBoundedAndExpire() {
+    for (String cacheName : cacheManager.getCacheNames()) {
+      Policy<?, ?> policy =
+          ((Cache<?, ?>) cacheManager.getCache(cacheName).getNativeCache()).policy();
+
+      assertEquals(1000, policy.eviction().get().getMaximum());
+      assertEquals(10, policy.expireAfterWrite().get().getExpiresAfter(TimeUnit.MINUTES));
+    }
+    assertEquals(2, cacheManager.getCacheNames().size());
+  }
+
+  @Test
+  void testRepeatedLookupsAreServedFromCache() {
+    double hits = cacheGets(ActivityService.ACTIVITIES_BY_ID, "hit");
+    double misses = cacheGets(ActivityService.ACTIVITIES_BY_ID, "miss");
+
+    activityService.findById(activity.getId());
+    activityService.findById(activity.getId());
+    activityService.findByName(activity.getName());
+    Optional<Activity> foundActivity = activityService.findByName(activity.getName());
+
+    assertEquals(Optional.of(activity), foundActivity);
+    verify(activityRepository, times(1)).findById(activity.getId());
+    verify(activityRepository, times(1)).findByName(activity.getName());
+    assertEquals(hits + 1, cacheGets(ActivityService.ACTIVITIES_BY_ID, "hit"));
+    assertEquals(misses + 1, cacheGets(ActivityService.ACTIVITIES_BY_ID, "miss"));
+  }
+
+  @Test
+  void testWritesInvalidateCachedActivities() {
+    when(activityRepository.save(activity)).thenReturn(activity);
+
+    activityService.findById(activity.getId());
+    activityService.update(activity, null);
+    activityService.findById(activity.getId());
+
+    // update reads the activity itself, bypassing the cache, so three repository reads in total
+    verify(activityRepository, times(3)).findById(activity.getId());
+  }
+
+  private double cacheGets(String cacheName, String result) {
+    return meterRegistry
+        .get("cache.gets")
+        .tag("name", cacheName)
+        .tag("result", result)
+        .functionCounter()
+        .count();
+  }
+
+  @Configuration
+  @EnableCaching
+  static class CacheConfiguration {
+
+    @Bean
+    ActivityRepository activityRepository() {
+      return Mockito.mock(ActivityRepository.class);
+    }
+
+    @Bean
+    ActivityService activityService(ActivityRepository activityRepository) {
+      return new ActivityService(activityRepository, Mockito.mock(KeysetRepository.class));
+    }
+  }
+}
@@ -100,11 +100,29 @@ public class ActivityServiceTest {
     when(activityRepository.findById(any(Integer.class))).thenReturn(Optional.of(activity));
     when(activityRepository.save(any(Activity.class))).thenReturn(activity);
 
-    Optional<Activity> updatedActivity = activityService.update(activity);
+    Optional<Activity> updatedActivity = activityService.update(activity, null);
 
     assertEquals(Optional.of(activity), updatedActivity);
   }
 
+  @Test
+  void testActivityUpdateKeepsCapacityWhenNotGiven() {
+    Activity currentActivity = ActivityProvider.getInstance();
+    currentActivity.setCapacity(4);
+    Activity activity = ActivityProvider.getInstance();
+    activity.setName("Renamed");
+
+    when(activityRepository.findById(activity.getId())).thenReturn(Optional.of(currentActivity));
+    when(activityRepository.save(currentActivity)).thenReturn(currentActivity);
+
+    activityService.update(activity, null);
+    assertEquals(4, currentActivity.getCapacity());
+    assertEquals("Renamed", currentActivity.getName());
+
+    activityService.update(activity, 2);
+    assertEquals(2, currentActivity.getCapacity());
+  }
+
   @Test
   void testActivityUpdateOfNonExistingActivityShouldFail() {
     Activity activity = ActivityProvider.getInstance();
@@ -112,7 +130,7 @@ public class ActivityServiceTest {
     when(activityRepository.findById(any(Integer.class))).thenReturn(Optional.empty());
 
     assertThrows(
-        ActivityNotFoundException.class, () -> activityService.update(activity));
+        ActivityNotFoundException.class, () -> activityService.update(activity, null));
   }
 
   @Test
@@ -122,7 +140,7 @@ public class ActivityServiceTest {
     when(activityRepository.findById(any(Integer.class))).thenReturn(Optional.empty());
 
     assertThrows(
-        ActivityNotFoundException.class, () -> activityService.update(activity));
+        ActivityNotFoundException.class, () -> activityService.update(activity, null));
   }
 
   @Test
@@ -2,34 +2,53 @@ package com.prime.rushhour.appointment;
 
 import com.prime.rushhour.exception.UnauthorizedActionException;
 import com.prime.rushhour.provider.ActivityAppointmentProvider;
+import com.prime.rushhour.entity.ActivityAppointment;
 import com.prime.rushhour.entity.Appointment;
 import com.prime.rushhour.entity.User;
 import com.prime.rushhour.exception.AppointmentNotFoundException;
 import com.prime.rushhour.exception.OverlappingAppointmentsException;
 import com.prime.rushhour.provider.AppointmentProvider;
+import com.prime.rushhour.provider.AppointmentSlotProvider;
 import com.prime.rushhour.repository.AppointmentRepository;
+import com.prime.rushhour.schedule.AppointmentOverlapIndex;
+import com.prime.rushhour.schedule.BookedAppointment;
+import com.prime.rushhour.schedule.BookingEngine;
+import com.prime.rushhour.schedule.BookingLock;
+import com.prime.rushhour.schedule.BookingTransactions;
+import com.prime.rushhour.schedule.HourlyUsage;
 import com.prime.rushhour.service.AppointmentService;
+import com.prime.rushhour.service.SlotReservationService;
 import com.prime.rushhour.service.UserService;
+import com.prime.rushhour.service.UtilizationService;
 import com.prime.rushhour.provider.UserDetailsProvider;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.transaction.support.TransactionCallback;
 
 import javax.servlet.http.HttpServletRequest;
+import java.math.BigDecimal;
 import java.security.Principal;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -45,6 +64,29 @@ public class AppointmentServiceTest {
 
   @Mock private UserDetailsService userDetailsService;
 
+  @Mock private AppointmentOverlapIndex overlapIndex;
+
+  @Mock private ApplicationEventPublisher eventPublisher;
+
+  @Mock private SlotReservationService slotReservationService;
+
+  @Mock private BookingEngine bookingEngine;
+
+  @Mock private BookingLock bookingLock;
+
+  @Mock private BookingTransactions bookingTransactions;
+
+  @Mock private UtilizationService utilizationService;
+
+  @BeforeEach
+  void setUp() {
+    lenient()
+        .when(bookingTransactions.execute(any()))
+        .thenAnswer(
+            invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+  }
+
   @Test
   void testAppointmentCreation() {
     Appointment appointment = AppointmentProvider.getInstance();
@@ -57,7 +99,7 @@ public class AppointmentServiceTest {
     Principal userPrincipal = user::getEmail;
 
     when(this.request.getUserPrincipal()).thenReturn(userPrincipal);
-    when(this.userService.findUserByEmail(any(String.class))).thenReturn(Optional.of(user));
+    when(this.userService.findUserReferenceByEmail(any(String.class))).thenReturn(Optional.of(user));
     when(this.appointmentRepository.save(appointment)).thenReturn(appointment);
 
     Optional<Appointment> createdAppointment = appointmentService.create(appointment, request);
@@ -79,16 +121,135 @@ public class AppointmentServiceTest {
     List<Appointment> appointments = AppointmentProvider.getAppointmentsInstance();
 
     when(this.request.getUserPrincipal()).thenReturn(userPrincipal);
-    when(this.userService.findUserByEmail(any(String.class))).thenReturn(Optional.of(user));
-    when(this.appointmentRepository.findOverlappingAppointments(
+    when(this.userService.findUserReferenceByEmail(any(String.class))).thenReturn(Optional.of(user));
+    when(this.appointmentRepository.findOverlappingAppointmentIds(
             any(LocalDateTime.class), any(LocalDateTime.class), any(Integer.class), any()))
-        .thenReturn(appointments);
+        .thenReturn(appointments.stream().map(Appointment::getId).collect(Collectors.toList()));
+    when(this.appointmentRepository.findSlotsByAppointmentIds(any()))
+        .thenReturn(AppointmentSlotProvider.getAppointmentSlotsInstance());
 
     assertThrows(
         OverlappingAppointmentsException.class,
         () -> appointmentService.create(appointment, request));
   }
 
+  @Test
+  void testAppointmentCreationOnlyBlocksActivitySegments() {
+    Appointment appointment = AppointmentProvider.getInstance();
+    List<ActivityAppointment> activityAppointments =
+        ActivityAppointmentProvider.getActivityAppointmentsInstance();
+    activityAppointments.get(1).getActivity().setId(2);
+    appointment.setActivityAppointments(activityAppointments);
+
+    User user = appointment.getUser();
+    Principal userPrincipal = user::getEmail;
+    LocalDateTime secondSegmentStart = appointment.getStartDate().plusHours(1);
+
+    when(this.request.getUserPrincipal()).thenReturn(userPrincipal);
+    when(this.userService.findUserReferenceByEmail(any(String.class))).thenReturn(Optional.of(user));
+    when(this.appointmentRepository.findOverlappingAppointmentIds(
+            any(LocalDateTime.class), any(LocalDateTime.class), any(Integer.class), any()))
+        .thenReturn(List.of(5));
+    when(this.appointmentRepository.findSlotsByAppointmentIds(any()))
+        .thenReturn(
+            List.of(
+                AppointmentSlotProvider.getInstance(
+                    5, user.getId() + 1, 1, secondSegmentStart, secondSegmentStart.plusHours(1))));
+    when(this.appointmentRepository.save(appointment)).thenReturn(appointment);
+
+    Optional<Appointment> createdAppointment = appointmentService.create(appointment, request);
+
+    assertEquals(Optional.of(appointment), createdAppointment);
+    assertEquals(secondSegmentStart, activityAppointments.get(1).getStartDate());
+    assertEquals(secondSegmentStart.plusHours(1), appointment.getEndDate());
+  }
+
+  @Test
+  void testAppointmentCreationOverlappingIndexedAppointmentsShouldFail() {
+    Appointment appointment = AppointmentProvider.getInstance();
+    appointment.setActivityAppointments(
+        ActivityAppointmentProvider.getActivityAppointmentsInstance());
+
+    User user = appointment.getUser();
+    Principal userPrincipal = user::getEmail;
+
+    when(this.request.getUserPrincipal()).thenReturn(userPrincipal);
+    when(this.userService.findUserReferenceByEmail(any(String.class))).thenReturn(Optional.of(user));
+    when(this.overlapIndex.hasOverlap(any(BookedAppointment.class), any(Integer.class)))
+        .thenReturn(Optional.of(true));
+
+    assertThrows(
+        OverlappingAppointmentsException.class,
+        () -> appointmentService.create(appointment, request));
+  }
+
+  @Test
+  void testBatchAppointmentCreationRejectsConflictsWithinBatch() {
+    Appointment first = AppointmentProvider.getInstance();
+    first.setActivityAppointments(ActivityAppointmentProvider.getActivityAppointmentsInstance());
+    Appointment second = AppointmentProvider.getInstance();
+    second.setStartDate(first.getStartDate());
+    second.setActivityAppointments(ActivityAppointmentProvider.getActivityAppointmentsInstance());
+
+    User user = first.getUser();
+    Principal userPrincipal = user::getEmail;
+
+    when(this.request.getUserPrincipal()).thenReturn(userPrincipal);
+    when(this.userService.findUserReferenceByEmail(any(String.class))).thenReturn(Optional.of(user));
+    when(this.appointmentRepository.saveAll(List.of(first))).thenReturn(List.of(first));
+
+    List<Optional<Appointment>> createdAppointments =
+        appointmentService.createAll(List.of(first, second), request);
+
+    assertEquals(List.of(Optional.of(first), Optional.empty()), createdAppointments);
+  }
+
+  @Test
+  void testBatchAppointmentCreationRejectsOnlyItemsWhoseSlotsAreTaken() {
+    Appointment first = AppointmentProvider.getInstance();
+    first.setActivityAppointments(ActivityAppointmentProvider.getActivityAppointmentsInstance());
+    Appointment second = AppointmentProvider.getInstance();
+    second.setStartDate(first.getStartDate().plusDays(1));
+    second.setActivityAppointments(ActivityAppointmentProvider.getActivityAppointmentsInstance());
+
+    User user = first.getUser();
+    Principal userPrincipal = user::getEmail;
+
+    when(this.request.getUserPrincipal()).thenReturn(userPrincipal);
+    when(this.userService.findUserReferenceByEmail(any(String.class))).thenReturn(Optional.of(user));
+    when(this.slotReservationService.findConflicting(any())).thenReturn(Set.of(-2));
+    when(this.appointmentRepository.saveAll(List.of(first))).thenReturn(List.of(first));
+
+    List<Optional<Appointment>> createdAppointments =
+        appointmentService.createAll(List.of(first, second), request);
+
+    assertEquals(List.of(Optional.of(first), Optional.empty()), createdAppointments);
+  }
+
+  @Test
+  void testBatchAppointmentCreationBooksEachItemThroughTheRunningEngine() {
+    Appointment first = AppointmentProvider.getInstance();
+    first.setActivityAppointments(ActivityAppointmentProvider.getActivityAppointmentsInstance());
+    Appointment second = AppointmentProvider.getInstance();
+    second.setActivityAppointments(ActivityAppointmentProvider.getActivityAppointmentsInstance());
+
+    User user = first.getUser();
+    Principal userPrincipal = user::getEmail;
+
+    when(this.request.getUserPrincipal()).thenReturn(userPrincipal);
+    when(this.userService.findUserReferenceByEmail(any(String.class))).thenReturn(Optional.of(user));
+    when(this.bookingEngine.isReady()).thenReturn(true);
+    when(this.bookingEngine.book(any(), any(), anyInt(), any(), any()))
+        .thenReturn(first)
+        .thenThrow(new OverlappingAppointmentsException("Overlapping"));
+
+    List<Optional<Appointment>> createdAppointments =
+        appointmentService.createAll(List.of(first, second), request);
+
+    assertEquals(List.of(Optional.of(first), Optional.empty()), createdAppointments);
+    verify(bookingTransactions, never()).execute(any());
+  }
+
   @Test
   void testFindAppointmentById() {
     Appointment appointment = AppointmentProvider.getInstance();
@@ -134,16 +295,17 @@ public class AppointmentServiceTest {
   @Test
   void testUpdateAppointment() {
     Appointment appointment = AppointmentProvider.getInstance();
+    appointment.setId(42);
     User user = appointment.getUser();
     user.setAppointments(Collections.singletonList(appointment));
 
     Principal userPrincipal = user::getEmail;
     UserDetails userDetails = new UserDetailsProvider();
 
-    when(userService.findUserByEmail(any(String.class))).thenReturn(Optional.of(user));
+    when(userService.findUserReferenceByEmail(any(String.class))).thenReturn(Optional.of(user));
     when(request.getUserPrincipal()).thenReturn(userPrincipal);
     when(userDetailsService.loadUserByUsername(user.getEmail())).thenReturn(userDetails);
-    when(appointmentRepository.findById(any(Integer.class))).thenReturn(Optional.of(appointment));
+    when(appointmentRepository.findById(42)).thenReturn(Optional.of(appointment));
     when(appointmentRepository.save(appointment)).thenReturn(appointment);
 
     Optional<Appointment> updatedAppointment = appointmentService.update(appointment, request);
@@ -151,6 +313,68 @@ public class AppointmentServiceTest {
     assertEquals(Optional.of(appointment), updatedAppointment);
   }
 
+  @Test
+  void testUpdateAppointmentReplacesPreviousUtilization() {
+    Appointment appointment = AppointmentProvider.getInstance();
+    appointment.setStartDate(LocalDateTime.of(2020, 5, 4, 10, 30));
+    ActivityAppointment activityAppointment = ActivityAppointmentProvider.getInstance();
+    activityAppointment.setStartDate(appointment.getStartDate());
+    activityAppointment.setEndDate(appointment.getStartDate().plusHours(1));
+    appointment.setActivityAppointments(new ArrayList<>(List.of(activityAppointment)));
+    User user = appointment.getUser();
+    List<HourlyUsage> previousUsage = HourlyUsage.of(appointment);
+
+    Appointment changes = AppointmentProvider.getInstance();
+    changes.setStartDate(appointment.getStartDate().plusDays(1));
+    changes.setActivityAppointments(
+        new ArrayList<>(List.of(ActivityAppointmentProvider.getInstance())));
+
+    when(userService.findUserReferenceByEmail(any(String.class))).thenReturn(Optional.of(user));
+    when(request.getUserPrincipal()).thenReturn(user::getEmail);
+    when(userDetailsService.loadUserByUsername(user.getEmail()))
+        .thenReturn(new UserDetailsProvider());
+    when(appointmentRepository.findById(any(Integer.class))).thenReturn(Optional.of(appointment));
+    when(appointmentRepository.save(appointment)).thenReturn(appointment);
+
+    appointmentService.update(changes, request);
+
+    assertEquals(
+        LocalDateTime.of(2020, 5, 5, 10, 30),
+        appointment.getActivityAppointments().get(0).getStartDate());
+    verify(utilizationService).record(previousUsage, HourlyUsage.of(appointment));
+  }
+
+  @Test
+  void testDeleteAppointmentSubtractsBookedPrice() {
+    Appointment appointment = AppointmentProvider.getInstance();
+    ActivityAppointment activityAppointment = ActivityAppointmentProvider.getInstance();
+    activityAppointment.setStartDate(LocalDateTime.of(2020, 5, 4, 10, 0));
+    activityAppointment.setEndDate(LocalDateTime.of(2020, 5, 4, 11, 0));
+    activityAppointment.setPrice(new BigDecimal("20.00"));
+    activityAppointment.getActivity().setPrice(new BigDecimal("35.00"));
+    appointment.setActivityAppointments(new ArrayList<>(List.of(activityAppointment)));
+    User user = appointment.getUser();
+
+    when(request.getUserPrincipal()).thenReturn(user::getEmail);
+    when(userDetailsService.loadUserByUsername(user.getEmail()))
+        .thenReturn(new UserDetailsProvider());
+    when(userService.findUserReferenceByEmail(any(String.class))).thenReturn(Optional.of(user));
+    when(appointmentRepository.findById(appointment.getId())).thenReturn(Optional.of(appointment));
+
+    appointmentService.delete(appointment.getId(), request);
+
+    verify(utilizationService)
+        .record(
+            List.of(
+                new HourlyUsage(
+                    activityAppointment.getActivity().getId(),
+                    LocalDateTime.of(2020, 5, 4, 10, 0),
+                    1,
+                    3600,
+                    new BigDecimal("20.00"))),
+            List.of());
+  }
+
   @Test
   void testUpdateAppointmentByNonExistingIdShouldFail() {
     Appointment appointment = AppointmentProvider.getInstance();
@@ -160,7 +384,7 @@ public class AppointmentServiceTest {
     Principal userPrincipal = user::getEmail;
     UserDetails userDetails = new UserDetailsProvider();
 
-    when(userService.findUserByEmail(any(String.class))).thenReturn(Optional.of(user));
+    when(userService.findUserReferenceByEmail(any(String.class))).thenReturn(Optional.of(user));
     when(request.getUserPrincipal()).thenReturn(userPrincipal);
     when(userDetailsService.loadUserByUsername(user.getEmail())).thenReturn(userDetails);
     when(appointmentRepository.findById(any(Integer.class))).thenReturn(Optional.empty());
@@ -176,7 +400,7 @@ public class AppointmentServiceTest {
     Principal userPrincipal = user::getEmail;
     UserDetails userDetails = new UserDetailsProvider();
 
-    when(userService.findUserByEmail(any(String.class))).thenReturn(Optional.of(user));
+    when(userService.findUserReferenceByEmail(any(String.class))).thenReturn(Optional.of(user));
     when(request.getUserPrincipal()).thenReturn(userPrincipal);
     when(userDetailsService.loadUserByUsername(user.getEmail())).thenReturn(userDetails);
     when(appointmentRepository.findById(any(Integer.class))).thenReturn(Optional.of(appointment));
@@ -195,7 +419,7 @@ public class AppointmentServiceTest {
     Principal userPrincipal = user::getEmail;
     UserDetails userDetails = new UserDetailsProvider();
 
-    when(userService.findUserByEmail(any(String.class))).thenReturn(Optional.of(user));
+    when(userService.findUserReferenceByEmail(any(String.class))).thenReturn(Optional.of(user));
     when(request.getUserPrincipal()).thenReturn(userPrincipal);
     when(userDetailsService.loadUserByUsername(user.getEmail())).thenReturn(userDetails);
     when(appointmentRepository.findById(any(Integer.class))).thenReturn(Optional.of(appointment));
@@ -0,0 +1,157 @@
+package com.prime.rushhour.appointment;
+
+import com.prime.rushhour.exception.InvalidDateRangeException;
+import com.prime.rushhour.exception.OverlappingAppointmentsException;
+import com.prime.rushhour.repository.SlotReservationRepository;
+import com.prime.rushhour.schedule.BookedActivity;
+import com.prime.rushhour.schedule.BookedAppointment;
+import com.prime.rushhour.service.SlotReservationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.persistence.EntityManager;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class SlotReservationServiceTest {
+
+  @InjectMocks private SlotReservationService slotReservationService;
+
+  @Mock private SlotReservationRepository slotReservationRepository;
+
+  @Mock private EntityManager entityManager;
+
+  @BeforeEach
+  void setUp() {
+    ReflectionTestUtils.setField(slotReservationService, "slotMinutes", 15);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testReservationClaimsEverySlotTheSegmentTouches() {
+    LocalDateTime start = LocalDateTime.of(2020, 5, 4, 10, 5);
+
+    slotReservationService.reserve(List.of(appointment(start, start.plusMinutes(40))));
+
+    ArgumentCaptor<List<Object[]>> reservations = ArgumentCaptor.forClass(List.class);
+    verify(slotReservationRepository).insertAll(reservations.capture());
+
+    assertEquals(3, reservations.getValue().size());
+    assertArrayEquals(
+        new Object[] {1, 7, Timestamp.valueOf(LocalDateTime.of(2020, 5, 4, 10, 0))},
+        reservations.getValue().get(0));
+    assertArrayEquals(
+        new Object[] {1, 7, Timestamp.valueOf(LocalDateTime.of(2020, 5, 4, 10, 30))},
+        reservations.getValue().get(2));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testBackToBackBookingsClaimDisjointSlots() {
+    LocalDateTime start = LocalDateTime.of(2020, 5, 4, 10, 0);
+    LocalDateTime boundary = start.plusMinutes(30);
+
+    slotReservationService.reserve(List.of(appointment(start, boundary)));
+    slotReservationService.reserve(List.of(appointment(boundary, boundary.plusMinutes(30))));
+
+    ArgumentCaptor<List<Object[]>> reservations = ArgumentCaptor.forClass(List.class);
+    verify(slotReservationRepository, times(2)).insertAll(reservations.capture());
+
+    assertEquals(
+        List.of(start, start.plusMinutes(15)), slotStarts(reservations.getAllValues().get(0)));
+    assertEquals(
+        List.of(boundary, boundary.plusMinutes(15)),
+        slotStarts(reservations.getAllValues().get(1)));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testUnalignedOverlappingBookingsClaimASharedSlot() {
+    LocalDateTime start = LocalDateTime.of(2020, 5, 4, 10, 0);
+
+    slotReservationService.reserve(List.of(appointment(start, start.plusMinutes(20))));
+    slotReservationService.reserve(
+        List.of(appointment(start.plusMinutes(10), start.plusMinutes(40))));
+
+    ArgumentCaptor<List<Object[]>> reservations = ArgumentCaptor.forClass(List.class);
+    verify(slotReservationRepository, times(2)).insertAll(reservations.capture());
+
+    List<LocalDateTime> shared = slotStarts(reservations.getAllValues().get(0));
+    shared.retainAll(slotStarts(reservations.getAllValues().get(1)));
+    assertEquals(List.of(start, start.plusMinutes(15)), shared);
+  }
+
+  @Test
+  void testBookingOffTheSlotGridShouldFail() {
+    LocalDateTime start = LocalDateTime.of(2020, 5, 4, 10, 0);
+
+    slotReservationService.requireOnGrid(appointment(start, start.plusMinutes(30)));
+    assertThrows(
+        InvalidDateRangeException.class,
+        () -> slotReservationService.requireOnGrid(appointment(start, start.plusMinutes(20))));
+    assertThrows(
+        InvalidDateRangeException.class,
+        () ->
+            slotReservationService.requireOnGrid(
+                appointment(start.plusMinutes(5), start.plusMinutes(35))));
+  }
+
+  @Test
+  void testReservationOfTakenSlotShouldFail() {
+    LocalDateTime start = LocalDateTime.of(2020, 5, 4, 10, 0);
+    doThrow(new DuplicateKeyException("Duplicate entry"))
+        .when(slotReservationRepository)
+        .insertAll(any());
+
+    assertThrows(
+        OverlappingAppointmentsException.class,
+        () -> slotReservationService.reserve(List.of(appointment(start, start.plusHours(1)))));
+  }
+
+  @Test
+  void testConflictingBookingsAreThoseClaimingATakenSlot() {
+    LocalDateTime start = LocalDateTime.of(2020, 5, 4, 10, 0);
+    when(slotReservationRepository.findReservedSlots(any(), any(), any()))
+        .thenReturn(
+            List.of(
+                new Object[] {1, Timestamp.valueOf(start.plusMinutes(15))},
+                new Object[] {2, Timestamp.valueOf(start.plusHours(2))}));
+
+    assertEquals(
+        Set.of(-1),
+        slotReservationService.findConflicting(
+            List.of(
+                appointment(start, start.plusMinutes(30)).withId(-1),
+                appointment(start.plusMinutes(30), start.plusHours(1)).withId(-2))));
+  }
+
+  private static List<LocalDateTime> slotStarts(List<Object[]> reservations) {
+    return reservations.stream()
+        .map(reservation -> ((Timestamp) reservation[2]).toLocalDateTime())
+        .collect(Collectors.toList());
+  }
+
+  private static BookedAppointment appointment(LocalDateTime start, LocalDateTime end) {
+    return new BookedAppointment(7, 1, start, end, List.of(new BookedActivity(1, start, end, 1)));
+  }
+}
@@ -0,0 +1,276 @@
+package com.prime.rushhour.benchmark;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the statements Hibernate issues for bookings under IDENTITY ids (one insert and round
+ * trip per row) with pooled-lo table ids (one generator update per block, batched and rewritten
+ * inserts), for single bookings and for a bulk import.
+ *
+ * <p>Run with {@code mvn test -Dtest=BookingInsertBenchmark
+ * -Dbenchmark.url=jdbc:mysql://localhost:3306/rush_hour_benchmark?rewriteBatchedStatements=true
+ * -Dbenchmark.username=root -Dbenchmark.password=...}. The target schema is cleaned first, so it
+ * must be dedicated to the benchmark.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "benchmark.url", matches = ".*benchmark.*")
+public class BookingInsertBenchmark {
+
+  private static final int ACTIVITIES = 5;
+  private static final int BOOKINGS = 2_000;
+  private static final int IMPORTED_APPOINTMENTS = 50_000;
+  private static final int IMPORT_TRANSACTION_SIZE = 1_000;
+  private static final int SEGMENTS_PER_BOOKING = 5;
+  private static final int SEGMENTS_PER_IMPORT = 2;
+  private static final int ALLOCATION_SIZE = 50;
+  private static final LocalDateTime EPOCH = LocalDateTime.of(2020, 1, 1, 8, 0);
+
+  private static final String INSERT_APPOINTMENT =
+      "insert into appointment (start_date, end_date, user_id) values (?, ?, ?)";
+  private static final String INSERT_APPOINTMENT_WITH_ID =
+      "insert into appointment (id, start_date, end_date, user_id) values (?, ?, ?, ?)";
+  private static final String INSERT_SEGMENT =
+      "insert into activity_appointment (activity_id, appointment_id, start_date, end_date) "
+          + "values (?, ?, ?, ?)";
+  private static final String INSERT_SEGMENT_WITH_ID =
+      "insert into activity_appointment (id, activity_id, appointment_id, start_date, end_date) "
+          + "values (?, ?, ?, ?, ?)";
+
+  private final String url = System.getProperty("benchmark.url");
+  private final String username = System.getProperty("benchmark.username", "root");
+  private final String password = System.getProperty("benchmark.password", "");
+
+  private int userId;
+
+  @BeforeAll
+  void seed() throws SQLException {
+    Flyway flyway = Flyway.configure().dataSource(url, username, password).load();
+    flyway.clean();
+    flyway.migrate();
+
+    try (Connection connection = connect();
+        Statement statement = connection.createStatement()) {
+      statement.executeUpdate(
+          "insert into user (first_name, last_name, email, password, role_id) "
+              + "select 'Bench', 'User', 'bench@rushhour.com', 'password', id "
+              + "from role where name = 'ROLE_USER'",
+          Statement.RETURN_GENERATED_KEYS);
+      try (ResultSet keys = statement.getGeneratedKeys()) {
+        keys.next();
+        userId = keys.getInt(1);
+      }
+      for (int id = 1; id <= ACTIVITIES; id++) {
+        statement.executeUpdate(
+            "insert into activity (id, name, duration, price) values ("
+                + id
+                + ", 'Benchmark activity "
+                + id
+                + "', 900000000000, 10)");
+      }
+    }
+  }
+
+  @Test
+  void compareInsertThroughput() throws SQLException {
+    double identityBookings = rowsPerSecond(BOOKINGS, () -> book(false));
+    double pooledBookings = rowsPerSecond(BOOKINGS, () -> book(true));
+    double identityImport = rowsPerSecond(IMPORTED_APPOINTMENTS, () -> bulkImport(false));
+    double pooledImport = rowsPerSecond(IMPORTED_APPOINTMENTS, () -> bulkImport(true));
+
+    System.out.printf(
+        "bookings (%d segments): identity=%.0f/s pooled-lo=%.0f/s; "
+            + "bulk import (%d segments): identity=%.0f/s pooled-lo=%.0f/s%n",
+        SEGMENTS_PER_BOOKING,
+        identityBookings,
+        pooledBookings,
+        SEGMENTS_PER_IMPORT,
+        identityImport,
+        pooledImport);
+
+    assertTrue(pooledImport > identityImport);
+  }
+
+  private void book(boolean pooled) throws SQLException {
+    if (pooled) {
+      resyncIdGenerator();
+    }
+    try (Connection connection = connect();
+        IdBlock appointmentIds = new IdBlock("appointment");
+        IdBlock segmentIds = new IdBlock("activity_appointment")) {
+      connection.setAutoCommit(false);
+      for (int index = 0; index < BOOKINGS; index++) {
+        insert(connection, pooled, appointmentIds, segmentIds, index, SEGMENTS_PER_BOOKING);
+        connection.commit();
+      }
+    }
+  }
+
+  private void bulkImport(boolean pooled) throws SQLException {
+    if (pooled) {
+      resyncIdGenerator();
+    }
+    try (Connection connection = connect();
+        IdBlock appointmentIds = new IdBlock("appointment");
+        IdBlock segmentIds = new IdBlock("activity_appointment")) {
+      connection.setAutoCommit(false);
+      for (int first = 0; first < IMPORTED_APPOINTMENTS; first += IMPORT_TRANSACTION_SIZE) {
+        for (int index = first; index < first + IMPORT_TRANSACTION_SIZE; index++) {
+          insert(connection, pooled, appointmentIds, segmentIds, index, SEGMENTS_PER_IMPORT);
+        }
+        connection.commit();
+      }
+    }
+  }
+
+  // The identity runs insert past the generator's next block, so it is re-seeded afterwards.
+  private void resyncIdGenerator() throws SQLException {
+    try (Connection connection = connect();
+        Statement statement = connection.createStatement()) {
+      for (String table : new String[] {"appointment", "activity_appointment"}) {
+        statement.executeUpdate(
+            "update id_generator set next_val = (select coalesce(max(id), 0) + 1 from "
+                + table
+                + ") where name = '"
+                + table
+                + "'");
+      }
+    }
+  }
+
+  private void insert(
+      Connection connection,
+      boolean pooled,
+      IdBlock appointmentIds,
+      IdBlock segmentIds,
+      int index,
+      int segments)
+      throws SQLException {
+    LocalDateTime startDate = EPOCH.plusMinutes(15L * index * segments);
+    Timestamp start = Timestamp.valueOf(startDate);
+    Timestamp end = Timestamp.valueOf(startDate.plusMinutes(15L * segments));
+
+    if (!pooled) {
+      int appointmentId;
+      try (PreparedStatement statement =
+          connection.prepareStatement(INSERT_APPOINTMENT, Statement.RETURN_GENERATED_KEYS)) {
+        bind(statement, start, end, userId);
+        statement.executeUpdate();
+        try (ResultSet keys = statement.getGeneratedKeys()) {
+          keys.next();
+          appointmentId = keys.getInt(1);
+        }
+      }
+      for (int segment = 0; segment < segments; segment++) {
+        try (PreparedStatement statement =
+            connection.prepareStatement(INSERT_SEGMENT, Statement.RETURN_GENERATED_KEYS)) {
+          bindSegment(statement, appointmentId, startDate, segment);
+          statement.executeUpdate();
+        }
+      }
+      return;
+    }
+
+    int appointmentId = appointmentIds.next();
+    try (PreparedStatement statement = connection.prepareStatement(INSERT_APPOINTMENT_WITH_ID)) {
+      bind(statement, appointmentId, start, end, userId);
+      statement.executeUpdate();
+    }
+    try (PreparedStatement statement = connection.prepareStatement(INSERT_SEGMENT_WITH_ID)) {
+      for (int segment = 0; segment < segments; segment++) {
+        statement.setInt(1, segmentIds.next());
+        bindSegment(statement, appointmentId, startDate, segment);
+        statement.addBatch();
+      }
+      statement.executeBatch();
+    }
+  }
+
+  private void bindSegment(
+      PreparedStatement statement, int appointmentId, LocalDateTime startDate, int segment)
+      throws SQLException {
+    int offset = statement.getParameterMetaData().getParameterCount() - 4;
+    statement.setInt(offset + 1, 1 + segment % ACTIVITIES);
+    statement.setInt(offset + 2, appointmentId);
+    statement.setTimestamp(offset + 3, Timestamp.valueOf(startDate.plusMinutes(15L * segment)));
+    statement.setTimestamp(
+        offset + 4, Timestamp.valueOf(startDate.plusMinutes(15L * segment + 15)));
+  }
+
+  private double rowsPerSecond(int rows, Run run) throws SQLException {
+    long startTime = System.nanoTime();
+    run.run();
+    return rows / ((System.nanoTime() - startTime) / 1e9);
+  }
+
+  private Connection connect() throws SQLException {
+    return DriverManager.getConnection(url, username, password);
+  }
+
+  private static void bind(PreparedStatement statement, Object... parameters)
+      throws SQLException {
+    for (int index = 0; index < parameters.length; index++) {
+      statement.setObject(index + 1, parameters[index]);
+    }
+  }
+
+  private interface Run {
+    void run() throws SQLException;
+  }
+
+  /** Hands out ids the way Hibernate's pooled-lo optimizer does, on its own connection. */
+  private class IdBlock implements AutoCloseable {
+
+    private final String name;
+    private final Connection connection;
+    private int next;
+    private int limit;
+
+    IdBlock(String name) throws SQLException {
+      this.name = name;
+      this.connection = connect();
+    }
+
+    int next() throws SQLException {
+      if (next == limit) {
+        try (PreparedStatement select =
+                connection.prepareStatement(
+                    "select next_val from id_generator where name = ? for update");
+            PreparedStatement update =
+                connection.prepareStatement(
+                    "update id_generator set next_val = ? where name = ?")) {
+          connection.setAutoCommit(false);
+          select.setString(1, name);
+          try (ResultSet resultSet = select.executeQuery()) {
+            resultSet.next();
+            next = resultSet.getInt(1);
+          }
+          limit = next + ALLOCATION_SIZE;
+          bind(update, limit, name);
+          update.executeUpdate();
+          connection.commit();
+        }
+      }
+      return next++;
+    }
+
+    @Override
+    public void close() throws SQLException {
+      connection.close();
+    }
+  }
+}
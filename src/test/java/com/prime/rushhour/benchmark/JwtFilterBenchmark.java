@@ -0,0 +1,97 @@
+package com.prime.rushhour.benchmark;
+
+import com.prime.rushhour.provider.UserProvider;
+import com.prime.rushhour.repository.UserRepository;
+import com.prime.rushhour.security.CustomUserDetails;
+import com.prime.rushhour.security.TokenVersionRegistry;
+import com.prime.rushhour.security.jwt.JwtUtils;
+import com.prime.rushhour.security.jwt.VerifiedToken;
+import com.prime.rushhour.security.jwt.filter.JwtRequestFilter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Measures token verification with and without the verified-token cache, and the whole filter.
+ *
+ * <p>Run with {@code mvn test -Dtest=JwtFilterBenchmark -Dbenchmark.jmh=true}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+  private JwtUtils uncachedJwtUtils;
+  private JwtUtils cachedJwtUtils;
+  private JwtRequestFilter jwtRequestFilter;
+  private String token;
+
+  @Setup
+  public void setUp() {
+    uncachedJwtUtils = new JwtUtils("secret", 3600, 0);
+    cachedJwtUtils = new JwtUtils("secret", 3600, 10_000);
+    token = cachedJwtUtils.generateToken(CustomUserDetails.create(UserProvider.getInstance()));
+
+    UserRepository userRepository = mock(UserRepository.class);
+    when(userRepository.findTokenVersionById(anyInt())).thenReturn(Optional.of(0));
+    jwtRequestFilter =
+        new JwtRequestFilter(
+            cachedJwtUtils, new TokenVersionRegistry(userRepository, 10_000, 60_000));
+  }
+
+  @Benchmark
+  public VerifiedToken verifyWithoutCache() {
+    return uncachedJwtUtils.verify(token);
+  }
+
+  @Benchmark
+  public VerifiedToken verifyWithCache() {
+    return cachedJwtUtils.verify(token);
+  }
+
+  @Benchmark
+  public Object filterRequest() throws ServletException, IOException {
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.addHeader("Authorization", "Bearer " + token);
+    jwtRequestFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+    Object authentication = SecurityContextHolder.getContext().getAuthentication();
+    SecurityContextHolder.clearContext();
+
+    return authentication;
+  }
+
+  @Test
+  @EnabledIfSystemProperty(named = "benchmark.jmh", matches = "true")
+  void runBenchmarks() throws RunnerException {
+    new Runner(new OptionsBuilder().include(JwtFilterBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
@@ -0,0 +1,249 @@
+package com.prime.rushhour.benchmark;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the overlap query before and after the overlap indexes against a million seeded appointments.
+ *
+ * <p>Run with {@code mvn test -Dtest=OverlapQueryBenchmark
+ * -Dbenchmark.url=jdbc:mysql://localhost:3306/rush_hour_benchmark?rewriteBatchedStatements=true
+ * -Dbenchmark.username=root -Dbenchmark.password=...}. The target schema is cleaned first, so it
+ * must be dedicated to the benchmark.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "benchmark.url", matches = ".*benchmark.*")
+public class OverlapQueryBenchmark {
+
+  private static final String LEGACY_QUERY =
+      "Select DISTINCT * from appointment as app "
+          + " join activity_appointment as act_app on act_app.appointment_id = app.id "
+          + " where app.start_date < ? and app.end_date > ? and "
+          + " (act_app.activity_id in (?, ?) or app.user_id = ?)";
+
+  private static final String UNION_QUERY =
+      "select app.id from appointment as app "
+          + " where app.user_id = ? and app.end_date > ? and app.start_date < ? "
+          + " union "
+          + "select act_app.appointment_id from activity_appointment as act_app "
+          + " where act_app.activity_id in (?, ?) "
+          + " and act_app.end_date > ? and act_app.start_date < ?";
+
+  private static final int USERS = 10_000;
+  private static final int ACTIVITIES = 200;
+  private static final int APPOINTMENTS = 1_000_000;
+  private static final int BATCH_SIZE = 5_000;
+  private static final int WARMUP = 50;
+  private static final int ITERATIONS = 500;
+  private static final LocalDateTime EPOCH = LocalDateTime.of(2020, 1, 1, 8, 0);
+
+  private final String url = System.getProperty("benchmark.url");
+  private final String username = System.getProperty("benchmark.username", "root");
+  private final String password = System.getProperty("benchmark.password", "");
+
+  @BeforeAll
+  void seed() throws SQLException {
+    Flyway flyway = Flyway.configure().dataSource(url, username, password).target("3").load();
+    flyway.clean();
+    flyway.migrate();
+
+    try (Connection connection = connect()) {
+      connection.setAutoCommit(false);
+      insertUsers(connection);
+      insertActivities(connection);
+      insertAppointments(connection);
+      connection.commit();
+    }
+  }
+
+  @Test
+  void compareOverlapQueries() throws SQLException {
+    long[] legacy;
+    long[] union;
+
+    try (Connection connection = connect()) {
+      legacy = measure(connection, LEGACY_QUERY, true);
+    }
+
+    Flyway.configure().dataSource(url, username, password).load().migrate();
+
+    try (Connection connection = connect()) {
+      union = measure(connection, UNION_QUERY, false);
+      printPlan(connection);
+    }
+
+    System.out.printf(
+        "overlap query over %d appointments: legacy p50=%dus p99=%dus, union p50=%dus p99=%dus%n",
+        APPOINTMENTS,
+        percentile(legacy, 0.5),
+        percentile(legacy, 0.99),
+        percentile(union, 0.5),
+        percentile(union, 0.99));
+
+    assertTrue(percentile(union, 0.5) < percentile(legacy, 0.5));
+  }
+
+  private long[] measure(Connection connection, String query, boolean legacy)
+      throws SQLException {
+    Random random = new Random(7);
+    long[] latencies = new long[ITERATIONS];
+
+    try (PreparedStatement statement = connection.prepareStatement(query)) {
+      for (int iteration = -WARMUP; iteration < ITERATIONS; iteration++) {
+        LocalDateTime startDate = EPOCH.plusMinutes(15L * random.nextInt(2 * 365 * 40));
+        Timestamp start = Timestamp.valueOf(startDate);
+        Timestamp end = Timestamp.valueOf(startDate.plusHours(1));
+        int userId = 1 + random.nextInt(USERS);
+        int firstActivity = 1 + random.nextInt(ACTIVITIES);
+        int secondActivity = 1 + random.nextInt(ACTIVITIES);
+
+        if (legacy) {
+          bind(statement, end, start, firstActivity, secondActivity, userId);
+        } else {
+          bind(statement, userId, start, end, firstActivity, secondActivity, start, end);
+        }
+
+        long startTime = System.nanoTime();
+        try (ResultSet resultSet = statement.executeQuery()) {
+          while (resultSet.next()) {
+            resultSet.getInt(1);
+          }
+        }
+        if (iteration >= 0) {
+          latencies[iteration] = (System.nanoTime() - startTime) / 1_000;
+        }
+      }
+    }
+
+    return latencies;
+  }
+
+  private void printPlan(Connection connection) throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement("explain " + UNION_QUERY)) {
+      Timestamp start = Timestamp.valueOf(EPOCH.plusDays(100));
+      Timestamp end = Timestamp.valueOf(EPOCH.plusDays(100).plusHours(1));
+      bind(statement, 1, start, end, 1, 2, start, end);
+
+      List<String> keys = new ArrayList<>();
+      try (ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          keys.add(resultSet.getString("table") + ": " + resultSet.getString("key"));
+        }
+      }
+      System.out.println("union query plan: " + keys);
+    }
+  }
+
+  private void insertUsers(Connection connection) throws SQLException {
+    int roleId;
+    try (Statement statement = connection.createStatement();
+        ResultSet resultSet =
+            statement.executeQuery("select id from role where name = 'ROLE_USER'")) {
+      resultSet.next();
+      roleId = resultSet.getInt(1);
+    }
+
+    try (PreparedStatement statement =
+        connection.prepareStatement(
+            "insert into user (id, first_name, last_name, email, password, role_id) "
+                + "values (?, 'Bench', 'User', ?, 'password', ?)")) {
+      for (int id = 1; id <= USERS; id++) {
+        bind(statement, id, "bench" + id + "@rushhour.com", roleId);
+        addBatch(statement, id);
+      }
+      statement.executeBatch();
+    }
+  }
+
+  private void insertActivities(Connection connection) throws SQLException {
+    try (PreparedStatement statement =
+        connection.prepareStatement(
+            "insert into activity (id, name, duration, price) values (?, ?, ?, 10)")) {
+      for (int id = 1; id <= ACTIVITIES; id++) {
+        bind(statement, id, "Benchmark activity " + id, 3_600_000_000_000L);
+        statement.addBatch();
+      }
+      statement.executeBatch();
+    }
+  }
+
+  private void insertAppointments(Connection connection) throws SQLException {
+    Random random = new Random(42);
+    int activityAppointmentId = 1;
+
+    try (PreparedStatement appointments =
+            connection.prepareStatement(
+                "insert into appointment (id, start_date, end_date, user_id) values (?, ?, ?, ?)");
+        PreparedStatement activityAppointments =
+            connection.prepareStatement(
+                "insert into activity_appointment (id, activity_id, appointment_id) "
+                    + "values (?, ?, ?)")) {
+      for (int id = 1; id <= APPOINTMENTS; id++) {
+        LocalDateTime startDate = EPOCH.plusMinutes(15L * random.nextInt(2 * 365 * 40));
+        LocalDateTime endDate = startDate.plusMinutes(30L + 15 * random.nextInt(7));
+        bind(
+            appointments,
+            id,
+            Timestamp.valueOf(startDate),
+            Timestamp.valueOf(endDate),
+            1 + random.nextInt(USERS));
+        appointments.addBatch();
+
+        int activityCount = 1 + random.nextInt(2);
+        for (int index = 0; index < activityCount; index++) {
+          bind(activityAppointments, activityAppointmentId++, 1 + random.nextInt(ACTIVITIES), id);
+          activityAppointments.addBatch();
+        }
+
+        if (id % BATCH_SIZE == 0) {
+          appointments.executeBatch();
+          activityAppointments.executeBatch();
+        }
+      }
+      appointments.executeBatch();
+      activityAppointments.executeBatch();
+    }
+  }
+
+  private Connection connect() throws SQLException {
+    return DriverManager.getConnection(url, username, password);
+  }
+
+  private static void addBatch(PreparedStatement statement, int index) throws SQLException {
+    statement.addBatch();
+    if (index % BATCH_SIZE == 0) {
+      statement.executeBatch();
+    }
+  }
+
+  private static void bind(PreparedStatement statement, Object... parameters)
+      throws SQLException {
+    for (int index = 0; index < parameters.length; index++) {
+      statement.setObject(index + 1, parameters[index]);
+    }
+  }
+
+  private static long percentile(long[] latencies, double percentile) {
+    long[] sorted = Arrays.copyOf(latencies, latencies.length);
+    Arrays.sort(sorted);
+    return sorted[(int) Math.min(sorted.length - 1, Math.round(percentile * sorted.length))];
+  }
+}
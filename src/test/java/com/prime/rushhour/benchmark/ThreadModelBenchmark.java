@@ -0,0 +1,111 @@
+package com.prime.rushhour.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares throughput and p99 latency of two running instances, one on Tomcat's platform thread
+ * pool and one with {@code app.threads.virtual.enabled=true}, as concurrency grows past Tomcat's
+ * 200 worker threads.
+ *
+ * <p>Run with {@code mvn test -Dtest=ThreadModelBenchmark
+ * -Dbenchmark.platform-url=http://localhost:8080 -Dbenchmark.virtual-url=http://localhost:8082
+ * -Dbenchmark.token=...}, using a token issued by {@code POST /api/v1/auth}. Both instances must
+ * point at the same, seeded database and use the same Hikari pool size.
+ */
+@EnabledIfSystemProperty(named = "benchmark.virtual-url", matches = ".+")
+public class ThreadModelBenchmark {
+
+  private static final int[] CONCURRENCY_LEVELS = {50, 200, 1_000, 4_000};
+  private static final int REQUESTS_PER_LEVEL = 20_000;
+  private static final String[] PATHS = {
+    "/api/v1/appointments?pageSize=10", "/api/v1/appointment?id=1"
+  };
+
+  private final String platformUrl = System.getProperty("benchmark.platform-url");
+  private final String virtualUrl = System.getProperty("benchmark.virtual-url");
+  private final String token = System.getProperty("benchmark.token", "");
+
+  private final HttpClient client =
+      HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+  @Test
+  void compareThreadModels() {
+    System.out.printf(
+        "%-10s %12s %14s %10s %8s%n", "threads", "concurrency", "requests/s", "p99 ms", "failed");
+
+    for (int concurrency : CONCURRENCY_LEVELS) {
+      if (platformUrl != null) {
+        print("platform", concurrency, run(platformUrl, concurrency));
+      }
+      print("virtual", concurrency, run(virtualUrl, concurrency));
+    }
+  }
+
+  private double[] run(String baseUrl, int concurrency) {
+    // Warm up connections and JIT before measuring.
+    measure(baseUrl, concurrency, REQUESTS_PER_LEVEL / 10);
+
+    return measure(baseUrl, concurrency, REQUESTS_PER_LEVEL);
+  }
+
+  private double[] measure(String baseUrl, int concurrency, int requests) {
+    Semaphore inFlight = new Semaphore(concurrency);
+    List<Long> latencies = Collections.synchronizedList(new ArrayList<>(requests));
+    AtomicInteger failed = new AtomicInteger();
+    List<CompletableFuture<?>> responses = new ArrayList<>(requests);
+
+    long startTime = System.nanoTime();
+    for (int i = 0; i < requests; i++) {
+      inFlight.acquireUninterruptibly();
+      HttpRequest request =
+          HttpRequest.newBuilder(URI.create(baseUrl + PATHS[i % PATHS.length]))
+              .header("Authorization", "Bearer " + token)
+              .timeout(Duration.ofSeconds(30))
+              .build();
+      long sentTime = System.nanoTime();
+      responses.add(
+          client
+              .sendAsync(request, HttpResponse.BodyHandlers.discarding())
+              .whenComplete(
+                  (response, exc) -> {
+                    latencies.add(System.nanoTime() - sentTime);
+                    if (exc != null || response.statusCode() != 200) {
+                      failed.incrementAndGet();
+                    }
+                    inFlight.release();
+                  }));
+    }
+    CompletableFuture.allOf(responses.toArray(new CompletableFuture<?>[0]))
+        .exceptionally(exc -> null)
+        .join();
+    long elapsed = System.nanoTime() - startTime;
+
+    List<Long> sorted = new ArrayList<>(latencies);
+    Collections.sort(sorted);
+    assertTrue(failed.get() < requests, "Every request to " + baseUrl + " failed");
+
+    return new double[] {
+      requests * 1e9 / elapsed, sorted.get((int) (sorted.size() * 0.99)) / 1e6, failed.get()
+    };
+  }
+
+  private void print(String threads, int concurrency, double[] result) {
+    System.out.printf(
+        "%-10s %12d %14.0f %10.1f %8.0f%n", threads, concurrency, result[0], result[1], result[2]);
+  }
+}
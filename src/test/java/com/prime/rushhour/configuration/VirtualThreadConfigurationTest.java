@@ -0,0 +1,38 @@
+package com.prime.rushhour.configuration;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class VirtualThreadConfigurationTest {
+
+  private static final boolean VIRTUAL_THREADS_AVAILABLE = Runtime.version().feature() >= 21;
+
+  @Test
+  void testExecutorRunsTasksOnVirtualThreads() throws Exception {
+    assumeTrue(VIRTUAL_THREADS_AVAILABLE);
+
+    ExecutorService executor = VirtualThreadConfiguration.newVirtualThreadPerTaskExecutor();
+    try {
+      Thread thread = executor.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+
+      assertTrue((Boolean) Thread.class.getMethod("isVirtual").invoke(thread));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void testFailsFastOnOlderRuntimes() {
+    assumeFalse(VIRTUAL_THREADS_AVAILABLE);
+
+    assertThrows(
+        IllegalStateException.class, VirtualThreadConfiguration::newVirtualThreadPerTaskExecutor);
+  }
+}
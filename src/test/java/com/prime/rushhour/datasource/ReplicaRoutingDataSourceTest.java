@@ -0,0 +1,99 @@
+package com.prime.rushhour.datasource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.lenient;
+
+@ExtendWith(MockitoExtension.class)
+public class ReplicaRoutingDataSourceTest {
+
+  @Mock private ReplicaPool replicaPool;
+
+  private ReplicaRoutingDataSource routingDataSource;
+
+  @BeforeEach
+  void setUp() {
+    routingDataSource =
+        new ReplicaRoutingDataSource(replicaPool, new ReadYourWritesTracker(Duration.ofMinutes(1)));
+    lenient().when(replicaPool.nextHealthyReplica()).thenReturn(Optional.of(ReplicaPool.keyOf(0)));
+
+    SecurityContextHolder.getContext()
+        .setAuthentication(
+            new UsernamePasswordAuthenticationToken("user@rushhour.com", null, List.of()));
+  }
+
+  @AfterEach
+  void tearDown() {
+    SecurityContextHolder.clearContext();
+    RequestContextHolder.resetRequestAttributes();
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    TransactionSynchronizationManager.setActualTransactionActive(false);
+  }
+
+  @Test
+  void testReadOnlyTransactionOfGetRequestUsesReplica() {
+    inRequest("GET");
+    inTransaction(true);
+
+    assertEquals(ReplicaPool.keyOf(0), routingDataSource.determineCurrentLookupKey());
+  }
+
+  @Test
+  void testReadOnlyTransactionOfWriteRequestUsesPrimary() {
+    inRequest("PUT");
+    inTransaction(true);
+
+    assertEquals(ReplicaRoutingDataSource.PRIMARY, routingDataSource.determineCurrentLookupKey());
+  }
+
+  @Test
+  void testReadsFallBackToPrimaryWithoutHealthyReplica() {
+    inRequest("GET");
+    inTransaction(true);
+    lenient().when(replicaPool.nextHealthyReplica()).thenReturn(Optional.empty());
+
+    assertEquals(ReplicaRoutingDataSource.PRIMARY, routingDataSource.determineCurrentLookupKey());
+  }
+
+  @Test
+  void testUserReadsOwnWritesFromPrimary() {
+    inRequest("POST");
+    inTransaction(false);
+    assertEquals(ReplicaRoutingDataSource.PRIMARY, routingDataSource.determineCurrentLookupKey());
+
+    inRequest("GET");
+    inTransaction(true);
+    assertEquals(ReplicaRoutingDataSource.PRIMARY, routingDataSource.determineCurrentLookupKey());
+
+    SecurityContextHolder.getContext()
+        .setAuthentication(
+            new UsernamePasswordAuthenticationToken("other@rushhour.com", null, List.of()));
+    assertEquals(ReplicaPool.keyOf(0), routingDataSource.determineCurrentLookupKey());
+  }
+
+  private static void inRequest(String method) {
+    RequestContextHolder.setRequestAttributes(
+        new ServletRequestAttributes(new MockHttpServletRequest(method, "/api/v1/appointments")));
+  }
+
+  private static void inTransaction(boolean readOnly) {
+    TransactionSynchronizationManager.setActualTransactionActive(true);
+    TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+  }
+}
@@ -0,0 +1,127 @@
+package com.prime.rushhour.persistence;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.prime.rushhour.entity.Activity;
+import com.prime.rushhour.entity.ActivityAppointment;
+import com.prime.rushhour.entity.Appointment;
+import com.prime.rushhour.entity.Role;
+import com.prime.rushhour.entity.User;
+import com.prime.rushhour.provider.ActivityProvider;
+import com.prime.rushhour.provider.RoleProvider;
+import com.prime.rushhour.provider.UserProvider;
+import com.prime.rushhour.service.AppointmentExportService;
+import com.prime.rushhour.service.AppointmentExportService.ExportFormat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@PersistenceTest
+@TestPropertySource(properties = "app.export.fetch-size=10")
+@Import({AppointmentExportService.class, JacksonAutoConfiguration.class})
+public class AppointmentExportTest {
+
+  private static final int APPOINTMENTS = 25;
+  private static final LocalDateTime START_DATE = LocalDateTime.of(2020, 5, 4, 10, 0);
+
+  @Autowired private TestEntityManager testEntityManager;
+  @Autowired private AppointmentExportService appointmentExportService;
+  @Autowired private ObjectMapper objectMapper;
+
+  private List<Activity> activities;
+
+  @BeforeEach
+  void setUp() {
+    Role role = testEntityManager.persist(RoleProvider.getTransientInstance());
+
+    User user =
+        testEntityManager.persist(UserProvider.getTransientInstance(role, "user@rushhour.com"));
+
+    activities = new ArrayList<>();
+    for (int index = 0; index < 3; index++) {
+      activities.add(
+          testEntityManager.persist(
+              ActivityProvider.getTransientInstance(
+                  "Activity " + index, Duration.ofMinutes(30), BigDecimal.TEN)));
+    }
+
+    for (int index = 0; index < APPOINTMENTS; index++) {
+      Appointment appointment = new Appointment();
+      appointment.setUser(user);
+      appointment.setStartDate(START_DATE.plusHours(index));
+      appointment.setEndDate(START_DATE.plusHours(index + 1));
+      for (int offset = 0; offset < 2; offset++) {
+        ActivityAppointment activityAppointment = new ActivityAppointment();
+        activityAppointment.setActivity(activities.get((index + offset) % activities.size()));
+        activityAppointment.setAppointment(appointment);
+        activityAppointment.setStartDate(appointment.getStartDate().plusMinutes(30L * offset));
+        activityAppointment.setEndDate(appointment.getStartDate().plusMinutes(30L * offset + 30));
+        appointment.addActivityAppointment(activityAppointment);
+      }
+      testEntityManager.persist(appointment);
+    }
+
+    testEntityManager.flush();
+    testEntityManager.clear();
+  }
+
+  @Test
+  void testNdjsonExportWritesOneLinePerAppointmentWithItsSegments() throws IOException {
+    String[] lines = export(ExportFormat.NDJSON, null, null, null);
+
+    assertEquals(APPOINTMENTS, lines.length);
+    JsonNode first = objectMapper.readTree(lines[0]);
+    assertEquals(2, first.get("activities").size());
+    assertEquals(activities.get(1).getId(), first.get("activities").get(1).get("id").asInt());
+    assertEquals(
+        START_DATE.plusMinutes(30),
+        LocalDateTime.parse(first.get("activities").get(1).get("startDate").asText()));
+  }
+
+  @Test
+  void testExportIsFilteredByDateRangeAndActivity() throws IOException {
+    String[] lines =
+        export(
+            ExportFormat.NDJSON,
+            START_DATE.plusHours(3),
+            START_DATE.plusHours(9),
+            activities.get(0).getId());
+
+    assertEquals(4, lines.length);
+    for (String line : lines) {
+      assertEquals(2, objectMapper.readTree(line).get("activities").size());
+    }
+  }
+
+  @Test
+  void testCsvExportWritesOneRowPerSegment() throws IOException {
+    String[] lines = export(ExportFormat.CSV, null, START_DATE.plusHours(2), null);
+
+    assertEquals(1 + 2 * 2, lines.length);
+    assertEquals(7, lines[1].split(",").length);
+  }
+
+  private String[] export(
+      ExportFormat format, LocalDateTime from, LocalDateTime to, Integer activityId)
+      throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    appointmentExportService.export(format, from, to, activityId, outputStream);
+
+    return outputStream.toString(StandardCharsets.UTF_8).split("\n");
+  }
+}
@@ -0,0 +1,80 @@
+package com.prime.rushhour.persistence;
+
+import com.prime.rushhour.entity.Activity;
+import com.prime.rushhour.entity.ActivityAppointment;
+import com.prime.rushhour.entity.Appointment;
+import com.prime.rushhour.entity.Role;
+import com.prime.rushhour.entity.User;
+import com.prime.rushhour.provider.ActivityProvider;
+import com.prime.rushhour.provider.RoleProvider;
+import com.prime.rushhour.provider.UserProvider;
+import com.prime.rushhour.repository.AppointmentRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@PersistenceTest
+public class BatchInsertTest {
+
+  private static final int APPOINTMENTS = 40;
+  private static final int SEGMENTS = 5;
+
+  @Autowired private TestEntityManager testEntityManager;
+  @Autowired private EntityManagerFactory entityManagerFactory;
+  @Autowired private AppointmentRepository appointmentRepository;
+
+  @Test
+  void testBookingsAreInsertedInJdbcBatches() {
+    Role role = testEntityManager.persist(RoleProvider.getTransientInstance());
+
+    User user =
+        testEntityManager.persist(UserProvider.getTransientInstance(role, "user@rushhour.com"));
+
+    Activity activity =
+        testEntityManager.persist(
+            ActivityProvider.getTransientInstance(
+                "Activity", Duration.ofMinutes(15), BigDecimal.TEN));
+    testEntityManager.flush();
+
+    Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    statistics.clear();
+
+    List<Appointment> appointments = new ArrayList<>();
+    LocalDateTime startDate = LocalDateTime.of(2020, 5, 4, 10, 0);
+    for (int index = 0; index < APPOINTMENTS; index++) {
+      Appointment appointment = new Appointment();
+      appointment.setUser(user);
+      appointment.setStartDate(startDate.plusHours(index));
+      appointment.setEndDate(startDate.plusHours(index).plusMinutes(15L * SEGMENTS));
+      for (int segment = 0; segment < SEGMENTS; segment++) {
+        ActivityAppointment activityAppointment = new ActivityAppointment();
+        activityAppointment.setActivity(activity);
+        activityAppointment.setAppointment(appointment);
+        activityAppointment.setStartDate(appointment.getStartDate().plusMinutes(15L * segment));
+        activityAppointment.setEndDate(appointment.getStartDate().plusMinutes(15L * segment + 15));
+        appointment.addActivityAppointment(activityAppointment);
+      }
+      appointments.add(appointment);
+    }
+
+    List<Appointment> savedAppointments = appointmentRepository.saveAll(appointments);
+    assertTrue(savedAppointments.stream().allMatch(appointment -> appointment.getId() > 0));
+    testEntityManager.flush();
+
+    assertEquals(APPOINTMENTS * (1 + SEGMENTS), statistics.getEntityInsertCount());
+    // One batched insert per table; with IDENTITY ids every row needed its own statement.
+    assertEquals(2, statistics.getPrepareStatementCount());
+  }
+}
@@ -0,0 +1,198 @@
+package com.prime.rushhour.persistence;
+
+import com.prime.rushhour.entity.Activity;
+import com.prime.rushhour.entity.ActivityAppointment;
+import com.prime.rushhour.entity.Appointment;
+import com.prime.rushhour.entity.Role;
+import com.prime.rushhour.entity.User;
+import com.prime.rushhour.mapper.Mapper;
+import com.prime.rushhour.provider.ActivityProvider;
+import com.prime.rushhour.provider.RoleProvider;
+import com.prime.rushhour.provider.UserProvider;
+import com.prime.rushhour.repository.ActivityRepository;
+import com.prime.rushhour.repository.AppointmentRepository;
+import com.prime.rushhour.repository.UserRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@PersistenceTest
+public class FetchPlanTest {
+
+  private static final int USERS = 60;
+  private static final int ACTIVITIES = 40;
+  private static final int LARGE_PAGE = 40;
+
+  @Autowired private TestEntityManager testEntityManager;
+  @Autowired private EntityManagerFactory entityManagerFactory;
+  @Autowired private AppointmentRepository appointmentRepository;
+  @Autowired private ActivityRepository activityRepository;
+  @Autowired private UserRepository userRepository;
+
+  private final Mapper mapper = Mapper.INSTANCE;
+  private Statistics statistics;
+  private int firstAppointmentId;
+  private int firstActivityId;
+  private int firstUserId;
+
+  @BeforeEach
+  void setUp() {
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+    Role role = testEntityManager.persist(RoleProvider.getTransientInstance());
+
+    List<Activity> activities = new ArrayList<>();
+    for (int index = 0; index < ACTIVITIES; index++) {
+      activities.add(
+          testEntityManager.persist(
+              ActivityProvider.getTransientInstance(
+                  "Activity " + index, Duration.ofMinutes(30), BigDecimal.TEN)));
+    }
+
+    LocalDateTime startDate = LocalDateTime.of(2020, 5, 4, 10, 0);
+    for (int index = 0; index < USERS; index++) {
+      User user =
+          testEntityManager.persist(
+              UserProvider.getTransientInstance(role, "user" + index + "@rushhour.com"));
+
+      Appointment appointment = new Appointment();
+      appointment.setUser(user);
+      appointment.setStartDate(startDate.plusHours(index));
+      appointment.setEndDate(startDate.plusHours(index + 1));
+      for (int offset = 0; offset < 2; offset++) {
+        ActivityAppointment activityAppointment = new ActivityAppointment();
+        activityAppointment.setActivity(activities.get((index + offset) % ACTIVITIES));
+        activityAppointment.setAppointment(appointment);
+        activityAppointment.setStartDate(appointment.getStartDate().plusMinutes(30L * offset));
+        activityAppointment.setEndDate(appointment.getStartDate().plusMinutes(30L * offset + 30));
+        appointment.addActivityAppointment(activityAppointment);
+      }
+      testEntityManager.persist(appointment);
+
+      if (index == 0) {
+        firstAppointmentId = appointment.getId();
+        firstUserId = user.getId();
+      }
+    }
+    firstActivityId = activities.get(0).getId();
+
+    testEntityManager.flush();
+  }
+
+  @Test
+  void testAppointmentListingQueryCountDoesNotGrowWithPageSize() {
+    assertConstantQueryCount(
+        pageSize ->
+            appointmentRepository
+                .findAll(PageRequest.of(0, pageSize, Sort.by("id")))
+                .forEach(this::mapAppointment));
+  }
+
+  @Test
+  void testActivityListingQueryCountDoesNotGrowWithPageSize() {
+    assertConstantQueryCount(
+        pageSize ->
+            activityRepository
+                .findAll(PageRequest.of(0, pageSize, Sort.by("id")))
+                .forEach(this::mapActivity));
+  }
+
+  @Test
+  void testUserListingQueryCountDoesNotGrowWithPageSize() {
+    assertConstantQueryCount(
+        pageSize ->
+            mapper.usersToUserDtos(
+                userRepository.findAll(PageRequest.of(0, pageSize, Sort.by("id"))).getContent()));
+  }
+
+  @Test
+  void testByIdEndpointsLoadInOneQuery() {
+    assertEquals(
+        1,
+        countQueries(
+            () -> mapAppointment(
+                appointmentRepository.findWithActivitiesById(firstAppointmentId).get())));
+    assertEquals(
+        1,
+        countQueries(
+            () -> mapActivity(activityRepository.findWithAppointmentsById(firstActivityId).get())));
+    assertEquals(
+        1,
+        countQueries(
+            () -> mapper.userToUserDto(userRepository.findWithAppointmentsById(firstUserId).get())));
+  }
+
+  @Test
+  void testSegmentsLoadInScheduleOrder() {
+    Appointment appointment = appointmentRepository.findById(firstAppointmentId).get();
+    List<ActivityAppointment> segments = appointment.getActivityAppointments();
+    // Swap the schedule so the segment inserted last now runs first.
+    LocalDateTime startDate = appointment.getStartDate();
+    segments.get(0).setStartDate(startDate.plusMinutes(30));
+    segments.get(0).setEndDate(startDate.plusMinutes(60));
+    segments.get(1).setStartDate(startDate);
+    segments.get(1).setEndDate(startDate.plusMinutes(30));
+    int laterId = segments.get(0).getId();
+    testEntityManager.flush();
+    testEntityManager.clear();
+
+    List<ActivityAppointment> reloaded =
+        appointmentRepository
+            .findWithActivitiesById(firstAppointmentId)
+            .get()
+            .getActivityAppointments();
+
+    assertEquals(startDate, reloaded.get(0).getStartDate());
+    assertEquals(laterId, reloaded.get(1).getId());
+  }
+
+  private void assertConstantQueryCount(PageLoader pageLoader) {
+    long smallPage = countQueries(() -> pageLoader.load(2));
+    long largePage = countQueries(() -> pageLoader.load(LARGE_PAGE));
+
+    assertEquals(smallPage, largePage);
+    assertTrue(largePage <= 4, "Expected at most 4 queries but was " + largePage);
+  }
+
+  private long countQueries(Runnable request) {
+    testEntityManager.clear();
+    statistics.clear();
+    request.run();
+    return statistics.getPrepareStatementCount();
+  }
+
+  // Mirrors the association walk done by AppointmentController.
+  private void mapAppointment(Appointment appointment) {
+    mapper.appointmentToAppointmentDto(appointment);
+    appointment.getActivityAppointments().stream()
+        .map(ActivityAppointment::getActivity)
+        .forEach(mapper::activityToActivityDtoWithoutAppointments);
+  }
+
+  // Mirrors the association walk done by ActivityController.
+  private void mapActivity(Activity activity) {
+    mapper.activityToActivityDto(activity);
+    activity.getActivityAppointments().stream()
+        .map(ActivityAppointment::getAppointment)
+        .forEach(mapper::appointmentToAppointmentDtoWithoutActivities);
+  }
+
+  private interface PageLoader {
+    void load(int pageSize);
+  }
+}
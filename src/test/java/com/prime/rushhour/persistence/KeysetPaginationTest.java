@@ -0,0 +1,139 @@
+package com.prime.rushhour.persistence;
+
+import com.prime.rushhour.entity.Activity;
+import com.prime.rushhour.entity.User;
+import com.prime.rushhour.exception.InvalidCursorException;
+import com.prime.rushhour.pagination.Cursor;
+import com.prime.rushhour.pagination.KeysetPage;
+import com.prime.rushhour.provider.ActivityProvider;
+import com.prime.rushhour.repository.KeysetRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@PersistenceTest
+@Import(KeysetRepository.class)
+public class KeysetPaginationTest {
+
+  private static final int ACTIVITIES = 23;
+
+  @Autowired private TestEntityManager testEntityManager;
+  @Autowired private KeysetRepository keysetRepository;
+
+  private List<Activity> activities;
+
+  @BeforeEach
+  void setUp() {
+    activities = new ArrayList<>();
+    for (int index = 0; index < ACTIVITIES; index++) {
+      activities.add(
+          testEntityManager.persist(
+              ActivityProvider.getTransientInstance(
+                  "Activity " + index, Duration.ofMinutes(30), BigDecimal.valueOf(index % 4))));
+    }
+    testEntityManager.flush();
+  }
+
+  @Test
+  void testPagesWalkTiedSortKeysInStableOrderWithoutGaps() {
+    List<Integer> expectedIds =
+        activities.stream()
+            .sorted(Comparator.comparing(Activity::getPrice).thenComparing(Activity::getId))
+            .map(Activity::getId)
+            .collect(Collectors.toList());
+
+    List<Integer> seenIds = new ArrayList<>();
+
+    assertEquals(5, walkByPrice(seenIds));
+    assertEquals(expectedIds, seenIds);
+  }
+
+  @Test
+  void testRowsWithoutSortValueArePagedFirstWithoutGaps() {
+    List<Integer> expectedIds = new ArrayList<>();
+    for (int index = 0; index < 7; index++) {
+      Activity activity =
+          testEntityManager.persist(
+              ActivityProvider.getTransientInstance(
+                  "Unpriced " + index, Duration.ofMinutes(30), null));
+      expectedIds.add(activity.getId());
+    }
+    testEntityManager.flush();
+    activities.stream()
+        .sorted(Comparator.comparing(Activity::getPrice).thenComparing(Activity::getId))
+        .forEach(activity -> expectedIds.add(activity.getId()));
+
+    List<Integer> seenIds = new ArrayList<>();
+    walkByPrice(seenIds);
+
+    assertEquals(expectedIds, seenIds);
+  }
+
+  @Test
+  void testUserSecretsAreNotSortKeys() {
+    assertThrows(
+        InvalidCursorException.class,
+        () -> keysetRepository.findPage(User.class, "password", "", 5));
+    assertThrows(
+        InvalidCursorException.class,
+        () -> keysetRepository.findPage(User.class, "tokenVersion", "", 5));
+  }
+
+  @Test
+  void testLastPageHasNoNextCursor() {
+    KeysetPage<Activity> page = keysetRepository.findPage(Activity.class, "id", "", ACTIVITIES);
+
+    assertEquals(ACTIVITIES, page.getContent().size());
+    assertFalse(page.getNextCursor().isPresent());
+  }
+
+  @Test
+  void testCursorIssuedForAnotherSortIsRejected() {
+    String cursor = new Cursor("name", "Activity 3", activities.get(3).getId()).encode();
+
+    assertThrows(
+        InvalidCursorException.class,
+        () -> keysetRepository.findPage(Activity.class, "price", cursor, 5));
+  }
+
+  @Test
+  void testCursorWithoutSortValueRoundTrips() {
+    Cursor cursor = Cursor.decode(new Cursor("price", null, 3).encode());
+
+    assertNull(cursor.getValue());
+    assertEquals("null", Cursor.decode(new Cursor("name", "null", 3).encode()).getValue());
+  }
+
+  @Test
+  void testUnsortableAttributeIsRejected() {
+    assertThrows(
+        InvalidCursorException.class,
+        () -> keysetRepository.findPage(Activity.class, "activityAppointments", "", 5));
+  }
+
+  private int walkByPrice(List<Integer> seenIds) {
+    String cursor = "";
+    int pages = 0;
+    while (cursor != null) {
+      KeysetPage<Activity> page = keysetRepository.findPage(Activity.class, "price", cursor, 5);
+      page.getContent().forEach(activity -> seenIds.add(activity.getId()));
+      cursor = page.getNextCursor().orElse(null);
+      pages++;
+    }
+    return pages;
+  }
+}
@@ -0,0 +1,28 @@
+package com.prime.rushhour.persistence;
+
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * JPA slice against an H2 schema generated from the entities. The second-level cache is off so
+ * statement counts reflect the mapping alone; tests needing extra properties add them with
+ * {@code @TestPropertySource}, which takes precedence over the ones below.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+@DataJpaTest(
+    properties = {
+      "spring.flyway.enabled=false",
+      "spring.jpa.hibernate.ddl-auto=create-drop",
+      "spring.jpa.properties.hibernate.globally_quoted_identifiers=true",
+      "spring.jpa.properties.hibernate.cache.use_second_level_cache=false"
+    })
+public @interface PersistenceTest {}
@@ -0,0 +1,89 @@
+package com.prime.rushhour.persistence;
+
+import com.prime.rushhour.configuration.SecondLevelCacheConfiguration;
+import com.prime.rushhour.entity.Activity;
+import com.prime.rushhour.provider.ActivityProvider;
+import com.prime.rushhour.provider.RoleProvider;
+import com.prime.rushhour.repository.ActivityRepository;
+import com.prime.rushhour.repository.RoleRepository;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+import java.math.BigDecimal;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@PersistenceTest
+@TestPropertySource(
+    properties = "spring.jpa.properties.hibernate.cache.use_second_level_cache=true")
+@Import(SecondLevelCacheConfiguration.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class SecondLevelCacheTest {
+
+  @Autowired private EntityManagerFactory entityManagerFactory;
+  @Autowired private RoleRepository roleRepository;
+  @Autowired private ActivityRepository activityRepository;
+
+  private Statistics statistics;
+  private Activity activity;
+
+  @BeforeEach
+  void setUp() {
+    entityManagerFactory.getCache().evictAll();
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+    roleRepository.save(RoleProvider.getTransientInstance());
+    activity =
+        activityRepository.save(
+            ActivityProvider.getTransientInstance(
+                "Activity", Duration.ofMinutes(30), BigDecimal.TEN));
+
+    statistics.clear();
+  }
+
+  @AfterEach
+  void tearDown() {
+    activityRepository.deleteAll();
+    roleRepository.deleteAll();
+  }
+
+  @Test
+  void testRoleLookupByNameIsServedFromQueryCache() {
+    roleRepository.findByName("ROLE_USER");
+    roleRepository.findByName("ROLE_USER");
+
+    assertEquals(1, statistics.getQueryCacheHitCount());
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  void testActivityLoadIsServedFromEntityCache() {
+    activityRepository.findById(activity.getId());
+    activityRepository.findById(activity.getId());
+
+    assertEquals(
+        1, statistics.getDomainDataRegionStatistics(Activity.class.getName()).getHitCount());
+    assertEquals(1, statistics.getPrepareStatementCount());
+  }
+
+  @Test
+  void testActivityWriteInvalidatesCachedQueryResults() {
+    activityRepository.findByName("Renamed");
+
+    activity.setName("Renamed");
+    activityRepository.save(activity);
+
+    assertTrue(activityRepository.findByName("Renamed").isPresent());
+  }
+}
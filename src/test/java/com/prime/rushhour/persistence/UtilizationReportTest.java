@@ -0,0 +1,150 @@
+package com.prime.rushhour.persistence;
+
+import com.prime.rushhour.entity.Activity;
+import com.prime.rushhour.entity.ActivityAppointment;
+import com.prime.rushhour.entity.Appointment;
+import com.prime.rushhour.entity.Role;
+import com.prime.rushhour.entity.User;
+import com.prime.rushhour.provider.ActivityProvider;
+import com.prime.rushhour.provider.RoleProvider;
+import com.prime.rushhour.provider.UserProvider;
+import com.prime.rushhour.repository.ActivityUsageRepository;
+import com.prime.rushhour.schedule.ActivityUtilization;
+import com.prime.rushhour.schedule.HourlyUsage;
+import com.prime.rushhour.service.UtilizationService;
+import com.prime.rushhour.service.UtilizationService.Granularity;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@PersistenceTest
+@TestPropertySource(
+    properties = {
+      "spring.datasource.url=jdbc:h2:mem:utilization;MODE=MySQL;DATABASE_TO_LOWER=TRUE",
+      "app.reports.max-days=31",
+      "app.reports.backfill-on-startup=false"
+    })
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({UtilizationService.class, ActivityUsageRepository.class})
+@Sql("classpath:db/migration/V8__create_activity_hourly_usage.sql")
+@Sql(
+    statements = "DROP TABLE activity_hourly_usage",
+    executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+public class UtilizationReportTest {
+
+  private static final LocalDate DAY = LocalDate.of(2020, 5, 4);
+
+  @Autowired private TestEntityManager testEntityManager;
+  @Autowired private UtilizationService utilizationService;
+
+  private User user;
+  private Activity activity;
+
+  @BeforeEach
+  void setUp() {
+    Role role = testEntityManager.persist(RoleProvider.getTransientInstance());
+
+    user = testEntityManager.persist(UserProvider.getTransientInstance(role, "user@rushhour.com"));
+
+    activity =
+        ActivityProvider.getTransientInstance(
+            "Activity", Duration.ofMinutes(90), new BigDecimal("20.00"));
+    activity.setCapacity(2);
+    testEntityManager.persist(activity);
+  }
+
+  @Test
+  void testBackfillAndIncrementalChangesAgree() {
+    persistAppointment(10, 30);
+    utilizationService.backfill(DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay());
+
+    Appointment appointment = persistAppointment(11, 0);
+    utilizationService.record(List.of(), HourlyUsage.of(appointment));
+
+    assertEquals(
+        List.of(
+            new ActivityUtilization(
+                activity.getId(),
+                "Activity",
+                DAY.atStartOfDay(),
+                2,
+                180,
+                180.0 / (2 * 24 * 60),
+                new BigDecimal("40.00"))),
+        utilizationService.findUtilization(
+            DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay(), Granularity.DAY, null));
+
+    utilizationService.record(HourlyUsage.of(appointment), List.of());
+
+    List<ActivityUtilization> hourly =
+        utilizationService.findUtilization(
+            DAY.atTime(10, 0), DAY.atTime(13, 0), Granularity.HOUR, activity.getId());
+
+    assertEquals(2, hourly.size());
+    assertEquals(DAY.atTime(10, 0), hourly.get(0).getPeriodStart());
+    assertEquals(1, hourly.get(0).getBookings());
+    assertEquals(30, hourly.get(0).getBookedMinutes());
+    assertEquals(60, hourly.get(1).getBookedMinutes());
+    assertEquals(0.5, hourly.get(1).getOccupancy());
+  }
+
+  @Test
+  void testReconcileRecomputesRecentHours() {
+    LocalDateTime tomorrow = LocalDateTime.now().truncatedTo(ChronoUnit.HOURS).plusDays(1);
+    persistAppointment(tomorrow);
+    utilizationService.record(
+        List.of(),
+        HourlyUsage.ofSegment(
+            activity.getId(), BigDecimal.TEN, tomorrow.minusHours(3), tomorrow.minusHours(2)));
+
+    utilizationService.reconcile();
+
+    List<ActivityUtilization> hourly =
+        utilizationService.findUtilization(
+            tomorrow.minusHours(3), tomorrow.plusHours(3), Granularity.HOUR, activity.getId());
+
+    assertEquals(2, hourly.size());
+    assertEquals(tomorrow, hourly.get(0).getPeriodStart());
+    assertEquals(1, hourly.get(0).getBookings());
+    assertEquals(new BigDecimal("20.00"), hourly.get(0).getRevenue());
+    assertEquals(30, hourly.get(1).getBookedMinutes());
+  }
+
+  private Appointment persistAppointment(int hour, int minute) {
+    return persistAppointment(DAY.atTime(hour, minute));
+  }
+
+  private Appointment persistAppointment(LocalDateTime startDate) {
+    Appointment appointment = new Appointment();
+    appointment.setUser(user);
+    appointment.setStartDate(startDate);
+    appointment.setEndDate(appointment.getStartDate().plus(activity.getDuration()));
+
+    ActivityAppointment activityAppointment = new ActivityAppointment();
+    activityAppointment.setActivity(activity);
+    activityAppointment.setAppointment(appointment);
+    activityAppointment.setStartDate(appointment.getStartDate());
+    activityAppointment.setEndDate(appointment.getEndDate());
+    activityAppointment.setPrice(activity.getPrice());
+    appointment.getActivityAppointments().add(activityAppointment);
+
+    testEntityManager.persist(appointment);
+    testEntityManager.flush();
+
+    return appointment;
+  }
+}
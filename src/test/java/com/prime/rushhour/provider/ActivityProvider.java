@@ -20,6 +20,16 @@ public class ActivityProvider {
     return activity;
   }
 
+  public static Activity getTransientInstance(String name, Duration duration, BigDecimal price) {
+    Activity activity = new Activity();
+
+    activity.setName(name);
+    activity.setDuration(duration);
+    activity.setPrice(price);
+
+    return activity;
+  }
+
   public static List<Activity> getActivitiesInstance() {
     return Arrays.asList(getInstance(), getInstance());
   }
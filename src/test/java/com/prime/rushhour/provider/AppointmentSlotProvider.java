@@ -0,0 +1,78 @@
+package com.prime.rushhour.provider;
+
+import com.prime.rushhour.entity.Activity;
+import com.prime.rushhour.entity.Appointment;
+import com.prime.rushhour.repository.projection.AppointmentSlot;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+public class AppointmentSlotProvider {
+
+  public static AppointmentSlot getInstance() {
+    Appointment appointment = AppointmentProvider.getInstance();
+    Activity activity = ActivityProvider.getInstance();
+    LocalDateTime startDate = appointment.getStartDate();
+
+    return getInstance(
+        appointment.getId(),
+        appointment.getUser().getId(),
+        activity.getId(),
+        startDate,
+        startDate.plus(activity.getDuration()));
+  }
+
+  public static AppointmentSlot getInstance(
+      int appointmentId,
+      int userId,
+      int activityId,
+      LocalDateTime startDate,
+      LocalDateTime endDate) {
+    return new AppointmentSlot() {
+      @Override
+      public int getAppointmentId() {
+        return appointmentId;
+      }
+
+      @Override
+      public int getUserId() {
+        return userId;
+      }
+
+      @Override
+      public LocalDateTime getStartDate() {
+        return startDate;
+      }
+
+      @Override
+      public LocalDateTime getEndDate() {
+        return endDate;
+      }
+
+      @Override
+      public int getActivityId() {
+        return activityId;
+      }
+
+      @Override
+      public LocalDateTime getActivityStartDate() {
+        return startDate;
+      }
+
+      @Override
+      public LocalDateTime getActivityEndDate() {
+        return endDate;
+      }
+
+      @Override
+      public int getActivityCapacity() {
+        return 1;
+      }
+    };
+  }
+
+  public static List<AppointmentSlot> getAppointmentSlotsInstance() {
+    return Collections.singletonList(getInstance());
+  }
+}
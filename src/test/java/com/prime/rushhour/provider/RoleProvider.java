@@ -0,0 +1,14 @@
+package com.prime.rushhour.provider;
+
+import com.prime.rushhour.entity.Role;
+
+public class RoleProvider {
+
+  public static Role getTransientInstance() {
+    Role role = new Role();
+
+    role.setName("ROLE_USER");
+
+    return role;
+  }
+}
@@ -41,6 +41,18 @@ public class UserProvider {
     return user;
   }
 
+  public static User getTransientInstance(Role role, String email) {
+    User user = new User();
+
+    user.setFirstName("First");
+    user.setLastName("Last");
+    user.setEmail(email);
+    user.setPassword("password");
+    user.setRole(role);
+
+    return user;
+  }
+
   public static List<User> getUsersInstance() {
     return Arrays.asList(getInstance(), getInstance());
   }
@@ -0,0 +1,71 @@
+package com.prime.rushhour.schedule;
+
+import com.prime.rushhour.provider.AppointmentSlotProvider;
+import com.prime.rushhour.repository.AppointmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ActivityAvailabilityIndexTest {
+
+  private static final LocalDate TOMORROW = LocalDate.now().plusDays(1);
+  private static final Map<Integer, Integer> CAPACITIES = Map.of(1, 1);
+
+  @Mock private AppointmentRepository appointmentRepository;
+
+  private ActivityAvailabilityIndex availabilityIndex;
+
+  @BeforeEach
+  void setUp() {
+    availabilityIndex = new ActivityAvailabilityIndex(appointmentRepository);
+    ReflectionTestUtils.setField(availabilityIndex, "enabled", true);
+    ReflectionTestUtils.setField(availabilityIndex, "slotMinutes", 15);
+  }
+
+  @Test
+  void testDaysBeforeTheLoadAreLeftToTheDatabase() {
+    when(appointmentRepository.findSlotsEndingAfter(LocalDate.now().atStartOfDay()))
+        .thenReturn(List.of());
+
+    availabilityIndex.load();
+
+    assertEquals(
+        Optional.empty(),
+        availabilityIndex.findFreeIntervals(CAPACITIES, LocalDate.now().minusDays(1), TOMORROW));
+    assertEquals(
+        List.of(new TimeInterval(TOMORROW.atStartOfDay(), TOMORROW.plusDays(1).atStartOfDay())),
+        availabilityIndex.findFreeIntervals(CAPACITIES, TOMORROW, TOMORROW).get().get(1));
+  }
+
+  @Test
+  void testVerifyReloadsAppointmentsTheIndexMissed() {
+    LocalDateTime start = TOMORROW.atTime(10, 0);
+    when(appointmentRepository.findSlotsEndingAfter(any()))
+        .thenReturn(List.of())
+        .thenReturn(
+            List.of(AppointmentSlotProvider.getInstance(1, 1, 1, start, start.plusHours(1))));
+
+    availabilityIndex.load();
+    availabilityIndex.verify();
+
+    assertEquals(
+        List.of(
+            new TimeInterval(TOMORROW.atStartOfDay(), start),
+            new TimeInterval(start.plusHours(1), TOMORROW.plusDays(1).atStartOfDay())),
+        availabilityIndex.findFreeIntervals(CAPACITIES, TOMORROW, TOMORROW).get().get(1));
+  }
+}
@@ -0,0 +1,69 @@
+package com.prime.rushhour.schedule;
+
+import com.prime.rushhour.provider.AppointmentSlotProvider;
+import com.prime.rushhour.repository.AppointmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class AppointmentOverlapIndexTest {
+
+  private static final LocalDateTime START = LocalDate.now().plusDays(1).atTime(10, 0);
+
+  @Mock private AppointmentRepository appointmentRepository;
+  @Mock private BookingLock bookingLock;
+
+  private AppointmentOverlapIndex overlapIndex;
+
+  @BeforeEach
+  void setUp() {
+    overlapIndex = new AppointmentOverlapIndex(appointmentRepository, bookingLock);
+    ReflectionTestUtils.setField(overlapIndex, "enabled", true);
+  }
+
+  @Test
+  void testIndexIsNotLoadedWhenBookingsUseClusterWideLocks() {
+    when(bookingLock.isClusterWide()).thenReturn(true);
+
+    overlapIndex.load();
+
+    verifyNoInteractions(appointmentRepository);
+    assertEquals(Optional.empty(), overlapIndex.hasOverlap(booking(2, START), 0));
+  }
+
+  @Test
+  void testBookingsStartingBeforeTheLoadAreLeftToTheDatabase() {
+    when(appointmentRepository.findSlotsEndingAfter(any()))
+        .thenReturn(
+            List.of(AppointmentSlotProvider.getInstance(1, 1, 1, START, START.plusHours(1))));
+
+    overlapIndex.load();
+
+    assertEquals(Optional.of(true), overlapIndex.hasOverlap(booking(2, START), 0));
+    assertEquals(Optional.of(false), overlapIndex.hasOverlap(booking(2, START.plusHours(1)), 0));
+    assertEquals(Optional.empty(), overlapIndex.hasOverlap(booking(2, START.minusDays(2)), 0));
+  }
+
+  private static BookedAppointment booking(int userId, LocalDateTime start) {
+    return new BookedAppointment(
+        0,
+        userId,
+        start,
+        start.plusHours(1),
+        List.of(new BookedActivity(1, start, start.plusHours(1), 1)));
+  }
+}
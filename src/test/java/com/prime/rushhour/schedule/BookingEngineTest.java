@@ -0,0 +1,252 @@
+package com.prime.rushhour.schedule;
+
+import com.prime.rushhour.entity.Appointment;
+import com.prime.rushhour.event.AppointmentSavedEvent;
+import com.prime.rushhour.exception.BookingUnavailableException;
+import com.prime.rushhour.exception.OverlappingAppointmentsException;
+import com.prime.rushhour.repository.AppointmentRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BookingEngineTest {
+
+  private static final LocalDateTime START = LocalDate.now().plusDays(1).atTime(10, 0);
+  private static final Runnable NO_CHECK = () -> {};
+
+  @Mock private AppointmentRepository appointmentRepository;
+
+  private final List<Appointment> persisted = new CopyOnWriteArrayList<>();
+  private BookingEngine bookingEngine;
+
+  @BeforeEach
+  void setUp() {
+    when(appointmentRepository.findSlotsEndingAfter(any())).thenReturn(List.of());
+
+    bookingEngine =
+        new BookingEngine(
+            appointmentRepository,
+            TransactionOperations.withoutTransaction(),
+            new SimpleMeterRegistry());
+    ReflectionTestUtils.setField(bookingEngine, "enabled", true);
+    ReflectionTestUtils.setField(bookingEngine, "partitionCount", 2);
+    ReflectionTestUtils.setField(bookingEngine, "queueCapacity", 1);
+    ReflectionTestUtils.setField(bookingEngine, "commitBatchSize", 8);
+    ReflectionTestUtils.setField(bookingEngine, "timeoutMs", 200L);
+    bookingEngine.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    bookingEngine.stop();
+  }
+
+  @Test
+  void testOverlappingBookingIsRejected() {
+    BookedAppointment booked = booking(1, START, 1);
+    bookingEngine.book(new Appointment(), booked, 0, NO_CHECK, this::persist);
+    // Published by the real persist step once the booking has its id.
+    bookingEngine.onAppointmentSaved(new AppointmentSavedEvent(booked.withId(1)));
+
+    assertThrows(
+        OverlappingAppointmentsException.class,
+        () ->
+            bookingEngine.book(
+                new Appointment(),
+                booking(2, START.plusMinutes(30), 1),
+                0,
+                NO_CHECK,
+                this::persist));
+  }
+
+  @Test
+  void testBookingAcrossPartitionsIsHeldInEach() {
+    BookedAppointment booked = booking(1, START, 1, 2);
+    bookingEngine.book(new Appointment(), booked, 0, NO_CHECK, this::persist);
+    bookingEngine.onAppointmentSaved(new AppointmentSavedEvent(booked.withId(1)));
+
+    assertThrows(
+        OverlappingAppointmentsException.class,
+        () ->
+            bookingEngine.book(
+                new Appointment(), booking(2, START, 1), 0, NO_CHECK, this::persist));
+    assertThrows(
+        OverlappingAppointmentsException.class,
+        () ->
+            bookingEngine.book(
+                new Appointment(), booking(3, START, 2), 0, NO_CHECK, this::persist));
+  }
+
+  @Test
+  void testRejectedBookingReleasesThePartitionsItHeld() {
+    BookedAppointment booked = booking(1, START, 1);
+    bookingEngine.book(new Appointment(), booked, 0, NO_CHECK, this::persist);
+    bookingEngine.onAppointmentSaved(new AppointmentSavedEvent(booked.withId(1)));
+
+    // Holds activity 2's partition first, then finds activity 1 taken.
+    assertThrows(
+        OverlappingAppointmentsException.class,
+        () ->
+            bookingEngine.book(
+                new Appointment(), booking(2, START, 1, 2), 0, NO_CHECK, this::persist));
+    bookingEngine.book(new Appointment(), booking(3, START, 2), 0, NO_CHECK, this::persist);
+
+    assertEquals(2, persisted.size());
+  }
+
+  @Test
+  void testSameUserCannotBookActivitiesInTwoPartitionsAtOnce() throws Exception {
+    CountDownLatch committing = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    // Stands in for the check against committed bookings, which cannot see a pending one.
+    Runnable checkUser =
+        () -> {
+          if (!persisted.isEmpty()) {
+            throw new OverlappingAppointmentsException("Overlapping");
+          }
+        };
+
+    CompletableFuture<Appointment> first =
+        CompletableFuture.supplyAsync(
+            () ->
+                bookingEngine.book(
+                    new Appointment(),
+                    booking(1, START, 1),
+                    0,
+                    checkUser,
+                    blockingPersist(committing, release)));
+    assertTrue(committing.await(5, TimeUnit.SECONDS));
+
+    CompletableFuture<Appointment> second =
+        CompletableFuture.supplyAsync(
+            () ->
+                bookingEngine.book(
+                    new Appointment(),
+                    booking(1, START.plusMinutes(30), 2),
+                    0,
+                    checkUser,
+                    this::persist));
+    Thread.sleep(50);
+    release.countDown();
+
+    first.get(5, TimeUnit.SECONDS);
+    ExecutionException exc =
+        assertThrows(ExecutionException.class, () -> second.get(5, TimeUnit.SECONDS));
+    assertTrue(exc.getCause() instanceof OverlappingAppointmentsException);
+    assertEquals(1, persisted.size());
+  }
+
+  @Test
+  void testTimedOutBookingIsWithdrawnAndCommittingOneIsAwaited() throws Exception {
+    CountDownLatch committing = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Appointment first = new Appointment();
+    Appointment withdrawn = new Appointment();
+    Appointment third = new Appointment();
+
+    CompletableFuture<Appointment> firstResult =
+        CompletableFuture.supplyAsync(
+            () ->
+                bookingEngine.book(
+                    first,
+                    booking(1, START, 1),
+                    0,
+                    NO_CHECK,
+                    blockingPersist(committing, release)));
+    assertTrue(committing.await(5, TimeUnit.SECONDS));
+
+    assertThrows(
+        BookingUnavailableException.class,
+        () ->
+            bookingEngine.book(
+                withdrawn, booking(2, START.plusHours(2), 1), 0, NO_CHECK, this::persist));
+
+    release.countDown();
+    assertSame(first, firstResult.get(5, TimeUnit.SECONDS));
+    bookingEngine.book(third, booking(3, START.plusHours(4), 1), 0, NO_CHECK, this::persist);
+    // The withdrawn booking no longer holds its time.
+    bookingEngine.book(
+        new Appointment(), booking(4, START.plusHours(2), 1), 0, NO_CHECK, this::persist);
+
+    assertEquals(3, persisted.size());
+    assertSame(first, persisted.get(0));
+    assertSame(third, persisted.get(1));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void testBookingIsRejectedWhenPartitionQueueIsFull() {
+    BookingPartition partition =
+        ((List<BookingPartition>) ReflectionTestUtils.getField(bookingEngine, "partitions"))
+            .get(1);
+    CountDownLatch release = new CountDownLatch(1);
+    partition.submit(() -> awaitQuietly(release));
+    partition.submit(() -> {});
+
+    try {
+      assertThrows(
+          BookingUnavailableException.class,
+          () ->
+              bookingEngine.book(
+                  new Appointment(), booking(1, START, 1), 0, NO_CHECK, this::persist));
+    } finally {
+      release.countDown();
+    }
+  }
+
+  private Appointment persist(Appointment appointment) {
+    persisted.add(appointment);
+    return appointment;
+  }
+
+  private UnaryOperator<Appointment> blockingPersist(
+      CountDownLatch committing, CountDownLatch release) {
+    return appointment -> {
+      committing.countDown();
+      awaitQuietly(release);
+      return persist(appointment);
+    };
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException exc) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static BookedAppointment booking(int userId, LocalDateTime start, int... activityIds) {
+    LocalDateTime end = start.plusHours(1);
+    List<BookedActivity> activities = new ArrayList<>();
+    for (int activityId : activityIds) {
+      activities.add(new BookedActivity(activityId, start, end, 1));
+    }
+    return new BookedAppointment(0, userId, start, end, activities);
+  }
+}
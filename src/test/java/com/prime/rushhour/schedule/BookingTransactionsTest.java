@@ -0,0 +1,59 @@
+package com.prime.rushhour.schedule;
+
+import com.prime.rushhour.exception.BookingUnavailableException;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BookingTransactionsTest {
+
+  private static final TransactionOperations DIRECT =
+      new TransactionOperations() {
+        @Override
+        public <T> T execute(TransactionCallback<T> action) {
+          return action.doInTransaction(null);
+        }
+      };
+
+  @Test
+  void testStartupFailsWithoutAConnectionLeftForIdGeneration() {
+    assertThrows(
+        IllegalStateException.class, () -> new BookingTransactions(DIRECT, 10, 10, false, 50));
+    assertThrows(
+        IllegalStateException.class, () -> new BookingTransactions(DIRECT, 9, 10, true, 50));
+  }
+
+  @Test
+  void testTransactionsBeyondTheLimitAreRejected() throws Exception {
+    BookingTransactions bookingTransactions = new BookingTransactions(DIRECT, 1, 10, false, 50);
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    CompletableFuture<Integer> first =
+        CompletableFuture.supplyAsync(
+            () ->
+                bookingTransactions.execute(
+                    status -> {
+                      started.countDown();
+                      try {
+                        release.await();
+                      } catch (InterruptedException exc) {
+                        Thread.currentThread().interrupt();
+                      }
+                      return 1;
+                    }));
+    started.await();
+
+    assertThrows(BookingUnavailableException.class, () -> bookingTransactions.execute(s -> 2));
+
+    release.countDown();
+    assertEquals(Integer.valueOf(1), first.get());
+    assertEquals(Integer.valueOf(2), bookingTransactions.execute(status -> 2));
+  }
+}
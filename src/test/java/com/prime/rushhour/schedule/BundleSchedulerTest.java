@@ -0,0 +1,88 @@
+package com.prime.rushhour.schedule;
+
+import com.prime.rushhour.entity.Activity;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BundleSchedulerTest {
+
+  private static final LocalDateTime START = LocalDateTime.of(2020, 5, 4, 10, 0);
+  private static final long NO_DEADLINE = System.nanoTime() + Duration.ofMinutes(1).toNanos();
+
+  @Test
+  void testEarliestStartsSkipBookedSegments() {
+    ScheduleSnapshot schedule = new ScheduleSnapshot();
+    schedule.add(booking(1, 2, START.plusMinutes(30), START.plusHours(1)));
+
+    List<Suggestion> suggestions =
+        new BundleScheduler(schedule, 15)
+            .findEarliest(
+                1,
+                List.of(activity(1, 30), activity(2, 30)),
+                START.minusMinutes(5),
+                START.plusHours(3),
+                2,
+                false,
+                NO_DEADLINE);
+
+    assertEquals(
+        List.of(
+            new Suggestion(START.plusMinutes(30), START.plusMinutes(90), List.of(1, 2)),
+            new Suggestion(START.plusMinutes(45), START.plusMinutes(105), List.of(1, 2))),
+        suggestions);
+  }
+
+  @Test
+  void testReorderingFindsEarlierStart() {
+    ScheduleSnapshot schedule = new ScheduleSnapshot();
+    schedule.add(booking(1, 1, START, START.plusMinutes(30)));
+
+    List<Suggestion> suggestions =
+        new BundleScheduler(schedule, 15)
+            .findEarliest(
+                2,
+                List.of(activity(1, 30), activity(2, 30)),
+                START,
+                START.plusHours(3),
+                1,
+                true,
+                NO_DEADLINE);
+
+    assertEquals(List.of(new Suggestion(START, START.plusHours(1), List.of(2, 1))), suggestions);
+  }
+
+  @Test
+  void testExpiredDeadlineStopsSearch() {
+    List<Suggestion> suggestions =
+        new BundleScheduler(new ScheduleSnapshot(), 15)
+            .findEarliest(
+                1,
+                List.of(activity(1, 30)),
+                START,
+                START.plusHours(3),
+                5,
+                false,
+                System.nanoTime() - 1);
+
+    assertTrue(suggestions.isEmpty());
+  }
+
+  private static Activity activity(int id, int minutes) {
+    Activity activity = new Activity();
+    activity.setId(id);
+    activity.setDuration(Duration.ofMinutes(minutes));
+    return activity;
+  }
+
+  private static BookedAppointment booking(
+      int id, int activityId, LocalDateTime start, LocalDateTime end) {
+    return new BookedAppointment(
+        id, 99, start, end, List.of(new BookedActivity(activityId, start, end, 1)));
+  }
+}
@@ -0,0 +1,122 @@
+package com.prime.rushhour.schedule;
+
+import com.prime.rushhour.entity.Appointment;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GroupCommitPersisterTest {
+
+  private final AtomicInteger transactions = new AtomicInteger();
+  private final AtomicInteger failures = new AtomicInteger();
+  private DistributionSummary commitSizes;
+  private GroupCommitPersister persister;
+
+  @BeforeEach
+  void setUp() {
+    TransactionOperations transactionOperations =
+        new TransactionOperations() {
+          @Override
+          public <T> T execute(TransactionCallback<T> action) {
+            transactions.incrementAndGet();
+            return action.doInTransaction(null);
+          }
+        };
+    commitSizes = DistributionSummary.builder("commit.size").register(new SimpleMeterRegistry());
+    persister = new GroupCommitPersister(transactionOperations, commitSizes, 8);
+  }
+
+  @AfterEach
+  void tearDown() {
+    persister.shutdown();
+  }
+
+  @Test
+  void testQueuedBookingsAreCommittedInOneTransaction() throws Exception {
+    List<CompletableFuture<Appointment>> results = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      results.add(submit(new Appointment(), UnaryOperator.identity(), new AtomicBoolean()));
+    }
+
+    persister.start();
+
+    for (CompletableFuture<Appointment> result : results) {
+      result.get(5, TimeUnit.SECONDS);
+    }
+    assertEquals(1, transactions.get());
+    assertEquals(1, commitSizes.count());
+    assertEquals(3, commitSizes.totalAmount());
+  }
+
+  @Test
+  void testFailedBatchIsRetriedOneByOne() throws Exception {
+    Appointment rejected = new Appointment();
+    Appointment accepted = new Appointment();
+    UnaryOperator<Appointment> persist =
+        appointment -> {
+          if (appointment == rejected) {
+            throw new IllegalStateException("Constraint violated");
+          }
+          return appointment;
+        };
+    CompletableFuture<Appointment> rejectedResult = submit(rejected, persist, new AtomicBoolean());
+    CompletableFuture<Appointment> acceptedResult = submit(accepted, persist, new AtomicBoolean());
+
+    persister.start();
+
+    assertSame(accepted, acceptedResult.get(5, TimeUnit.SECONDS));
+    ExecutionException exc =
+        assertThrows(ExecutionException.class, () -> rejectedResult.get(5, TimeUnit.SECONDS));
+    assertTrue(exc.getCause() instanceof IllegalStateException);
+    assertEquals(1, failures.get());
+  }
+
+  @Test
+  void testWithdrawnBookingIsNotPersisted() throws Exception {
+    AtomicBoolean persisted = new AtomicBoolean();
+    submit(
+        new Appointment(),
+        appointment -> {
+          persisted.set(true);
+          return appointment;
+        },
+        new AtomicBoolean(true));
+    CompletableFuture<Appointment> next =
+        submit(new Appointment(), UnaryOperator.identity(), new AtomicBoolean());
+
+    persister.start();
+
+    next.get(5, TimeUnit.SECONDS);
+    assertFalse(persisted.get());
+    assertEquals(1, failures.get());
+    assertEquals(1, commitSizes.totalAmount());
+  }
+
+  private CompletableFuture<Appointment> submit(
+      Appointment appointment, UnaryOperator<Appointment> persist, AtomicBoolean claimed) {
+    CompletableFuture<Appointment> result = new CompletableFuture<>();
+    persister.submit(
+        new GroupCommitPersister.PendingBooking(
+            appointment, persist, result, claimed, () -> {}, failures::incrementAndGet));
+    return result;
+  }
+}
@@ -0,0 +1,51 @@
+package com.prime.rushhour.schedule;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HourlyUsageTest {
+
+  private static final LocalDate DAY = LocalDate.of(2020, 5, 4);
+  private static final BigDecimal PRICE = new BigDecimal("20.00");
+
+  @Test
+  void testSegmentIsSplitAcrossHours() {
+    List<HourlyUsage> usage =
+        HourlyUsage.ofSegment(1, PRICE, DAY.atTime(10, 30), DAY.atTime(12, 15));
+
+    assertEquals(
+        List.of(
+            new HourlyUsage(1, DAY.atTime(10, 0), 1, 1800, PRICE),
+            new HourlyUsage(1, DAY.atTime(11, 0), 0, 3600, BigDecimal.ZERO),
+            new HourlyUsage(1, DAY.atTime(12, 0), 0, 900, BigDecimal.ZERO)),
+        usage);
+  }
+
+  @Test
+  void testDeltaOfMovedSegmentOnlyTouchesChangedHours() {
+    List<HourlyUsage> before =
+        HourlyUsage.ofSegment(1, PRICE, DAY.atTime(10, 0), DAY.atTime(11, 0));
+    List<HourlyUsage> after =
+        HourlyUsage.ofSegment(1, PRICE, DAY.atTime(10, 30), DAY.atTime(11, 30));
+
+    assertEquals(
+        List.of(
+            new HourlyUsage(1, DAY.atTime(10, 0), 0, -1800, BigDecimal.ZERO.setScale(2)),
+            new HourlyUsage(1, DAY.atTime(11, 0), 0, 1800, BigDecimal.ZERO)),
+        List.copyOf(HourlyUsage.delta(before, after)));
+  }
+
+  @Test
+  void testDeltaOfUnchangedBookingIsEmpty() {
+    List<HourlyUsage> usage =
+        HourlyUsage.ofSegment(1, PRICE, DAY.atTime(10, 0), DAY.atTime(11, 0));
+
+    assertTrue(HourlyUsage.delta(usage, usage).isEmpty());
+  }
+}
@@ -0,0 +1,89 @@
+package com.prime.rushhour.schedule;
+
+import com.prime.rushhour.exception.BookingUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class InProcessBookingLockTest {
+
+  private static final LocalDateTime START = LocalDateTime.of(2020, 5, 4, 10, 0);
+
+  private InProcessBookingLock bookingLock;
+
+  @BeforeEach
+  void setUp() {
+    bookingLock = new InProcessBookingLock(new SimpleMeterRegistry());
+    ReflectionTestUtils.setField(bookingLock, "timeoutMs", 50L);
+    TransactionSynchronizationManager.initSynchronization();
+  }
+
+  @AfterEach
+  void tearDown() {
+    TransactionSynchronizationManager.clearSynchronization();
+  }
+
+  @Test
+  void testKeysAreSortedAndDistinct() {
+    List<String> keys =
+        List.copyOf(BookingLock.keysOf(List.of(appointment(2, 7), appointment(1, 7))));
+
+    assertEquals(
+        List.of("rush_hour.activity.7", "rush_hour.user.1", "rush_hour.user.2"), keys);
+  }
+
+  @Test
+  void testConcurrentBookingOfSameActivityTimesOutUntilCompletion() throws Exception {
+    bookingLock.acquire(List.of(appointment(1, 7)));
+
+    ExecutionException exc =
+        assertThrows(ExecutionException.class, () -> acquireInOtherTransaction(2, 7).get());
+    assertTrue(exc.getCause() instanceof BookingUnavailableException);
+
+    completeTransaction();
+
+    acquireInOtherTransaction(2, 7).get();
+  }
+
+  private CompletableFuture<Void> acquireInOtherTransaction(int userId, int activityId) {
+    return CompletableFuture.runAsync(
+        () -> {
+          TransactionSynchronizationManager.initSynchronization();
+          try {
+            bookingLock.acquire(List.of(appointment(userId, activityId)));
+            completeTransaction();
+          } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+          }
+        });
+  }
+
+  private static void completeTransaction() {
+    for (TransactionSynchronization synchronization :
+        TransactionSynchronizationManager.getSynchronizations()) {
+      synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+    }
+  }
+
+  private static BookedAppointment appointment(int userId, int activityId) {
+    return new BookedAppointment(
+        0,
+        userId,
+        START,
+        START.plusHours(1),
+        List.of(new BookedActivity(activityId, START, START.plusHours(1), 1)));
+  }
+}
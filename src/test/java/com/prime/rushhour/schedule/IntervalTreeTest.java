@@ -0,0 +1,84 @@
+package com.prime.rushhour.schedule;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class IntervalTreeTest {
+
+  @Test
+  void testOverlappingIntervalIsFound() {
+    IntervalTree tree = new IntervalTree();
+    tree.insert(10, 20, 1);
+    tree.insert(30, 40, 2);
+
+    assertTrue(tree.hasOverlap(15, 35, 0));
+    assertTrue(tree.hasOverlap(35, 36, 0));
+  }
+
+  @Test
+  void testAdjacentIntervalsDoNotOverlap() {
+    IntervalTree tree = new IntervalTree();
+    tree.insert(10, 20, 1);
+
+    assertFalse(tree.hasOverlap(20, 30, 0));
+    assertFalse(tree.hasOverlap(0, 10, 0));
+  }
+
+  @Test
+  void testMaxConcurrencyCountsOnlyCoveringIntervals() {
+    IntervalTree tree = new IntervalTree();
+    tree.insert(0, 30, 1);
+    tree.insert(10, 20, 2);
+    tree.insert(20, 40, 3);
+    tree.insert(25, 26, 4);
+
+    assertEquals(3, tree.maxConcurrency(0, 40, 0));
+    assertEquals(2, tree.maxConcurrency(10, 25, 0));
+    assertEquals(1, tree.maxConcurrency(30, 50, 0));
+    assertEquals(2, tree.maxConcurrency(0, 40, 1));
+  }
+
+  @Test
+  void testExcludedIntervalIsIgnored() {
+    IntervalTree tree = new IntervalTree();
+    tree.insert(10, 20, 1);
+
+    assertFalse(tree.hasOverlap(10, 20, 1));
+  }
+
+  @Test
+  void testRemovedIntervalNoLongerOverlaps() {
+    IntervalTree tree = new IntervalTree();
+    for (int i = 0; i < 100; i++) {
+      tree.insert(i * 10, i * 10 + 5, i);
+    }
+
+    assertTrue(tree.remove(500, 505, 50));
+    assertFalse(tree.remove(500, 505, 50));
+    assertFalse(tree.hasOverlap(501, 504, -1));
+    assertEquals(99, tree.size());
+  }
+
+  @Test
+  void testFindOverlappingReturnsAllMatches() {
+    IntervalTree tree = new IntervalTree();
+    tree.insert(0, 100, 1);
+    tree.insert(10, 20, 2);
+    tree.insert(50, 60, 3);
+    tree.insert(200, 300, 4);
+
+    List<Integer> ids =
+        tree.findOverlapping(15, 55).stream()
+            .map(IntervalTree.Interval::getId)
+            .sorted()
+            .collect(Collectors.toList());
+
+    assertEquals(List.of(1, 2, 3), ids);
+  }
+}
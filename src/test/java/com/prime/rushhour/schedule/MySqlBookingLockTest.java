@@ -0,0 +1,132 @@
+package com.prime.rushhour.schedule;
+
+import com.prime.rushhour.exception.BookingUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class MySqlBookingLockTest {
+
+  private static final LocalDateTime START = LocalDateTime.of(2020, 5, 4, 10, 0);
+
+  @Mock private EntityManager entityManager;
+  @Mock private Session session;
+  @Mock private Transaction transaction;
+  @Mock private Connection connection;
+  @Mock private PreparedStatement statement;
+  @Mock private ResultSet resultSet;
+
+  private final Queue<Synchronization> synchronizations = new ConcurrentLinkedQueue<>();
+  private MySqlBookingLock bookingLock;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    when(entityManager.unwrap(Session.class)).thenReturn(session);
+    when(session.<Connection>doReturningWork(any())).thenReturn(connection);
+    when(session.getTransaction()).thenReturn(transaction);
+    doAnswer(invocation -> synchronizations.add(invocation.getArgument(0)))
+        .when(transaction)
+        .registerSynchronization(any());
+    when(connection.prepareStatement(anyString())).thenReturn(statement);
+    when(statement.executeQuery()).thenReturn(resultSet);
+    when(resultSet.getInt(1)).thenReturn(1);
+
+    bookingLock = new MySqlBookingLock(entityManager, new SimpleMeterRegistry());
+    ReflectionTestUtils.setField(bookingLock, "timeoutMs", 50L);
+    TransactionSynchronizationManager.initSynchronization();
+  }
+
+  @AfterEach
+  void tearDown() {
+    TransactionSynchronizationManager.clearSynchronization();
+  }
+
+  @Test
+  void testConcurrentBookingWaitsLocallyBeforeAskingMySql() throws Exception {
+    bookingLock.acquire(List.of(appointment(1, 7)));
+
+    ExecutionException exc =
+        assertThrows(ExecutionException.class, () -> acquireInOtherTransaction(2, 7).get());
+    assertTrue(exc.getCause() instanceof BookingUnavailableException);
+    verify(session, times(1)).doReturningWork(any());
+
+    completeTransaction();
+
+    acquireInOtherTransaction(2, 7).get();
+    verify(session, times(2)).doReturningWork(any());
+  }
+
+  @Test
+  void testNamedLocksAreReleasedWithoutClosingTheTransactionConnection() throws Exception {
+    bookingLock.acquire(List.of(appointment(1, 7)));
+
+    verify(connection, times(2)).prepareStatement("SELECT GET_LOCK(?, ?)");
+    verify(connection, never()).prepareStatement("SELECT RELEASE_ALL_LOCKS()");
+
+    completeTransaction();
+
+    verify(connection).prepareStatement("SELECT RELEASE_ALL_LOCKS()");
+    verify(connection, never()).close();
+  }
+
+  private CompletableFuture<Void> acquireInOtherTransaction(int userId, int activityId) {
+    return CompletableFuture.runAsync(
+        () -> {
+          TransactionSynchronizationManager.initSynchronization();
+          try {
+            bookingLock.acquire(List.of(appointment(userId, activityId)));
+            completeTransaction();
+          } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+          }
+        });
+  }
+
+  private void completeTransaction() {
+    Synchronization synchronization;
+    while ((synchronization = synchronizations.poll()) != null) {
+      synchronization.afterCompletion(Status.STATUS_COMMITTED);
+    }
+  }
+
+  private static BookedAppointment appointment(int userId, int activityId) {
+    return new BookedAppointment(
+        0,
+        userId,
+        START,
+        START.plusHours(1),
+        List.of(new BookedActivity(activityId, START, START.plusHours(1), 1)));
+  }
+}
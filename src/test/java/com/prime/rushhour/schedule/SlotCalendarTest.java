@@ -0,0 +1,85 @@
+package com.prime.rushhour.schedule;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SlotCalendarTest {
+
+  private static final LocalDate DAY = LocalDate.of(2020, 5, 4);
+
+  @Test
+  void testFreeIntervalsAroundBooking() {
+    SlotCalendar calendar = new SlotCalendar(15);
+    calendar.add(appointment(1, DAY.atTime(10, 0), DAY.atTime(11, 0)));
+
+    List<TimeInterval> freeIntervals = calendar.findFreeIntervals(1, 1, DAY, DAY);
+
+    assertEquals(
+        List.of(
+            new TimeInterval(DAY.atStartOfDay(), DAY.atTime(10, 0)),
+            new TimeInterval(DAY.atTime(11, 0), DAY.plusDays(1).atStartOfDay())),
+        freeIntervals);
+  }
+
+  @Test
+  void testFreeIntervalsAreMergedAcrossDays() {
+    SlotCalendar calendar = new SlotCalendar(15);
+
+    List<TimeInterval> freeIntervals = calendar.findFreeIntervals(1, 1, DAY, DAY.plusDays(2));
+
+    assertEquals(
+        List.of(new TimeInterval(DAY.atStartOfDay(), DAY.plusDays(3).atStartOfDay())),
+        freeIntervals);
+  }
+
+  @Test
+  void testRemovingBookingKeepsSharedSlotBusy() {
+    SlotCalendar calendar = new SlotCalendar(15);
+    BookedAppointment first = appointment(1, DAY.atTime(10, 0), DAY.atTime(10, 20));
+    BookedAppointment second = appointment(2, DAY.atTime(10, 20), DAY.atTime(10, 45));
+    calendar.add(first);
+    calendar.add(second);
+
+    calendar.remove(first);
+
+    assertEquals(
+        List.of(
+            new TimeInterval(DAY.atStartOfDay(), DAY.atTime(10, 15)),
+            new TimeInterval(DAY.atTime(10, 45), DAY.plusDays(1).atStartOfDay())),
+        calendar.findFreeIntervals(1, 1, DAY, DAY));
+  }
+
+  @Test
+  void testBookingAcrossMidnightBlocksBothDays() {
+    SlotCalendar calendar = new SlotCalendar(30);
+    calendar.add(appointment(1, DAY.atTime(23, 0), DAY.plusDays(1).atTime(1, 0)));
+
+    assertEquals(
+        List.of(
+            new TimeInterval(DAY.atStartOfDay(), DAY.atTime(23, 0)),
+            new TimeInterval(DAY.plusDays(1).atTime(1, 0), DAY.plusDays(2).atStartOfDay())),
+        calendar.findFreeIntervals(1, 1, DAY, DAY.plusDays(1)));
+  }
+
+  @Test
+  void testSlotStaysFreeUntilCapacityIsReached() {
+    SlotCalendar calendar = new SlotCalendar(15);
+    calendar.add(appointment(1, DAY.atTime(10, 0), DAY.atTime(11, 0)));
+    calendar.add(appointment(2, DAY.atTime(10, 30), DAY.atTime(11, 30)));
+
+    assertEquals(
+        List.of(
+            new TimeInterval(DAY.atStartOfDay(), DAY.atTime(10, 30)),
+            new TimeInterval(DAY.atTime(11, 0), DAY.plusDays(1).atStartOfDay())),
+        calendar.findFreeIntervals(1, 2, DAY, DAY));
+  }
+
+  private static BookedAppointment appointment(int id, LocalDateTime start, LocalDateTime end) {
+    return new BookedAppointment(id, 1, start, end, List.of(new BookedActivity(1, start, end, 1)));
+  }
+}
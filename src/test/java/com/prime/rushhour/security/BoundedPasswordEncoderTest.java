@@ -0,0 +1,73 @@
+package com.prime.rushhour.security;
+
+import com.prime.rushhour.exception.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BoundedPasswordEncoderTest {
+
+  @Test
+  void testSaturatedEncoderRejectsImmediately() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    PasswordEncoder blocking =
+        new PasswordEncoder() {
+          @Override
+          public String encode(CharSequence rawPassword) {
+            started.countDown();
+            try {
+              release.await();
+            } catch (InterruptedException exc) {
+              Thread.currentThread().interrupt();
+            }
+            return rawPassword.toString();
+          }
+
+          @Override
+          public boolean matches(CharSequence rawPassword, String encodedPassword) {
+            return rawPassword.toString().equals(encodedPassword);
+          }
+        };
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    try (BoundedPasswordEncoder encoder =
+        new BoundedPasswordEncoder(blocking, 1, 1, meterRegistry)) {
+      CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+      assertTrue(started.await(5, TimeUnit.SECONDS));
+      CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+      while (meterRegistry.get("password.hashing.queue.depth").gauge().value() < 1) {
+        Thread.sleep(1);
+      }
+
+      assertThrows(PasswordHashingUnavailableException.class, () -> encoder.matches("c", "c"));
+      assertEquals(1, meterRegistry.get("password.hashing.rejected").counter().count());
+
+      release.countDown();
+      assertEquals("a", running.get(5, TimeUnit.SECONDS));
+      assertEquals("b", queued.get(5, TimeUnit.SECONDS));
+    }
+  }
+
+  @Test
+  void testUpgradeEncodingFollowsConfiguredCost() {
+    String legacyHash = new BCryptPasswordEncoder(4).encode("12345");
+
+    try (BoundedPasswordEncoder encoder =
+        new BoundedPasswordEncoder(
+            new BCryptPasswordEncoder(5), 1, 1, new SimpleMeterRegistry())) {
+      assertTrue(encoder.matches("12345", legacyHash));
+      assertTrue(encoder.upgradeEncoding(legacyHash));
+      assertTrue(encoder.matches("12345", encoder.encode("12345")));
+    }
+  }
+}
@@ -0,0 +1,70 @@
+package com.prime.rushhour.security;
+
+import com.prime.rushhour.entity.User;
+import com.prime.rushhour.event.UserChangedEvent;
+import com.prime.rushhour.provider.UserProvider;
+import com.prime.rushhour.security.service.CachingUserDetailsService;
+import com.prime.rushhour.security.service.CustomUserDetailsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.OptionalInt;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class CachingUserDetailsServiceTest {
+
+  @Mock private CustomUserDetailsService customUserDetailsService;
+
+  private SimpleMeterRegistry meterRegistry;
+  private CachingUserDetailsService cachingUserDetailsService;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    cachingUserDetailsService =
+        new CachingUserDetailsService(customUserDetailsService, meterRegistry, 100, 60_000);
+  }
+
+  @Test
+  void testRepeatedLookupsAreServedFromCache() {
+    User user = UserProvider.getInstance();
+    CustomUserDetails userDetails = CustomUserDetails.create(user);
+    when(customUserDetailsService.loadUserByUsername(user.getEmail())).thenReturn(userDetails);
+
+    cachingUserDetailsService.loadUserByUsername(user.getEmail());
+    assertSame(userDetails, cachingUserDetailsService.loadUserByUsername(user.getEmail()));
+
+    verify(customUserDetailsService, times(1)).loadUserByUsername(user.getEmail());
+    assertEquals(
+        1.0,
+        meterRegistry
+            .get("cache.gets")
+            .tag("cache", "userDetails")
+            .tag("result", "hit")
+            .functionCounter()
+            .count());
+  }
+
+  @Test
+  void testUserChangeEvictsEntry() {
+    User user = UserProvider.getInstance();
+    when(customUserDetailsService.loadUserByUsername(user.getEmail()))
+        .thenReturn(CustomUserDetails.create(user));
+
+    cachingUserDetailsService.loadUserByUsername(user.getEmail());
+    cachingUserDetailsService.onUserChanged(new UserChangedEvent(user.getId(), OptionalInt.of(1)));
+    cachingUserDetailsService.loadUserByUsername(user.getEmail());
+
+    verify(customUserDetailsService, times(2)).loadUserByUsername(user.getEmail());
+  }
+}
@@ -0,0 +1,99 @@
+package com.prime.rushhour.security;
+
+import com.prime.rushhour.entity.User;
+import com.prime.rushhour.provider.UserProvider;
+import com.prime.rushhour.security.jwt.JwtUtils;
+import com.prime.rushhour.security.jwt.filter.JwtRequestFilter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class JwtRequestFilterTest {
+
+  @Mock private TokenVersionRegistry tokenVersionRegistry;
+
+  private JwtUtils jwtUtils;
+  private JwtRequestFilter jwtRequestFilter;
+
+  @BeforeEach
+  void setUp() {
+    jwtUtils = new JwtUtils("secret", 60, 100);
+    jwtRequestFilter = new JwtRequestFilter(jwtUtils, tokenVersionRegistry);
+  }
+
+  @AfterEach
+  void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void testPrincipalIsBuiltFromTokenClaims() throws Exception {
+    User user = UserProvider.getInstance();
+    user.setTokenVersion(3);
+    String token = jwtUtils.generateToken(CustomUserDetails.create(user));
+
+    when(tokenVersionRegistry.isCurrent(user.getId(), 3)).thenReturn(true);
+
+    jwtRequestFilter.doFilter(bearer(token), new MockHttpServletResponse(), new MockFilterChain());
+
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    CustomUserDetails principal = (CustomUserDetails) authentication.getPrincipal();
+    assertEquals(user.getId(), principal.getId());
+    assertEquals(user.getEmail(), authentication.getName());
+    assertEquals(
+        List.of("ROLE_USER"),
+        authentication.getAuthorities().stream()
+            .map(GrantedAuthority::getAuthority)
+            .collect(Collectors.toList()));
+  }
+
+  @Test
+  void testTokenWithOutdatedVersionIsIgnored() throws Exception {
+    User user = UserProvider.getInstance();
+    String token = jwtUtils.generateToken(CustomUserDetails.create(user));
+
+    when(tokenVersionRegistry.isCurrent(user.getId(), 0)).thenReturn(false);
+
+    jwtRequestFilter.doFilter(bearer(token), new MockHttpServletResponse(), new MockFilterChain());
+
+    assertNull(SecurityContextHolder.getContext().getAuthentication());
+  }
+
+  @Test
+  void testTamperedTokenIsIgnored() throws Exception {
+    String token = jwtUtils.generateToken(CustomUserDetails.create(UserProvider.getInstance()));
+
+    jwtRequestFilter.doFilter(
+        bearer(token.substring(0, token.length() - 2)),
+        new MockHttpServletResponse(),
+        new MockFilterChain());
+
+    assertNull(SecurityContextHolder.getContext().getAuthentication());
+    verifyNoInteractions(tokenVersionRegistry);
+  }
+
+  private static MockHttpServletRequest bearer(String token) {
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.addHeader("Authorization", "Bearer " + token);
+
+    return request;
+  }
+}
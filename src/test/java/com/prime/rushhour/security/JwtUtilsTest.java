@@ -0,0 +1,70 @@
+package com.prime.rushhour.security;
+
+import com.prime.rushhour.entity.User;
+import com.prime.rushhour.provider.UserProvider;
+import com.prime.rushhour.security.jwt.JwtUtils;
+import com.prime.rushhour.security.jwt.VerifiedToken;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SignatureException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JwtUtilsTest {
+
+  @Test
+  void testVerifiedTokenIsServedFromCache() {
+    JwtUtils jwtUtils = new JwtUtils("secret", 60, 100);
+    User user = UserProvider.getInstance();
+    String token = jwtUtils.generateToken(CustomUserDetails.create(user));
+
+    VerifiedToken verifiedToken = jwtUtils.verify(token);
+
+    assertEquals(user.getEmail(), verifiedToken.getSubject());
+    assertEquals(user.getId(), verifiedToken.getUserId());
+    assertSame(verifiedToken, jwtUtils.verify(token));
+  }
+
+  @Test
+  void testTokenIsVerifiedAgainWithoutCache() {
+    JwtUtils jwtUtils = new JwtUtils("secret", 60, 0);
+    String token = jwtUtils.generateToken(CustomUserDetails.create(UserProvider.getInstance()));
+
+    assertNotSame(jwtUtils.verify(token), jwtUtils.verify(token));
+  }
+
+  @Test
+  void testExpiredAndForeignTokensAreRejected() {
+    JwtUtils jwtUtils = new JwtUtils("secret", 0, 100);
+    CustomUserDetails userDetails = CustomUserDetails.create(UserProvider.getInstance());
+
+    assertThrows(
+        ExpiredJwtException.class, () -> jwtUtils.verify(jwtUtils.generateToken(userDetails)));
+    assertThrows(
+        SignatureException.class,
+        () -> jwtUtils.verify(new JwtUtils("other", 60, 100).generateToken(userDetails)));
+  }
+
+  @Test
+  void testTokenWithoutExpirationIsRejected() {
+    JwtUtils jwtUtils = new JwtUtils("secret", 60, 100);
+    String token =
+        Jwts.builder()
+            .setSubject("user@rushhour.com")
+            .claim("uid", 1)
+            .claim("roles", List.of("ROLE_USER"))
+            .claim("ver", 0)
+            .signWith(SignatureAlgorithm.HS512, "secret")
+            .compact();
+
+    assertThrows(MalformedJwtException.class, () -> jwtUtils.verify(token));
+  }
+}
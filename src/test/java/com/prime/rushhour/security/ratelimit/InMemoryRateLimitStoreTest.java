@@ -0,0 +1,66 @@
+package com.prime.rushhour.security.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class InMemoryRateLimitStoreTest {
+
+  private static final long MINUTE = TimeUnit.MINUTES.toNanos(1);
+
+  private final AtomicLong clock = new AtomicLong(1_000);
+  private final InMemoryRateLimitStore store =
+      new InMemoryRateLimitStore(100, 600_000, clock::get);
+
+  @Test
+  void testBurstUpToCapacityThenWaitForRefill() {
+    for (int i = 0; i < 3; i++) {
+      assertEquals(0, store.tryConsume("client", 3, MINUTE));
+    }
+
+    assertEquals(MINUTE / 3, store.tryConsume("client", 3, MINUTE));
+
+    clock.addAndGet(MINUTE / 3);
+    assertEquals(0, store.tryConsume("client", 3, MINUTE));
+    assertEquals(MINUTE / 3, store.tryConsume("client", 3, MINUTE));
+  }
+
+  @Test
+  void testBucketsAreIndependentPerKey() {
+    assertEquals(0, store.tryConsume("first", 1, MINUTE));
+    assertEquals(MINUTE, store.tryConsume("first", 1, MINUTE));
+
+    assertEquals(0, store.tryConsume("second", 1, MINUTE));
+  }
+
+  @Test
+  void testIdleBucketRefillsOnlyUpToCapacity() {
+    store.tryConsume("client", 2, MINUTE);
+    clock.addAndGet(10 * MINUTE);
+
+    assertEquals(0, store.tryConsume("client", 2, MINUTE));
+    assertEquals(0, store.tryConsume("client", 2, MINUTE));
+    assertEquals(MINUTE / 2, store.tryConsume("client", 2, MINUTE));
+  }
+
+  @Test
+  void testEvictionBeforeTheLongestRefillPeriodFailsAtStartup() {
+    RateLimitProperties.Route route = new RateLimitProperties.Route();
+    route.setMethod("POST");
+    route.setPath("/api/v1/auth");
+    route.setCapacity(1);
+    route.setRefillPeriodMs(60_000);
+
+    RateLimitProperties properties = new RateLimitProperties();
+    properties.setRoutes(List.of(route));
+
+    new InMemoryRateLimitStore(properties, 100, 60_000);
+    assertThrows(
+        IllegalStateException.class, () -> new InMemoryRateLimitStore(properties, 100, 59_999));
+  }
+}
@@ -0,0 +1,126 @@
+package com.prime.rushhour.security.ratelimit;
+
+import com.prime.rushhour.entity.User;
+import com.prime.rushhour.provider.UserProvider;
+import com.prime.rushhour.security.CustomUserDetails;
+import com.prime.rushhour.security.jwt.JwtUtils;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.PropertiesPropertySourceLoader;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RateLimitFilterTest {
+
+  private JwtUtils jwtUtils;
+  private RateLimitFilter rateLimitFilter;
+
+  @BeforeEach
+  void setUp() {
+    RateLimitProperties.Route route = new RateLimitProperties.Route();
+    route.setMethod("POST");
+    route.setPath("/api/v1/auth");
+    route.setCapacity(1);
+    route.setRefillPeriodMs(60_000);
+
+    RateLimitProperties properties = new RateLimitProperties();
+    properties.setEnabled(true);
+    properties.setRoutes(List.of(route));
+
+    jwtUtils = new JwtUtils("secret", 60_000, 100);
+    rateLimitFilter =
+        new RateLimitFilter(
+            properties,
+            new InMemoryRateLimitStore(properties, 100, 600_000),
+            jwtUtils,
+            new SimpleMeterRegistry());
+  }
+
+  @Test
+  void testRequestOverLimitIsRejectedWithRetryAfter() throws Exception {
+    MockHttpServletResponse first = filter(request("POST", "/api/v1/auth", "10.0.0.1"));
+    MockHttpServletResponse second = filter(request("POST", "/api/v1/auth", "10.0.0.1"));
+
+    assertEquals(HttpStatus.OK.value(), first.getStatus());
+    assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), second.getStatus());
+    assertEquals("60", second.getHeader(HttpHeaders.RETRY_AFTER));
+  }
+
+  @Test
+  void testClientsAndRoutesAreLimitedSeparately() throws Exception {
+    filter(request("POST", "/api/v1/auth", "10.0.0.1"));
+
+    assertNull(
+        filter(request("POST", "/api/v1/auth", "10.0.0.2")).getHeader(HttpHeaders.RETRY_AFTER));
+    assertNull(
+        filter(request("GET", "/api/v1/auth", "10.0.0.1")).getHeader(HttpHeaders.RETRY_AFTER));
+  }
+
+  @Test
+  void testAuthenticatedRequestsAreLimitedPerUser() throws Exception {
+    User user = UserProvider.getInstance();
+    String token = jwtUtils.generateToken(CustomUserDetails.create(user));
+
+    MockHttpServletRequest fromOffice = request("POST", "/api/v1/auth", "10.0.0.1");
+    fromOffice.addHeader("Authorization", "Bearer " + token);
+    MockHttpServletRequest fromHome = request("POST", "/api/v1/auth", "10.0.0.2");
+    fromHome.addHeader("Authorization", "Bearer " + token);
+
+    filter(fromOffice);
+
+    assertNotNull(filter(fromHome).getHeader(HttpHeaders.RETRY_AFTER));
+  }
+
+  @Test
+  void testDefaultRoutesCoverEveryBookingEndpoint() throws Exception {
+    List<PropertySource<?>> sources =
+        new PropertiesPropertySourceLoader()
+            .load("application", new ClassPathResource("application.properties"));
+    RateLimitProperties properties =
+        new Binder(ConfigurationPropertySources.from(sources))
+            .bind("app.rate-limit", RateLimitProperties.class)
+            .get();
+
+    Set<String> routes =
+        properties.getRoutes().stream()
+            .map(route -> route.getMethod() + " " + route.getPath())
+            .collect(Collectors.toSet());
+    assertTrue(
+        routes.containsAll(
+            Set.of(
+                "POST /api/v1/auth",
+                "POST /api/v1/appointment",
+                "PUT /api/v1/appointment",
+                "POST /api/v1/appointments/batch")));
+  }
+
+  private MockHttpServletResponse filter(MockHttpServletRequest request) throws Exception {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    rateLimitFilter.doFilter(request, response, new MockFilterChain());
+    return response;
+  }
+
+  private static MockHttpServletRequest request(String method, String path, String remoteAddr) {
+    MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+    request.setServletPath(path);
+    request.setRemoteAddr(remoteAddr);
+    return request;
+  }
+}
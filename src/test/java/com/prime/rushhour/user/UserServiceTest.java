@@ -2,40 +2,60 @@ package com.prime.rushhour.user;
 
 import com.prime.rushhour.dto.LoginRequestDto;
 import com.prime.rushhour.dto.UserResponseDtoWithoutAppointments;
+import com.prime.rushhour.entity.ActivityAppointment;
+import com.prime.rushhour.entity.Appointment;
 import com.prime.rushhour.entity.User;
+import com.prime.rushhour.event.AppointmentDeletedEvent;
+import com.prime.rushhour.event.UserChangedEvent;
 import com.prime.rushhour.exception.InvalidCredentialsException;
 import com.prime.rushhour.exception.UnauthorizedActionException;
 import com.prime.rushhour.exception.UserConflictException;
 import com.prime.rushhour.exception.UserNotFoundException;
+import com.prime.rushhour.provider.ActivityAppointmentProvider;
+import com.prime.rushhour.provider.AppointmentProvider;
 import com.prime.rushhour.provider.UserDetailsProvider;
 import com.prime.rushhour.provider.UserProvider;
+import com.prime.rushhour.repository.AppointmentRepository;
 import com.prime.rushhour.repository.UserRepository;
+import com.prime.rushhour.schedule.BookedAppointment;
+import com.prime.rushhour.schedule.HourlyUsage;
+import com.prime.rushhour.security.CustomUserDetails;
 import com.prime.rushhour.security.jwt.JwtUtils;
 import com.prime.rushhour.service.RoleService;
 import com.prime.rushhour.service.UserService;
+import com.prime.rushhour.service.UtilizationService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import javax.servlet.http.HttpServletRequest;
+import java.math.BigDecimal;
 import java.security.Principal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalInt;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -45,6 +65,10 @@ public class UserServiceTest {
 
   @Mock private UserRepository userRepository;
 
+  @Mock private AppointmentRepository appointmentRepository;
+
+  @Mock private UtilizationService utilizationService;
+
   @Mock private RoleService roleService;
 
   @Mock private PasswordEncoder passwordEncoder;
@@ -57,6 +81,8 @@ public class UserServiceTest {
 
   @Mock private AuthenticationManager authenticationManager;
 
+  @Mock private ApplicationEventPublisher eventPublisher;
+
   @Test
   void testUserCreation() {
     User user = UserProvider.getInstance();
@@ -120,14 +146,17 @@ public class UserServiceTest {
   @Test
   void testAuthentication() {
     User user = UserProvider.getInstance();
-    UserDetails userDetails = new UserDetailsProvider();
+    CustomUserDetails userDetails = CustomUserDetails.create(user);
     String token = "token";
 
     LoginRequestDto loginRequestDto = new LoginRequestDto();
     loginRequestDto.setEmail(user.getEmail());
     loginRequestDto.setPassword(user.getPassword());
 
-    when(this.userDetailsService.loadUserByUsername(any(String.class))).thenReturn(userDetails);
+    when(this.authenticationManager.authenticate(any()))
+        .thenReturn(
+            new UsernamePasswordAuthenticationToken(
+                userDetails, null, userDetails.getAuthorities()));
     when(this.jwtUtils.generateToken(userDetails)).thenReturn(token);
 
     String jwtToken = userService.authenticateUser(loginRequestDto);
@@ -190,6 +219,36 @@ public class UserServiceTest {
     assertThrows(UserNotFoundException.class, () -> userService.delete(user.getId()));
   }
 
+  @Test
+  void testDeleteUserRemovesTheUsageAndScheduleOfTheirAppointments() {
+    User user = UserProvider.getInstance();
+    Principal userPrincipal = user::getEmail;
+    UserDetails userDetails = new UserDetailsProvider();
+
+    Appointment appointment = AppointmentProvider.getInstance();
+    ActivityAppointment activityAppointment = ActivityAppointmentProvider.getInstance();
+    activityAppointment.setStartDate(LocalDateTime.of(2020, 6, 1, 10, 0));
+    activityAppointment.setEndDate(LocalDateTime.of(2020, 6, 1, 11, 30));
+    activityAppointment.setPrice(BigDecimal.TEN);
+    appointment.getActivityAppointments().add(activityAppointment);
+
+    when(this.userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+    when(this.request.getUserPrincipal()).thenReturn(userPrincipal);
+    when(this.userDetailsService.loadUserByUsername(any(String.class))).thenReturn(userDetails);
+    when(this.appointmentRepository.findWithActivitiesByUserId(user.getId()))
+        .thenReturn(List.of(appointment));
+
+    userService.delete(user.getId());
+
+    verify(utilizationService).record(HourlyUsage.of(appointment), List.of());
+    verify(userRepository).delete(user);
+
+    ArgumentCaptor<Object> events = ArgumentCaptor.forClass(Object.class);
+    verify(eventPublisher, times(2)).publishEvent(events.capture());
+    AppointmentDeletedEvent deleted = (AppointmentDeletedEvent) events.getAllValues().get(0);
+    assertEquals(BookedAppointment.of(appointment), deleted.getAppointment());
+  }
+
   @Test
   void testUpdateUser() {
     User user = UserProvider.getInstance();
@@ -215,6 +274,57 @@ public class UserServiceTest {
     assertEquals(Optional.of(user), updatedUser);
   }
 
+  @Test
+  void testUpdateUserEmailRevokesIssuedTokens() {
+    User user = UserProvider.getInstance();
+
+    UserResponseDtoWithoutAppointments userDto = new UserResponseDtoWithoutAppointments();
+    userDto.setId(user.getId());
+    userDto.setEmail("new@abv.bg");
+    userDto.setFirstName(user.getFirstName());
+    userDto.setLastName(user.getLastName());
+    userDto.setPassword("12345");
+
+    when(this.userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+    when(this.request.getUserPrincipal()).thenReturn(user::getEmail);
+    when(this.userDetailsService.loadUserByUsername(any(String.class)))
+        .thenReturn(new UserDetailsProvider());
+    when(this.userRepository.saveAndFlush(any(User.class))).thenReturn(user);
+
+    userService.update(userDto, request);
+
+    ArgumentCaptor<UserChangedEvent> event = ArgumentCaptor.forClass(UserChangedEvent.class);
+    verify(eventPublisher).publishEvent(event.capture());
+    assertEquals(1, user.getTokenVersion());
+    assertEquals(OptionalInt.of(1), event.getValue().getTokenVersion());
+  }
+
+  @Test
+  void testUpdateUserWithUnchangedPasswordKeepsHash() {
+    User user = UserProvider.getInstance();
+    String hash = user.getPassword();
+
+    UserResponseDtoWithoutAppointments userDto = new UserResponseDtoWithoutAppointments();
+    userDto.setId(user.getId());
+    userDto.setEmail(user.getEmail());
+    userDto.setFirstName("Renamed");
+    userDto.setLastName(user.getLastName());
+    userDto.setPassword("12345");
+
+    when(this.userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+    when(this.request.getUserPrincipal()).thenReturn(user::getEmail);
+    when(this.userDetailsService.loadUserByUsername(any(String.class)))
+        .thenReturn(new UserDetailsProvider());
+    when(this.passwordEncoder.matches("12345", hash)).thenReturn(true);
+    when(this.userRepository.saveAndFlush(any(User.class))).thenReturn(user);
+
+    userService.update(userDto, request);
+
+    verify(passwordEncoder, never()).encode(any());
+    assertEquals(hash, user.getPassword());
+    assertEquals(0, user.getTokenVersion());
+  }
+
   @Test
   void testDeleteUserByNonExistingIdShouldFail() {
     User user = UserProvider.getInstance();